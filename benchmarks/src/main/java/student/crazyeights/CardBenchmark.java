@@ -0,0 +1,73 @@
+package student.crazyeights;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating, shuffling and taking cards out of decks and hands.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CardBenchmark {
+
+    @Param({"5", "10", "20"})
+    private int handSize;
+
+    private Random random;
+    private CardCollection deck;
+    private CardCollection hand;
+    private Card middleCard;
+
+    @Setup
+    public void setUp() {
+        random = new Random(126);
+        deck = CardCollection.createDeck("deck", random);
+        hand = new CardCollection("hand");
+        CardCollection.createDeck("source", new Random(7)).deal(hand, handSize);
+        middleCard = hand.getCards().get(handSize / 2);
+    }
+
+    @Benchmark
+    public List<Card> getDeck() {
+        return Card.getDeck();
+    }
+
+    @Benchmark
+    public CardCollection createDeck() {
+        return CardCollection.createDeck("deck", random);
+    }
+
+    @Benchmark
+    public CardCollection shuffle() {
+        deck.shuffle(random);
+        return deck;
+    }
+
+    /**
+     * Removes a card from the middle of the hand and puts it back on top.
+     */
+    @Benchmark
+    public CardCollection removeCard() {
+        hand.removeCard(middleCard);
+        hand.addCard(middleCard);
+        middleCard = hand.getCards().get(handSize / 2);
+        return hand;
+    }
+}
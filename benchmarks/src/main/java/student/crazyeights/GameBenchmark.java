@@ -0,0 +1,52 @@
+package student.crazyeights;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole headless games per second with a new seed for every game, either with new players or
+ * on one reused {@link GameTable}. The table's gc.alloc.rate.norm is the steady-state
+ * allocation per game.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"2", "3", "4", "5", "6", "7"})
+    private int numOfPlayers;
+
+    private long seed;
+    private GameTable table;
+
+    @Setup
+    public void setUp() {
+        table = new GameTable(new StrategyRegistry(),
+                Collections.nCopies(numOfPlayers, StrategyRegistry.DEFAULT_STRATEGY));
+    }
+
+    @Benchmark
+    public GameResult headlessGame() {
+        return SimulationRunner.playGame(seed++, numOfPlayers);
+    }
+
+    @Benchmark
+    public GameResult reusedTable() {
+        return table.play(seed++);
+    }
+}
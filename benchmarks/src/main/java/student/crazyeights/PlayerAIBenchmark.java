@@ -0,0 +1,100 @@
+package student.crazyeights;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AI's decisions on a mid-game position: a four player table, some turns into the game,
+ * with at least one playable card in hand. The opponents only draw, so no more turns are played
+ * than the draw pile has cards for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerAIBenchmark {
+
+    private static final int PLAYER_ID = 0;
+    private static final List<Integer> OPPONENT_IDS = Arrays.asList(1, 2, 3);
+
+    @Param({"5", "10"})
+    private int handSize;
+
+    @Param({"4", "30"})
+    private int turnsPlayed;
+
+    private PlayerAI ai;
+    private Card topCard;
+
+    @Setup
+    public void setUp() {
+        List<Card> deck = CardCollection.createDeck("deck", new Random(126)).getCards();
+        List<Card> hand = new ArrayList<>(deck.subList(0, handSize));
+
+        // A top card that shares the first card's suit, so the AI has something to play.
+        topCard = null;
+        for (Card card : deck.subList(handSize, deck.size())) {
+            if (card.getSuit() == hand.get(0).getSuit() && !CardCollection.cardIsEight(card)) {
+                topCard = card;
+                break;
+            }
+        }
+
+        List<PlayerTurn> history = new ArrayList<>();
+        history.add(turn(Game.INITIAL_TOP_CARD_ID, false, topCard));
+        // One card is left to draw, or the game would be over.
+        int numOfPlayers = OPPONENT_IDS.size() + 1;
+        int drawPileSize = Card.DECK_SIZE - 1 - Game.cardsPerPlayer(numOfPlayers) * numOfPlayers;
+        int draws = Math.min(turnsPlayed, drawPileSize - 1);
+        for (int i = 0; i < draws; i++) {
+            // Opponents draw, so the top card stays the same.
+            history.add(turn(OPPONENT_IDS.get(i % OPPONENT_IDS.size()), true, null));
+        }
+
+        ai = new PlayerAI();
+        ai.init(PLAYER_ID, OPPONENT_IDS);
+        ai.receiveInitialCards(hand);
+        ai.processOpponentActions(history);
+        ai.shouldDrawCard(topCard, null);
+    }
+
+    @Benchmark
+    public boolean shouldDrawCard() {
+        return ai.shouldDrawCard(topCard, null);
+    }
+
+    @Benchmark
+    public Card suggestCard() {
+        return ai.suggestCard();
+    }
+
+    @Benchmark
+    public Card.Suit declareSuit() {
+        return ai.declareSuit();
+    }
+
+    private static PlayerTurn turn(int playerId, boolean drew, Card played) {
+        PlayerTurn turn = new PlayerTurn();
+        turn.setPlayerId(playerId);
+        turn.setDrewACard(drew);
+        turn.setPlayedCard(played);
+        return turn;
+    }
+}
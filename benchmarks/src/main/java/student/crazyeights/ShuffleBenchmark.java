@@ -0,0 +1,45 @@
+package student.crazyeights;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shuffling a deck of card ids with each random number generator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShuffleBenchmark {
+
+    @Param({"JDK", "SPLITTABLE", "XOSHIRO"})
+    private RandomAlgorithm algorithm;
+
+    private Random random;
+    private DeckShuffler shuffler;
+
+    @Setup
+    public void setUp() {
+        random = algorithm.create(126);
+        shuffler = new DeckShuffler();
+    }
+
+    @Benchmark
+    public int[] shuffleDeck() {
+        return shuffler.shuffleDeck(random);
+    }
+}
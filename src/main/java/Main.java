@@ -1,14 +1,317 @@
+import student.crazyeights.Arena;
+import student.crazyeights.Checkpoint;
 import student.crazyeights.ConsoleUI;
+import student.crazyeights.GameLogReader;
+import student.crazyeights.GameLogWriter;
+import student.crazyeights.GameRecord;
+import student.crazyeights.GameServer;
+import student.crazyeights.GameReplayer;
+import student.crazyeights.GameResult;
+import student.crazyeights.LoadClient;
+import student.crazyeights.OutputLevel;
+import student.crazyeights.PlayerAI;
+import student.crazyeights.ParameterTuner;
+import student.crazyeights.Player;
+import student.crazyeights.RandomAlgorithm;
+import student.crazyeights.SimulationRunner;
+import student.crazyeights.StrategyRegistry;
+import student.crazyeights.StrategyTimings;
+import student.crazyeights.TimedStrategy;
 import student.crazyeights.Tournament;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 
 public class Main {
-    public static void main(String[] args) {
-        Random random = new Random();
-        ConsoleUI ui = new ConsoleUI(System.in, System.out);
+
+    private static final int STATS_CHECKPOINT_GAMES = 65_536;
+
+    public static void main(String[] args) throws IOException {
+        // "--seed <seed>" in front of any other arguments makes the run reproducible, and
+        // "--output <silent|results|turns|verbose>" sets how much the console tournament prints.
+        // "--deadline <ms>" times every strategy callback of the arena, stats, record, log and replay
+        // runs and holds decisions to the deadline (0 for none); "--isolated-deadline <ms>" also
+        // runs strategies on worker threads.
+        // "--checkpoint <file>" checkpoints "--headless" after every game and "--stats" every
+        // 65536 games, to be finished with "--resume <file>" after a crash.
+        // "--rng <jdk|splittable|xoshiro>" picks the random number generator of the headless,
+        // simulate, arena, stats, record and log runs; records and logs name it, and replays use
+        // the generator of each record.
+        long seed = new Random().nextLong();
+        RandomAlgorithm algorithm = RandomAlgorithm.JDK;
+        OutputLevel outputLevel = OutputLevel.VERBOSE;
+        StrategyTimings timings = null;
+        StrategyRegistry registry = new StrategyRegistry();
+        Path checkpoint = null;
+        while (args.length >= 2 && (args[0].equals("--seed") || args[0].equals("--output")
+                || args[0].equals("--deadline") || args[0].equals("--isolated-deadline")
+                || args[0].equals("--checkpoint") || args[0].equals("--rng"))) {
+            if (args[0].equals("--seed")) {
+                seed = Long.parseLong(args[1]);
+            } else if (args[0].equals("--rng")) {
+                algorithm = RandomAlgorithm.valueOf(args[1].toUpperCase());
+            } else if (args[0].equals("--output")) {
+                outputLevel = OutputLevel.valueOf(args[1].toUpperCase());
+            } else if (args[0].equals("--checkpoint")) {
+                checkpoint = Paths.get(args[1]);
+            } else {
+                timings = new StrategyTimings();
+                long deadline = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[1]));
+                registry.setDecorator(TimedStrategy.decorator(timings, deadline,
+                        args[0].equals("--isolated-deadline")));
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        Random random = new Random(seed);
+
+        // "--headless <players>" plays a bot-only tournament without any console output.
+        if (args.length == 2 && args[0].equals("--headless")) {
+            Tournament tournament = new Tournament(random, Integer.parseInt(args[1]));
+            tournament.setRandomAlgorithm(algorithm);
+            if (checkpoint != null) {
+                tournament.setCheckpoint(checkpoint, 1);
+            }
+            tournament.startTournament();
+            printScores(tournament);
+            return;
+        }
+
+        // "--resume <file>" finishes a checkpointed "--headless" or "--stats" run.
+        if (args.length == 2 && args[0].equals("--resume")) {
+            Path file = Paths.get(args[1]);
+            if (Checkpoint.kindOf(file) == Checkpoint.TOURNAMENT) {
+                Tournament tournament = Tournament.resume(file);
+                tournament.startTournament();
+                printScores(tournament);
+            } else {
+                System.out.print(Arena.resumeStatistics(registry, file, Runtime.getRuntime().availableProcessors()));
+                printTimings(timings);
+            }
+            return;
+        }
+
+        // "--simulate <games> <players> [seed] [threads]" plays independent games on every core.
+        if (args.length >= 3 && args[0].equals("--simulate")) {
+            simulate(args, seed, algorithm);
+            return;
+        }
+
+        // "--record <games> <file> <strategy> <strategy> [...]" saves every decision of every game.
+        if (args.length >= 5 && args[0].equals("--record")) {
+            record(args, seed, registry, algorithm);
+            printTimings(timings);
+            return;
+        }
+
+        // "--log <games> <file> <strategy> <strategy> [...]" writes every turn to a binary game log.
+        if (args.length >= 5 && args[0].equals("--log")) {
+            log(args, seed, registry, algorithm);
+            printTimings(timings);
+            return;
+        }
+
+        // "--scan <file>" summarises a binary game log.
+        if (args.length == 2 && args[0].equals("--scan")) {
+            scan(args[1]);
+            return;
+        }
+
+        // "--replay <file> [threads]" checks that recorded games are still played the same way.
+        if (args.length >= 2 && args[0].equals("--replay")) {
+            replay(args, registry);
+            printTimings(timings);
+            return;
+        }
+
+        // "--arena <games> <strategy> <strategy> [...]" ranks strategies (names or class names).
+        if (args.length >= 4 && args[0].equals("--arena")) {
+            Arena arena = new Arena(registry, Arrays.asList(args).subList(2, args.length),
+                    seed, Runtime.getRuntime().availableProcessors(), algorithm);
+            System.out.println("Seed: " + seed);
+            System.out.print(arena.run(Integer.parseInt(args[1])));
+            printTimings(timings);
+            return;
+        }
+
+        // "--stats <games> <strategy> <strategy> [...]" is the arena with confidence intervals.
+        if (args.length >= 4 && args[0].equals("--stats")) {
+            Arena arena = new Arena(registry, Arrays.asList(args).subList(2, args.length),
+                    seed, Runtime.getRuntime().availableProcessors(), algorithm);
+            System.out.println("Seed: " + seed);
+            int numOfGames = Integer.parseInt(args[1]);
+            System.out.print(checkpoint == null ? arena.collectStatistics(numOfGames)
+                    : arena.collectStatistics(numOfGames, checkpoint, STATS_CHECKPOINT_GAMES));
+            printTimings(timings);
+            return;
+        }
+
+        // "--tune <generations> <deals> [players]" searches for AI parameters that beat the default ones.
+        if (args.length >= 3 && args[0].equals("--tune")) {
+            int numOfPlayers = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+            ParameterTuner tuner = new ParameterTuner(numOfPlayers, Integer.parseInt(args[2]), seed);
+            System.out.println("Seed: " + seed);
+            System.out.print(tuner.tune(Integer.parseInt(args[1])));
+            return;
+        }
+
+        // "--serve <port>" hosts tables for remote players on localhost until the process is stopped.
+        if (args.length == 2 && args[0].equals("--serve")) {
+            GameServer server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(args[1])), seed);
+            System.out.println("Seed: " + seed);
+            System.out.println("Serving on port " + server.getPort());
+            server.run();
+            return;
+        }
+
+        // "--load <port> <tables> <players> <games> [remote seats]" plays AI clients against a local server.
+        if (args.length >= 5 && args[0].equals("--load")) {
+            LoadClient client = new LoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(args[1])), PlayerAI::new);
+            System.out.print(client.run(Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]), args.length > 5 ? Integer.parseInt(args[5]) : 1));
+            return;
+        }
+
+        ConsoleUI ui = new ConsoleUI(System.in, System.out, outputLevel);
         Tournament tournament = new Tournament(ui, random);
         tournament.startTournament();
     }
-}
\ No newline at end of file
+
+    private static void printScores(Tournament tournament) {
+        long[] scores = tournament.getTournamentScore();
+        for (Player p : tournament.getPlayers()) {
+            System.out.println(p.getName() + ": " + scores[p.getId()]);
+        }
+    }
+
+    private static void printTimings(StrategyTimings timings) {
+        if (timings != null) {
+            System.out.println();
+            System.out.print(timings);
+        }
+    }
+
+    private static void simulate(String[] args, long defaultSeed, RandomAlgorithm algorithm) {
+        int numOfGames = Integer.parseInt(args[1]);
+        int numOfPlayers = Integer.parseInt(args[2]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : defaultSeed;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        SimulationRunner runner = new SimulationRunner(seed, threads, algorithm);
+
+        long start = System.nanoTime();
+        GameResult[] results = runner.runGames(numOfGames, numOfPlayers);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int[] wins = new int[numOfPlayers];
+        for (GameResult result : results) {
+            int best = 0;
+            for (int seat = 1; seat < numOfPlayers; seat++) {
+                if (result.getScore(seat) > result.getScore(best)) {
+                    best = seat;
+                }
+            }
+            wins[best]++;
+        }
+
+        System.out.println("Seed: " + seed);
+        for (int seat = 0; seat < numOfPlayers; seat++) {
+            System.out.println("Seat " + seat + " won " + wins[seat] + " games.");
+        }
+        System.out.printf("%d games in %.2f s (%.0f games/s)%n", numOfGames, seconds, numOfGames / seconds);
+    }
+
+    private static void record(String[] args, long seed, StrategyRegistry registry, RandomAlgorithm algorithm)
+            throws IOException {
+        int numOfGames = Integer.parseInt(args[1]);
+        List<String> seats = Arrays.asList(args).subList(3, args.length);
+        SimulationRunner runner = new SimulationRunner(seed, Runtime.getRuntime().availableProcessors(), algorithm);
+        GameRecord[] records = runner.recordGames(numOfGames, registry, i -> seats);
+
+        List<String> lines = new ArrayList<>();
+        for (GameRecord record : records) {
+            lines.add(record.toLine());
+        }
+        Files.write(Paths.get(args[2]), lines);
+        System.out.println("Seed: " + seed);
+        System.out.println("Recorded " + numOfGames + " games to " + args[2]);
+    }
+
+    private static void replay(String[] args, StrategyRegistry registry) throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(args[1]))) {
+            if (!line.isEmpty()) {
+                records.add(GameRecord.parse(line));
+            }
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        int[] divergences = new GameReplayer(registry, threads).replayAll(records);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int diverged = 0;
+        for (int i = 0; i < divergences.length; i++) {
+            if (divergences[i] != GameReplayer.NO_DIVERGENCE) {
+                diverged++;
+                GameRecord record = records.get(i);
+                int turn = divergences[i];
+                String expected = turn < record.getNumberOfDecisions()
+                        ? GameRecord.describe(record.getDecision(turn)) : "the end of the game";
+                System.out.println("Game " + i + " (seed " + record.getResult().getSeed() + ") diverged at turn "
+                        + turn + ", recorded " + expected);
+            }
+        }
+        System.out.printf("%d of %d games diverged, replayed in %.2f s (%.0f games/s)%n",
+                diverged, records.size(), seconds, records.size() / seconds);
+    }
+
+    private static void log(String[] args, long seed, StrategyRegistry registry, RandomAlgorithm algorithm)
+            throws IOException {
+        int numOfGames = Integer.parseInt(args[1]);
+        List<String> seats = Arrays.asList(args).subList(3, args.length);
+        try (GameLogWriter log = new GameLogWriter(Paths.get(args[2]))) {
+            new SimulationRunner(seed, Runtime.getRuntime().availableProcessors(), algorithm)
+                    .logGames(numOfGames, registry, i -> seats, log);
+        }
+        System.out.println("Seed: " + seed);
+        System.out.println("Logged " + numOfGames + " games to " + args[2]);
+    }
+
+    private static void scan(String file) throws IOException {
+        long games = 0;
+        long turns = 0;
+        long draws = 0;
+        long eights = 0;
+        long start = System.nanoTime();
+        try (GameLogReader log = new GameLogReader(Paths.get(file))) {
+            while (log.nextGame()) {
+                games++;
+                while (log.nextTurn()) {
+                    turns++;
+                    if (log.isDraw()) {
+                        draws++;
+                    } else if (log.getDeclaredSuit() >= 0) {
+                        eights++;
+                    }
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(games + " games, " + turns + " turns (" + draws + " draws, "
+                + eights + " eights played)");
+        System.out.printf("%.1f bytes per turn, scanned in %.2f s (%.0f turns/s)%n",
+                (double) Files.size(Paths.get(file)) / Math.max(turns, 1), seconds, turns / seconds);
+    }
+}
@@ -0,0 +1,146 @@
+package student.crazyeights;
+
+import java.util.Arrays;
+
+/**
+ * The thresholds and weights {@link PlayerAI} plays by, as a vector of integers that a
+ * {@link ParameterTuner} can search.
+ * <p>
+ * {@link #DEFAULT} is the hand-tuned vector the AI has always played with. Every parameter has a
+ * range it is clamped to, so any vector built from the constructor is a valid one.
+ */
+public final class AiParameters {
+
+    /** Play an eight when the hand holds exactly this many cards. */
+    public static final int EIGHT_HAND_SIZE = 0;
+    /** Play an eight when the draw pile holds fewer cards than this. */
+    public static final int EIGHT_DRAW_PILE_SIZE = 1;
+    /** Play an eight when the smallest opponent hand holds exactly this many cards. */
+    public static final int EIGHT_OPPONENT_HAND_SIZE = 2;
+    /** The number of most valuable playable cards to choose from. */
+    public static final int VALUE_CANDIDATES = 3;
+    /** How high in the commonality ranking a candidate has to be. */
+    public static final int COMMONALITY_CANDIDATES = 4;
+    /** The commonality weight of a card's position in the hand. */
+    public static final int POSITION_WEIGHT = 5;
+    /** The commonality weight of other playable cards of the same suit. */
+    public static final int SUIT_WEIGHT = 6;
+    /** The commonality weight of other playable cards of the same rank. */
+    public static final int RANK_WEIGHT = 7;
+
+    private static final String[] NAMES = {
+            "eightHandSize", "eightDrawPileSize", "eightOpponentHandSize", "valueCandidates",
+            "commonalityCandidates", "positionWeight", "suitWeight", "rankWeight"};
+    private static final int[] MIN = {0, 0, 0, 1, 1, 0, 0, 0};
+    private static final int[] MAX = {8, 16, 8, 8, 8, 8, 8, 8};
+
+    /**
+     * The parameters the AI plays by unless it is given others.
+     */
+    public static final AiParameters DEFAULT = new AiParameters(2, 2, 1, 3, 3, 2, 1, 1);
+
+    private final int[] values;
+
+    /**
+     * @param values The value of every parameter, in index order; each is clamped to its range
+     */
+    public AiParameters(int... values) {
+        if (values.length != NAMES.length) {
+            throw new IllegalArgumentException("Expected " + NAMES.length + " parameters.");
+        }
+        this.values = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            this.values[i] = Math.max(MIN[i], Math.min(MAX[i], values[i]));
+        }
+    }
+
+    /**
+     * Parses the form {@link #toString} writes, e.g. "eightHandSize=2, suitWeight=1". Parameters
+     * that are not named keep their default value.
+     *
+     * @throws IllegalArgumentException If a name is unknown or a value is not a number
+     */
+    public static AiParameters parse(String text) {
+        int[] values = DEFAULT.toArray();
+        for (String entry : text.split(",")) {
+            if (entry.trim().isEmpty()) {
+                continue;
+            }
+            String[] nameAndValue = entry.split("=");
+            int index = Arrays.asList(NAMES).indexOf(nameAndValue[0].trim());
+            if (nameAndValue.length != 2 || index < 0) {
+                throw new IllegalArgumentException("Not a parameter: " + entry.trim());
+            }
+            try {
+                values[index] = Integer.parseInt(nameAndValue[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number: " + entry.trim(), e);
+            }
+        }
+        return new AiParameters(values);
+    }
+
+    /**
+     * @return The number of parameters.
+     */
+    public static int size() {
+        return NAMES.length;
+    }
+
+    /**
+     * @return The name of parameter i.
+     */
+    public static String getName(int index) {
+        return NAMES[index];
+    }
+
+    /**
+     * @return The smallest value of parameter i.
+     */
+    public static int getMin(int index) {
+        return MIN[index];
+    }
+
+    /**
+     * @return The largest value of parameter i.
+     */
+    public static int getMax(int index) {
+        return MAX[index];
+    }
+
+    /**
+     * @return The value of parameter i.
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return A copy of the values, in index order.
+     */
+    public int[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof AiParameters && Arrays.equals(values, ((AiParameters) other).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(NAMES[i]).append('=').append(values[i]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,161 @@
+package student.crazyeights;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Seats any mix of strategies at one table and plays many headless games between them.
+ * <p>
+ * The seating is rotated by one seat every game, so every strategy plays every seat equally
+ * often. Games never touch the console and run on a {@link SimulationRunner}.
+ */
+public class Arena {
+
+    private final StrategyRegistry registry;
+    private final List<String> strategies;
+    private final long masterSeed;
+    private final RandomAlgorithm algorithm;
+    private final SimulationRunner runner;
+
+    /**
+     * @param registry    Where the strategies are looked up
+     * @param strategies  The strategy of every seat; a strategy may take several seats
+     * @param masterSeed  The seed every game's random stream is derived from
+     * @param parallelism The number of threads to play on
+     */
+    public Arena(StrategyRegistry registry, List<String> strategies, long masterSeed, int parallelism) {
+        this(registry, strategies, masterSeed, parallelism, RandomAlgorithm.JDK);
+    }
+
+    /**
+     * @param registry    Where the strategies are looked up
+     * @param strategies  The strategy of every seat; a strategy may take several seats
+     * @param masterSeed  The seed every game's random stream is derived from
+     * @param parallelism The number of threads to play on
+     * @param algorithm   The random number generator every game is played with
+     */
+    public Arena(StrategyRegistry registry, List<String> strategies, long masterSeed, int parallelism,
+                 RandomAlgorithm algorithm) {
+        if (strategies.size() > 7 || strategies.size() < 2) {
+            throw new IllegalArgumentException(ConsoleUI.NUMBER_OF_PLAYER_FAIL);
+        }
+        for (String strategy : strategies) {
+            // Fails early on unknown names instead of in the middle of a run.
+            registry.getFactory(strategy);
+        }
+        this.registry = registry;
+        this.strategies = new ArrayList<>(strategies);
+        this.masterSeed = masterSeed;
+        this.algorithm = algorithm;
+        this.runner = new SimulationRunner(masterSeed, parallelism, algorithm);
+    }
+
+    /**
+     * Plays the games and sums up the results per strategy.
+     *
+     * @param numOfGames The number of games to play
+     * @return The win rate, average score and average game length of every strategy
+     */
+    public ArenaReport run(int numOfGames) {
+        return runner.reportGames(numOfGames, registry, this::seatingOfGame);
+    }
+
+    /**
+     * Plays the games and keeps running statistics per strategy and per seat.
+     *
+     * @param numOfGames The number of games to play
+     * @return Win rates, scores, game lengths and endings with their confidence intervals
+     */
+    public StatsAggregator collectStatistics(int numOfGames) {
+        return runner.aggregateGames(numOfGames, registry, this::seatingOfGame);
+    }
+
+    /**
+     * Collects the statistics like {@link #collectStatistics(int)}, and checkpoints the run to
+     * the file every given number of games (rounded up to whole chunks of games), so that
+     * {@link #resumeStatistics} can finish it after a crash. The statistics are the same either
+     * way.
+     *
+     * @param numOfGames      The number of games to play
+     * @param checkpoint      The file the checkpoints replace one another in
+     * @param checkpointEvery The number of games between checkpoints
+     * @return Win rates, scores, game lengths and endings with their confidence intervals
+     */
+    public StatsAggregator collectStatistics(int numOfGames, Path checkpoint, int checkpointEvery)
+            throws IOException {
+        if (checkpointEvery < 1) {
+            throw new IllegalArgumentException("Checkpoints must be at least one game apart.");
+        }
+        return collectStatistics(numOfGames, 0, new StatsAggregator(), checkpoint, checkpointEvery);
+    }
+
+    /**
+     * Finishes a run of {@link #collectStatistics(int, Path, int)} from its checkpoint, with the
+     * same strategies, seed, random number generator and number of games, and goes on
+     * checkpointing to the same file.
+     *
+     * @param registry    Where the strategies are looked up
+     * @param checkpoint  The checkpoint
+     * @param parallelism The number of threads to play on
+     * @return The statistics of all the games, the same as if the run had never stopped.
+     * @throws IllegalArgumentException If the file is not a checkpoint of such a run
+     */
+    public static StatsAggregator resumeStatistics(StrategyRegistry registry, Path checkpoint, int parallelism)
+            throws IOException {
+        Arena arena;
+        int numOfGames;
+        int gamesPlayed;
+        int checkpointEvery;
+        StatsAggregator stats;
+        try (DataInputStream in = Checkpoint.read(checkpoint, Checkpoint.STATISTICS)) {
+            long masterSeed = in.readLong();
+            RandomAlgorithm algorithm = RandomAlgorithm.values()[in.readUnsignedByte()];
+            numOfGames = in.readInt();
+            gamesPlayed = in.readInt();
+            checkpointEvery = in.readInt();
+            List<String> strategies = new ArrayList<>();
+            for (int seat = in.readUnsignedByte(); seat > 0; seat--) {
+                strategies.add(in.readUTF());
+            }
+            stats = StatsAggregator.readFrom(in);
+            arena = new Arena(registry, strategies, masterSeed, parallelism, algorithm);
+        }
+        return arena.collectStatistics(numOfGames, gamesPlayed, stats, checkpoint, checkpointEvery);
+    }
+
+    private StatsAggregator collectStatistics(int numOfGames, int gamesPlayed, StatsAggregator stats,
+                                              Path checkpoint, int checkpointEvery) throws IOException {
+        int chunk = SimulationRunner.STATS_CHUNK_SIZE;
+        long step = ((long) checkpointEvery + chunk - 1) / chunk * chunk;
+        for (long first = gamesPlayed; first < numOfGames; first += step) {
+            int end = (int) Math.min(numOfGames, first + step);
+            runner.aggregateGames((int) first, end, registry, this::seatingOfGame, stats);
+            Checkpoint.write(checkpoint, Checkpoint.STATISTICS, out -> {
+                out.writeLong(masterSeed);
+                out.writeByte(algorithm.ordinal());
+                out.writeInt(numOfGames);
+                out.writeInt(end);
+                out.writeInt(checkpointEvery);
+                out.writeByte(strategies.size());
+                for (String strategy : strategies) {
+                    out.writeUTF(strategy);
+                }
+                stats.writeTo(out);
+            });
+        }
+        return stats;
+    }
+
+    /**
+     * @return The strategies of game i, rotated i seats.
+     */
+    List<String> seatingOfGame(int gameIndex) {
+        List<String> seating = new ArrayList<>(strategies);
+        Collections.rotate(seating, gameIndex % seating.size());
+        return seating;
+    }
+}
@@ -0,0 +1,111 @@
+package student.crazyeights;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Totals of an {@link Arena} run, per strategy.
+ * <p>
+ * A strategy that takes several seats counts once per seat. A game won by several seats
+ * (tied on the highest score) gives each winner an equal share of the win. Reports of parts of a
+ * run are combined with {@link #merge}.
+ */
+public class ArenaReport {
+
+    private final Map<String, Totals> totals = new LinkedHashMap<>();
+
+    /**
+     * Adds one finished game.
+     */
+    void add(GameResult result) {
+        double winShare = 1.0 / result.getNumberOfWinners();
+        for (int seat = 0; seat < result.getNumberOfSeats(); seat++) {
+            Totals strategyTotals = totals.computeIfAbsent(result.getStrategy(seat), name -> new Totals());
+            strategyTotals.seatsPlayed++;
+            strategyTotals.score += result.getScore(seat);
+            strategyTotals.turns += result.getNumberOfTurns();
+            if (result.isWinner(seat)) {
+                strategyTotals.wins += winShare;
+            }
+        }
+    }
+
+    /**
+     * Adds the games of another report.
+     */
+    void merge(ArenaReport other) {
+        for (Map.Entry<String, Totals> entry : other.totals.entrySet()) {
+            Totals strategyTotals = totals.computeIfAbsent(entry.getKey(), name -> new Totals());
+            strategyTotals.seatsPlayed += entry.getValue().seatsPlayed;
+            strategyTotals.wins += entry.getValue().wins;
+            strategyTotals.score += entry.getValue().score;
+            strategyTotals.turns += entry.getValue().turns;
+        }
+    }
+
+    /**
+     * @return The names of the strategies in the report.
+     */
+    public Iterable<String> getStrategies() {
+        return Collections.unmodifiableSet(totals.keySet());
+    }
+
+    /**
+     * @return The number of seats the strategy played, over all games.
+     */
+    public long getSeatsPlayed(String strategy) {
+        return totalsOf(strategy).seatsPlayed;
+    }
+
+    /**
+     * @return The share of its seats the strategy won.
+     */
+    public double getWinRate(String strategy) {
+        Totals strategyTotals = totalsOf(strategy);
+        return strategyTotals.wins / strategyTotals.seatsPlayed;
+    }
+
+    /**
+     * @return The average score of the strategy per seat played.
+     */
+    public double getAverageScore(String strategy) {
+        Totals strategyTotals = totalsOf(strategy);
+        return (double) strategyTotals.score / strategyTotals.seatsPlayed;
+    }
+
+    /**
+     * @return The average number of turns of the games the strategy played.
+     */
+    public double getAverageGameLength(String strategy) {
+        Totals strategyTotals = totalsOf(strategy);
+        return (double) strategyTotals.turns / strategyTotals.seatsPlayed;
+    }
+
+    private Totals totalsOf(String strategy) {
+        Totals strategyTotals = totals.get(strategy);
+        if (strategyTotals == null) {
+            throw new IllegalArgumentException("No games for strategy " + strategy);
+        }
+        return strategyTotals;
+    }
+
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-30s %10s %9s %10s %10s%n", "Strategy", "Seats", "Win rate",
+                "Avg score", "Avg turns"));
+        for (String strategy : totals.keySet()) {
+            report.append(String.format("%-30s %10d %8.2f%% %10.2f %10.2f%n", strategy,
+                    getSeatsPlayed(strategy), 100 * getWinRate(strategy),
+                    getAverageScore(strategy), getAverageGameLength(strategy)));
+        }
+        return report.toString();
+    }
+
+    private static class Totals {
+        private long seatsPlayed;
+        private double wins;
+        private long score;
+        private long turns;
+    }
+}
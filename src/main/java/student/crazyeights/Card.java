@@ -1,7 +1,7 @@
 package student.crazyeights;
 
 import java.util.ArrayList;
-import java.util.EnumSet;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -37,14 +37,114 @@ public class Card {
     private static final int FACE_CARD_VALUE = 10;
     private static final int EIGHT_CARD_VALUE = 50;
 
-    private static final int DECK_SIZE = Suit.values().length * Rank.values().length;
+    private static final Suit[] SUITS = Suit.values();
+    private static final Rank[] RANKS = Rank.values();
 
-    private Suit suit;
-    private Rank rank;
+    public static final int DECK_SIZE = SUITS.length * RANKS.length;
 
+    /**
+     * The canonical instance of every card, indexed by id.
+     */
+    private static final Card[] CARDS = new Card[DECK_SIZE];
+
+    // Perfect hashes for parsing "RANK of SUIT": the first two letters of the rank and the
+    // next-to-last letter of the suit are unique, and these moduli keep them apart.
+    private static final int RANK_HASH_MULTIPLIER = 14;
+    private static final int RANK_HASH_SIZE = 23;
+    private static final int SUIT_HASH_SIZE = 7;
+    private static final Rank[] RANK_BY_HASH = new Rank[RANK_HASH_SIZE];
+    private static final Suit[] SUIT_BY_HASH = new Suit[SUIT_HASH_SIZE];
+
+    static {
+        for (Suit suit : SUITS) {
+            for (Rank rank : RANKS) {
+                Card card = new Card(suit, rank);
+                CARDS[card.id] = card;
+            }
+        }
+        for (Rank rank : RANKS) {
+            String name = rank.name();
+            int hash = rankHash(name.charAt(0), name.charAt(1));
+            if (RANK_BY_HASH[hash] != null) {
+                throw new IllegalStateException("Rank hash collision: " + name);
+            }
+            RANK_BY_HASH[hash] = rank;
+        }
+        for (Suit suit : SUITS) {
+            String name = suit.name();
+            int hash = suitHash(name.charAt(name.length() - 2));
+            if (SUIT_BY_HASH[hash] != null) {
+                throw new IllegalStateException("Suit hash collision: " + name);
+            }
+            SUIT_BY_HASH[hash] = suit;
+        }
+    }
+
+    private final Suit suit;
+    private final Rank rank;
+    private final int id;
+    private final String name;
+
+    /**
+     * Creates a card. Prefer {@link #of(Suit, Rank)}, which returns the shared instance.
+     */
     public Card(Suit suit, Rank rank) {
         this.suit = suit;
         this.rank = rank;
+        if (suit != null && rank != null) {
+            this.id = suit.ordinal() * RANKS.length + rank.ordinal();
+            this.name = rank + " of " + suit;
+        } else {
+            this.id = -1;
+            this.name = null;
+        }
+    }
+
+    /**
+     * Gets the canonical instance of a card.
+     *
+     * @return The shared card with this suit and rank
+     */
+    public static Card of(Suit suit, Rank rank) {
+        return CARDS[suit.ordinal() * RANKS.length + rank.ordinal()];
+    }
+
+    /**
+     * Gets the canonical instance of a card from its id.
+     *
+     * @param id An id from 0 to 51
+     * @return The shared card with this id
+     */
+    public static Card fromId(int id) {
+        return CARDS[id];
+    }
+
+    /**
+     * Parses a card written the way {@link #toString()} writes it, e.g. "QUEEN of HEARTS".
+     *
+     * @param text The text to parse
+     * @return The canonical card, or null if the text is not exactly a card name
+     */
+    public static Card parse(String text) {
+        // The shortest name is "ACE of CLUBS".
+        if (text == null || text.length() < 12) {
+            return null;
+        }
+        Rank rank = RANK_BY_HASH[rankHash(text.charAt(0), text.charAt(1))];
+        Suit suit = SUIT_BY_HASH[suitHash(text.charAt(text.length() - 2))];
+        if (rank == null || suit == null) {
+            return null;
+        }
+        Card card = of(suit, rank);
+        return card.name.equals(text) ? card : null;
+    }
+
+    private static int rankHash(char first, char second) {
+        return (first * RANK_HASH_MULTIPLIER + second) % RANK_HASH_SIZE;
+    }
+
+    private static int suitHash(char nextToLast) {
+        return nextToLast % SUIT_HASH_SIZE;
     }
 
     public Suit getSuit() {
@@ -55,6 +155,16 @@ public class Card {
         return rank;
     }
 
+    /**
+     * Gets the dense id of this card: suit ordinal * 13 + rank ordinal, in the order of
+     * {@link #getDeck()}.
+     *
+     * @return An id from 0 to 51
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Returns the Crazy8s point value for this card.
      *
@@ -79,15 +189,7 @@ public class Card {
      * @return A list representing an unshuffled deck of cards
      */
     public static List<Card> getDeck() {
-        List<Card> cardDeck = new ArrayList<>(DECK_SIZE);
-
-        for (Suit suit : EnumSet.allOf(Suit.class)) {
-            for (Rank rank : EnumSet.allOf(Rank.class)) {
-                cardDeck.add(new Card(suit, rank));
-            }
-        }
-
-        return cardDeck;
+        return new ArrayList<>(Arrays.asList(CARDS));
     }
 
     // Convenience methods; you might or might not need these.
@@ -101,16 +203,17 @@ public class Card {
             return false;
         }
         Card card = (Card) o;
-        return suit == card.suit &&
+        return id == card.id &&
+            suit == card.suit &&
             rank == card.rank;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(suit, rank);
+        return id >= 0 ? id : Objects.hash(suit, rank);
     }
 
     public String toString() {
-        return rank + " of " + suit;
+        return name != null ? name : rank + " of " + suit;
     }
 }
@@ -1,14 +1,26 @@
 package student.crazyeights;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
+/**
+ * An ordered pile of cards, used as a stack for the draw and discard piles.
+ * <p>
+ * Next to the ordered list, the collection keeps a {@link CardMask} of the cards it holds,
+ * so membership, counting and suit or rank queries never walk the list, and the position of each
+ * card in the list, so a card is removed without searching for it. Removing any card but the top
+ * one moves the top card into its place: the piles are only taken from the top, and the order of
+ * a hand does not matter.
+ */
 public class CardCollection {
 
     private final String label;
-    private ArrayList<Card> cards;
+    private final ArrayList<Card> cards;
+    private final List<Card> readOnlyCards;
+    private final byte[] positions = new byte[Card.DECK_SIZE];
+    private long mask;
 
     /**
      * Generate an empty collection of cards.
@@ -16,6 +28,7 @@ public class CardCollection {
     CardCollection(String label) {
         this.label = label;
         this.cards = new ArrayList<>();
+        this.readOnlyCards = Collections.unmodifiableList(cards);
     }
 
     /**
@@ -27,61 +40,57 @@ public class CardCollection {
      */
     static CardCollection createDeck(String label, Random random) {
         CardCollection shuffledDeck = new CardCollection(label);
-        List<Card> unshuffledDeck = Card.getDeck();
-        for (Card c : unshuffledDeck) {
-            shuffledDeck.addCard(c);
+        for (int id : DeckShuffler.forCurrentThread().shuffleDeck(random)) {
+            shuffledDeck.addCard(Card.fromId(id));
         }
-        shuffledDeck.shuffle(random);
         return shuffledDeck;
     }
 
     /**
-     * Shuffle current card collection.
-     * If the top card of the deck is an eight, the deck is shuffled again.
+     * Shuffle current card collection with {@link DeckShuffler}, in the reused array of the
+     * calling thread's shuffler.
+     * The top card is never an eight, unless every card is one.
      * @param random Instance of Random passed from main()
      */
-    private void shuffle(Random random) {
-        do {
-            for (int i = 0; i < size(); i++) {
-                int j = random.nextInt(size());
-                swapCards(i, j);
-            }
-        } while (cardIsEight(getTopCard()));
+    void shuffle(Random random) {
+        int size = size();
+        int[] ids = DeckShuffler.forCurrentThread().getBuffer();
+        for (int i = 0; i < size; i++) {
+            ids[i] = cards.get(i).getId();
+        }
+        DeckShuffler.shuffle(ids, size, random);
+        for (int i = 0; i < size; i++) {
+            cards.set(i, Card.fromId(ids[i]));
+            positions[ids[i]] = (byte) i;
+        }
     }
 
     /**
-     *
-     * @param toCompare
-     * @return
+     * @param toCompare The card to check
+     * @return True if the card is an eight, of any suit.
      */
     static boolean cardIsEight(Card toCompare) {
-        List<Card> listOfEights = Arrays.asList(new Card(Card.Suit.DIAMONDS, Card.Rank.EIGHT),
-                new Card(Card.Suit.CLUBS, Card.Rank.EIGHT),
-                new Card(Card.Suit.HEARTS, Card.Rank.EIGHT),
-                new Card(Card.Suit.SPADES, Card.Rank.EIGHT)
-        );
-        for (Card eight : listOfEights) {
-            if (toCompare.equals(eight)) {
-                return true;
-            }
-        }
-        return false;
+        return toCompare.getRank() == Card.Rank.EIGHT;
     }
 
     /**
-     * Swaps the cards at indexes i and j.
+     * Add a card.
      */
-    private void swapCards(int i, int j) {
-        Card temp = cards.get(i);
-        cards.set(i, cards.get(j));
-        cards.set(j, temp);
+    void addCard(Card cardToAdd) {
+        int id = cardToAdd.getId();
+        if (id >= 0) {
+            positions[id] = (byte) cards.size();
+        }
+        cards.add(cardToAdd);
+        mask |= CardMask.bit(cardToAdd);
     }
 
     /**
-     * Add a card.
+     * Removes every card, keeping the space they took for the next ones.
      */
-    void addCard(Card cardToAdd) {
-        cards.add(cardToAdd);
+    void clear() {
+        cards.clear();
+        mask = CardMask.EMPTY;
     }
 
     /**
@@ -111,15 +120,31 @@ public class CardCollection {
     }
 
     /**
-     * Remove a card.
+     * Remove a card. Unless it is the top card, the top card takes its place.
      * @return The card that is removed.
      */
     Card removeCard(int index) {
-        return cards.remove(index);
+        Card top = cards.remove(size() - 1);
+        Card removed = top;
+        if (index < size()) {
+            removed = cards.set(index, top);
+            positions[top.getId()] = (byte) index;
+        }
+        mask &= ~CardMask.bit(removed);
+        return removed;
     }
 
-    void removeCard(Card toRemove) {
-        cards.remove(toRemove);
+    /**
+     * Remove a card, if the collection holds it. Unless it is the top card, the top card takes
+     * its place.
+     * @return True if the card was removed, false if the collection does not hold it.
+     */
+    boolean removeCard(Card toRemove) {
+        if (!contains(toRemove)) {
+            return false;
+        }
+        removeCard(positions[toRemove.getId()]);
+        return true;
     }
 
     /**
@@ -128,7 +153,35 @@ public class CardCollection {
      */
     Card removeTopCard() {
         int index = size() - 1;
-        return cards.remove(index);
+        return removeCard(index);
+    }
+
+    /**
+     * @return True if the collection holds the card.
+     */
+    boolean contains(Card card) {
+        return (mask & CardMask.bit(card)) != 0;
+    }
+
+    /**
+     * @return The cards of the collection, as a {@link CardMask}.
+     */
+    long getMask() {
+        return mask;
+    }
+
+    /**
+     * @return The cards of this suit in the collection, as a {@link CardMask}.
+     */
+    long cardsOfSuit(Card.Suit suit) {
+        return CardMask.ofSuit(mask, suit);
+    }
+
+    /**
+     * @return The cards of this rank in the collection, as a {@link CardMask}.
+     */
+    long cardsOfRank(Card.Rank rank) {
+        return CardMask.ofRank(mask, rank);
     }
 
     /**
@@ -153,10 +206,10 @@ public class CardCollection {
     }
 
     /**
-     * @return The list of cards.
+     * @return A read-only view of the cards, bottom first.
      */
-    ArrayList<Card> getCards() {
-        return cards;
+    List<Card> getCards() {
+        return readOnlyCards;
     }
 
     /**
@@ -0,0 +1,114 @@
+package student.crazyeights;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps track of how many cards every player holds and how many are left in the draw pile,
+ * updated in constant time from each observed {@link PlayerTurn}.
+ */
+public class CardCountTracker {
+
+    private static final int UNKNOWN = -1;
+
+    /**
+     * The seat of every player id, or {@link #UNKNOWN}. Ids are small seat numbers, so an array
+     * looks them up without boxing.
+     */
+    private final int[] seatOfPlayer;
+    private final int[] handSizes;
+    private int drawPileSize;
+
+    /**
+     * @param playerIds The ids of every player at the table, this player included; ids are not
+     *                  negative
+     */
+    public CardCountTracker(List<Integer> playerIds) {
+        int largestId = UNKNOWN;
+        for (int playerId : playerIds) {
+            if (playerId < 0) {
+                throw new IllegalArgumentException("Player ids cannot be negative: " + playerId);
+            }
+            largestId = Math.max(largestId, playerId);
+        }
+        this.seatOfPlayer = new int[largestId + 1];
+        Arrays.fill(seatOfPlayer, UNKNOWN);
+        for (int seat = 0; seat < playerIds.size(); seat++) {
+            seatOfPlayer[playerIds.get(seat)] = seat;
+        }
+        this.handSizes = new int[playerIds.size()];
+        reset();
+    }
+
+    /**
+     * Sets the counts back to how they are right after the cards are dealt.
+     */
+    public void reset() {
+        int numOfPlayers = handSizes.length;
+        int cardsPerPlayer = Game.cardsPerPlayer(numOfPlayers);
+        for (int seat = 0; seat < numOfPlayers; seat++) {
+            handSizes[seat] = cardsPerPlayer;
+        }
+        // One card starts the discard pile.
+        drawPileSize = Card.DECK_SIZE - 1 - cardsPerPlayer * numOfPlayers;
+    }
+
+    /**
+     * Updates the counts with one turn. Turns of unknown players, like the entry showing the
+     * initial top card, are ignored.
+     */
+    public void observe(PlayerTurn turn) {
+        int seat = seatOf(turn.getPlayerId());
+        if (seat == UNKNOWN) {
+            return;
+        }
+        if (turn.isDrewACard()) {
+            handSizes[seat]++;
+            drawPileSize--;
+        } else {
+            handSizes[seat]--;
+        }
+    }
+
+    /**
+     * Updates the counts with several turns, in order.
+     */
+    public void observeAll(List<PlayerTurn> turns) {
+        for (int i = 0; i < turns.size(); i++) {
+            observe(turns.get(i));
+        }
+    }
+
+    /**
+     * @return The number of cards the player holds, or -1 for an unknown player.
+     */
+    public int getHandSize(int playerId) {
+        int seat = seatOf(playerId);
+        return seat == UNKNOWN ? -1 : handSizes[seat];
+    }
+
+    /**
+     * @return The smallest hand of any player other than the given one.
+     */
+    public int getSmallestHandSizeExcept(int playerId) {
+        int excluded = seatOf(playerId);
+        int smallest = Integer.MAX_VALUE;
+        for (int seat = 0; seat < handSizes.length; seat++) {
+            if (seat != excluded && handSizes[seat] < smallest) {
+                smallest = handSizes[seat];
+            }
+        }
+        return smallest;
+    }
+
+    private int seatOf(int playerId) {
+        return playerId >= 0 && playerId < seatOfPlayer.length ? seatOfPlayer[playerId] : UNKNOWN;
+    }
+
+    /**
+     * @return The number of cards left in the draw pile.
+     */
+    public int getDrawPileSize() {
+        return drawPileSize;
+    }
+}
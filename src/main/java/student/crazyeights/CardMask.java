@@ -0,0 +1,113 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sets of cards packed into the low 52 bits of a long, one bit per card id.
+ * <p>
+ * Membership, adding, removing, counting and picking out a suit or a rank are single bit
+ * operations, so hands can be queried without walking or allocating anything.
+ */
+public final class CardMask {
+
+    public static final long EMPTY = 0L;
+    public static final long FULL_DECK = (1L << Card.DECK_SIZE) - 1;
+
+    private static final long[] SUIT_MASKS = new long[Card.Suit.values().length];
+    private static final long[] RANK_MASKS = new long[Card.Rank.values().length];
+
+    static {
+        for (Card card : Card.getDeck()) {
+            SUIT_MASKS[card.getSuit().ordinal()] |= bit(card);
+            RANK_MASKS[card.getRank().ordinal()] |= bit(card);
+        }
+    }
+
+    public static final long EIGHTS = RANK_MASKS[Card.Rank.EIGHT.ordinal()];
+
+    private CardMask() {
+    }
+
+    /**
+     * @return The bit of a card, or no bit for a card without a suit or rank.
+     */
+    public static long bit(Card card) {
+        int id = card.getId();
+        return id >= 0 ? 1L << id : EMPTY;
+    }
+
+    /**
+     * @return Every card of this suit.
+     */
+    public static long suitMask(Card.Suit suit) {
+        return SUIT_MASKS[suit.ordinal()];
+    }
+
+    /**
+     * @return Every card of this rank.
+     */
+    public static long rankMask(Card.Rank rank) {
+        return RANK_MASKS[rank.ordinal()];
+    }
+
+    public static boolean contains(long mask, Card card) {
+        return (mask & bit(card)) != 0;
+    }
+
+    public static long add(long mask, Card card) {
+        return mask | bit(card);
+    }
+
+    public static long remove(long mask, Card card) {
+        return mask & ~bit(card);
+    }
+
+    public static int count(long mask) {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * @return The cards of the mask that have this suit.
+     */
+    public static long ofSuit(long mask, Card.Suit suit) {
+        return mask & SUIT_MASKS[suit.ordinal()];
+    }
+
+    /**
+     * @return The cards of the mask that have this rank.
+     */
+    public static long ofRank(long mask, Card.Rank rank) {
+        return mask & RANK_MASKS[rank.ordinal()];
+    }
+
+    /**
+     * @return The card with the lowest id in the mask, or null if the mask is empty.
+     */
+    public static Card first(long mask) {
+        return mask == EMPTY ? null : Card.fromId(Long.numberOfTrailingZeros(mask));
+    }
+
+    /**
+     * @return The mask of every card in the collection.
+     */
+    public static long of(Collection<Card> cards) {
+        long mask = EMPTY;
+        for (Card card : cards) {
+            mask |= bit(card);
+        }
+        return mask;
+    }
+
+    /**
+     * @return The cards of the mask, in id order.
+     */
+    public static List<Card> toList(long mask) {
+        List<Card> cards = new ArrayList<>(count(mask));
+        for (long rest = mask; rest != EMPTY; rest &= rest - 1) {
+            cards.add(Card.fromId(Long.numberOfTrailingZeros(rest)));
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,113 @@
+package student.crazyeights;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes and reads the checkpoints that long runs leave behind, so that {@link Tournament#resume}
+ * and {@link Arena#resumeStatistics} can carry on where a run stopped.
+ * <p>
+ * A checkpoint starts with {@link #MAGIC}, {@link #VERSION} and the kind of run (1 byte), followed
+ * by the run's own state; all numbers are big-endian. It is written in one sequential pass to a
+ * temporary file next to the checkpoint, forced to disk and then moved over the previous one in a
+ * single atomic step, so a crash leaves either the old checkpoint or the new one, never half of
+ * one.
+ */
+public final class Checkpoint {
+
+    public static final int MAGIC = 0x43384350;
+    public static final short VERSION = 3;
+
+    /**
+     * The kind of a checkpoint of a {@link Tournament}.
+     */
+    public static final byte TOURNAMENT = 1;
+
+    /**
+     * The kind of a checkpoint of {@link Arena#collectStatistics}.
+     */
+    public static final byte STATISTICS = 2;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Writes the state of a run after the header.
+     */
+    interface State {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Replaces the checkpoint in the file atomically.
+     *
+     * @param file  The checkpoint
+     * @param kind  The kind of run
+     * @param state Writes the run's state
+     */
+    static void write(Path file, byte kind, State state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(kind);
+        state.write(out);
+        out.flush();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Opens a checkpoint and reads its header.
+     *
+     * @param file The checkpoint
+     * @param kind The kind of run it must be of
+     * @return The state of the run, right after the header.
+     * @throws IllegalArgumentException If the file is not a checkpoint of that kind
+     */
+    static DataInputStream read(Path file, byte kind) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)));
+        if (kindOf(file, in) != kind) {
+            throw new IllegalArgumentException(file + " is not a checkpoint of this kind of run.");
+        }
+        return in;
+    }
+
+    /**
+     * @return The kind of run the checkpoint is of.
+     * @throws IllegalArgumentException If the file is not a checkpoint
+     */
+    public static byte kindOf(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return kindOf(file, in);
+        }
+    }
+
+    private static byte kindOf(Path file, DataInputStream in) throws IOException {
+        if (in.available() < 7 || in.readInt() != MAGIC) {
+            throw new IllegalArgumentException(file + " is not a checkpoint.");
+        }
+        if (in.readShort() != VERSION) {
+            throw new IllegalArgumentException(file + " has an unknown checkpoint version.");
+        }
+        return in.readByte();
+    }
+}
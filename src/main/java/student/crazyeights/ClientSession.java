@@ -0,0 +1,154 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays a {@link PlayerStrategy} at a {@link GameServer} table: turns every {@link TableProtocol}
+ * message into the matching callback and answers the TURN messages with the strategy's moves.
+ * The session only works on lines, so it can sit behind any kind of socket.
+ */
+public class ClientSession {
+
+    private final PlayerStrategy strategy;
+    private final List<PlayerTurn> turns = new ArrayList<>();
+    private int turnsUsed;
+    private final List<Card> cards = new ArrayList<>();
+    private int tableNumber = -1;
+    private int seat = -1;
+    private int gamesPlayed;
+    private long score;
+    private boolean finished;
+
+    /**
+     * @param strategy The strategy that plays the seat
+     */
+    public ClientSession(PlayerStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * @return The line that asks for a seat at a table of the given size, length and number of
+     * remote players.
+     */
+    public static String join(int numOfPlayers, int numOfGames, int numOfRemoteSeats) {
+        return TableProtocol.JOIN + ' ' + numOfPlayers + ' ' + numOfGames + ' ' + numOfRemoteSeats;
+    }
+
+    /**
+     * Handles one line from the server.
+     *
+     * @param line The line, without its line break
+     * @return The answer to send, or null if there is none
+     * @throws IllegalStateException If the server reports an error or sends something unexpected
+     */
+    public String handle(String line) {
+        String[] words = line.split(" ");
+        int[] numbers;
+        try {
+            numbers = words[0].equals(TableProtocol.ERROR) ? new int[0] : TableProtocol.numbers(words);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unexpected message: " + line, e);
+        }
+        switch (words[0]) {
+            case TableProtocol.SEAT:
+                tableNumber = numbers[0];
+                seat = numbers[1];
+                List<Integer> opponentIds = new ArrayList<>();
+                for (int id = 0; id < numbers[2]; id++) {
+                    if (id != seat) {
+                        opponentIds.add(id);
+                    }
+                }
+                strategy.init(seat, opponentIds);
+                return null;
+            case TableProtocol.HAND:
+                cards.clear();
+                for (int id : numbers) {
+                    cards.add(TableProtocol.cardWithId(id));
+                }
+                turnsUsed = 0;
+                strategy.reset();
+                strategy.receiveInitialCards(cards);
+                return null;
+            case TableProtocol.SEEN:
+                // Strategies may keep the turns until they are reset, like the game's own history,
+                // so every turn of a game gets its own object, reused in the next game.
+                int from = turnsUsed;
+                for (int i = 0; i + 1 < numbers.length; i += 2) {
+                    if (turnsUsed == turns.size()) {
+                        turns.add(new PlayerTurn());
+                    }
+                    setTurn(turns.get(turnsUsed++), numbers[i], numbers[i + 1]);
+                }
+                strategy.processOpponentActions(turns.subList(from, turnsUsed));
+                return null;
+            case TableProtocol.TURN:
+                return TableProtocol.MOVE + ' ' + decide(TableProtocol.cardWithId(numbers[0]),
+                        TableProtocol.suitOf(numbers[1]));
+            case TableProtocol.CARD:
+                strategy.receiveCard(TableProtocol.cardWithId(numbers[0]));
+                return null;
+            case TableProtocol.END:
+                gamesPlayed++;
+                score += numbers[seat];
+                return null;
+            case TableProtocol.BYE:
+                finished = true;
+                return null;
+            default:
+                throw new IllegalStateException("The server says: " + line);
+        }
+    }
+
+    private int decide(Card topCard, Card.Suit declaredSuit) {
+        if (strategy.shouldDrawCard(topCard, declaredSuit)) {
+            return TableProtocol.encodeMove(true, null, null);
+        }
+        Card card = strategy.playCard();
+        Card.Suit declared = CardCollection.cardIsEight(card) ? strategy.declareSuit() : null;
+        return TableProtocol.encodeMove(false, card, declared);
+    }
+
+    private static void setTurn(PlayerTurn turn, int playerId, int move) {
+        turn.setPlayerId(playerId);
+        turn.setDrewACard(move == GameRecord.DRAW);
+        turn.setPlayedCard(TableProtocol.cardOf(move));
+        turn.setDeclaredSuit(TableProtocol.declaredSuitOf(move));
+    }
+
+    /**
+     * @return The number of the table, or -1 before the player is seated.
+     */
+    public int getTableNumber() {
+        return tableNumber;
+    }
+
+    /**
+     * @return The player's seat, or -1 before it is seated.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * @return The number of games finished.
+     */
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * @return The player's total score over the finished games.
+     */
+    public long getScore() {
+        return score;
+    }
+
+    /**
+     * @return True once the table has played all its games.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+}
@@ -6,7 +6,6 @@ import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 public class ConsoleUI {
@@ -55,25 +54,98 @@ public class ConsoleUI {
     public static final String TOURNAMENT_WINNER_ID = "tw";
     public static final String GAME_WINNER_ID = "gw";
 
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String TURN_SEPARATOR =
+            "------------------------------------------------------------------------------------------------";
+
+    /**
+     * Output is written out once the buffer holds this many characters, even within a game.
+     */
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
     private InputStream in;
     private InputStream backupIn;
     private PrintStream out;
+    private final OutputLevel level;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
 
+    /**
+     * Prints everything.
+     */
     public ConsoleUI(InputStream inputStream, PrintStream outputStream) {
+        this(inputStream, outputStream, OutputLevel.VERBOSE);
+    }
+
+    /**
+     * Prints only what the output level asks for. Text is collected in a buffer, written out at
+     * the start and the end of games and before the user is asked for input.
+     */
+    public ConsoleUI(InputStream inputStream, PrintStream outputStream, OutputLevel level) {
         this.in = inputStream;
         this.backupIn = in;
         this.out = outputStream;
+        this.level = level;
+    }
+
+    /**
+     * @return True if output of the given level is printed.
+     */
+    public boolean shows(OutputLevel outputLevel) {
+        return level.compareTo(outputLevel) >= 0;
     }
 
+    /**
+     * Prints an announcement.
+     */
     public void consolePrint(String toPrint) {
-        out.println(toPrint);
+        consolePrint(toPrint, OutputLevel.RESULTS);
+    }
+
+    /**
+     * Prints a line if the output level shows it.
+     */
+    public void consolePrint(String toPrint, OutputLevel outputLevel) {
+        if (shows(outputLevel)) {
+            buffer.append(toPrint);
+            endLine();
+        }
+    }
+
+    /**
+     * Prints a question for the user, whatever the output level.
+     */
+    public void prompt(String question) {
+        buffer.append(question);
+        endLine();
+    }
+
+    /**
+     * Writes out everything printed so far.
+     */
+    public void flush() {
+        if (buffer.length() > 0) {
+            out.append(buffer);
+            buffer.setLength(0);
+        }
+        out.flush();
+    }
+
+    private void endLine() {
+        buffer.append(LINE_SEPARATOR);
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
     }
 
     public void newTurn() {
-        out.println("------------------------------------------------------------------------------------------------");
+        consolePrint(TURN_SEPARATOR, OutputLevel.TURNS);
     }
 
     public String getUserInput() {
+        if (in == backupIn) {
+            // The user has to see the question before answering it.
+            flush();
+        }
         Scanner scanner = new Scanner(in);
         in = backupIn;
         return scanner.nextLine();
@@ -81,7 +153,7 @@ public class ConsoleUI {
 
     public void simulateInput(String simulatedInput) {
         in = new ByteArrayInputStream(simulatedInput.getBytes(StandardCharsets.UTF_8));
-        out.println(simulatedInput);
+        consolePrint(simulatedInput, OutputLevel.VERBOSE);
     }
 
     public Card.Suit getDeclaredSuit() {
@@ -98,9 +170,16 @@ public class ConsoleUI {
     }
 
     public Card getPlayedCard() {
+        String cardPlayed = getUserInput();
+
+        // Cards echoed by the bots are always written exactly as Card.toString() writes them.
+        Card parsed = Card.parse(cardPlayed);
+        if (parsed != null) {
+            return parsed;
+        }
+
         Card.Suit[] suits = Card.Suit.values();
         Card.Rank[] ranks = Card.Rank.values();
-        String cardPlayed = getUserInput();
         String suitStr;
         String rankStr;
         Card.Suit suitPlayed = null;
@@ -119,51 +198,82 @@ public class ConsoleUI {
                 break;
             }
         }
-        return new Card(suitPlayed, rankPlayed);
+        if (suitPlayed == null || rankPlayed == null) {
+            return new Card(suitPlayed, rankPlayed);
+        }
+        return Card.of(suitPlayed, rankPlayed);
     }
 
     void reportCheating(String cheaterName) {
-        out.println(cheaterName + CHEATING_REPORT);
-        out.println(END_TOURNAMENT_ANNOUNCEMENT);
+        if (shows(OutputLevel.RESULTS)) {
+            buffer.append(cheaterName).append(CHEATING_REPORT);
+            endLine();
+            buffer.append(END_TOURNAMENT_ANNOUNCEMENT);
+            endLine();
+        }
+        flush();
     }
 
     void reportDrawPile(int drawPileSize) {
-        out.println(DRAW_PILE_REPORT_0 + drawPileSize + DRAW_FILE_REPORT_1);
+        if (shows(OutputLevel.VERBOSE)) {
+            buffer.append(DRAW_PILE_REPORT_0).append(drawPileSize).append(DRAW_FILE_REPORT_1);
+            endLine();
+        }
     }
 
     void displayHand(Player player) {
-        String playerName = player.getName();
+        if (!shows(OutputLevel.VERBOSE)) {
+            return;
+        }
+        buffer.append(player.getName()).append(PLAYER_HAND_DISPLAY);
         List<Card> cards = player.getHand().getCards();
-        StringBuilder cardsInHand = new StringBuilder();
-        for (Card c : cards) {
-            cardsInHand.append(c.toString()).append(", ");
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(cards.get(i));
+        }
+        endLine();
+    }
+
+    /**
+     * Announce the scores and the winner(s) of a game.
+     *
+     * @param players The players, in seat order.
+     * @param scores  The game's score of every seat.
+     */
+    void announceScoreOrWinner(List<Player> players, int[] scores, String type) {
+        long[] longScores = new long[shows(OutputLevel.RESULTS) ? scores.length : 0];
+        for (int seat = 0; seat < longScores.length; seat++) {
+            longScores[seat] = scores[seat];
         }
-        String cardsInHandStr = cardsInHand.toString();
-        cardsInHandStr = cardsInHandStr.substring(0, cardsInHandStr.length() - 2);
-        out.println(playerName + PLAYER_HAND_DISPLAY + cardsInHandStr);
+        announceScoreOrWinner(players, longScores, type);
     }
 
     /**
      * Announce the scores and the winner(s).
      *
-     * @param scoreLog The map of player scores from the Game or Tournament instance.
+     * @param players The players, in seat order.
+     * @param scores  The score of every seat from the Game or Tournament instance.
      */
-    void announceScoreOrWinner(Map<Player, Integer> scoreLog, String type) {
+    void announceScoreOrWinner(List<Player> players, long[] scores, String type) {
+        if (!shows(OutputLevel.RESULTS)) {
+            flush();
+            return;
+        }
         List<String> winner = new ArrayList<>();
-        int winningScore = EightsUtils.maxValueInMap(scoreLog);
-        Player player;
+        long winningScore = EightsUtils.maxValue(scores);
         String playerName;
-        int playerScore;
+        long playerScore;
         StringBuilder playerScoresToAnnounce = new StringBuilder();
         String playerScoresToAnnounceStr;
         StringBuilder winnerToAnnounce = new StringBuilder();
         String winnerToAnnounceStr;
         String winnerDeclaration = "";
 
-        for (Map.Entry<Player, Integer> entry : scoreLog.entrySet()) {
-            player = entry.getKey();
-            playerName = player.getName();
-            playerScore = scoreLog.get(player);
+        for (int seat = 0; seat < scores.length; seat++) {
+            playerName = players.get(seat).getName();
+            playerScore = scores[seat];
             playerScoresToAnnounce.append(playerName).append(": ").append(playerScore).append(" ");
             if (playerScore == winningScore) {
                 winner.add(playerName);
@@ -184,33 +294,39 @@ public class ConsoleUI {
 
         switch (type) {
             case GAME_WINNER_ID:
-                out.println(GAME_SCORE_ANNOUNCEMENT + playerScoresToAnnounceStr);
-                out.println(winnerToAnnounceStr + winnerDeclaration);
-                out.println(END_GAME_ANNOUNCEMENT);
+                consolePrint(GAME_SCORE_ANNOUNCEMENT + playerScoresToAnnounceStr);
+                consolePrint(winnerToAnnounceStr + winnerDeclaration);
+                consolePrint(END_GAME_ANNOUNCEMENT);
                 break;
             case TOURNAMENT_SCORE_ID:
-                out.println(TOURNAMENT_SCORE_ANNOUNCEMENT + playerScoresToAnnounceStr);
+                consolePrint(TOURNAMENT_SCORE_ANNOUNCEMENT + playerScoresToAnnounceStr);
                 break;
             case TOURNAMENT_WINNER_ID:
-                out.println(TOURNAMENT_SCORE_ANNOUNCEMENT + playerScoresToAnnounceStr);
-                out.println(winnerToAnnounceStr + winnerDeclaration);
-                out.println(END_TOURNAMENT_ANNOUNCEMENT);
+                consolePrint(TOURNAMENT_SCORE_ANNOUNCEMENT + playerScoresToAnnounceStr);
+                consolePrint(winnerToAnnounceStr + winnerDeclaration);
+                consolePrint(END_TOURNAMENT_ANNOUNCEMENT);
                 break;
             default:
                 throw new IllegalArgumentException();
         }
+        // Scores close a game or a tournament.
+        flush();
 
     }
 
 
     public void reportPlayerTurn(Player player, PlayerTurn playerTurn) {
+        if (!shows(OutputLevel.TURNS)) {
+            return;
+        }
         String playerName = player.getName();
         Card.Suit newSuit = playerTurn.getDeclaredSuit();
         Card cardPlayed = playerTurn.getPlayedCard();
         String cardPlayedDeclaration;
 
         if (playerTurn.drewACard) {
-            out.println(playerName + DRAW_CARD_REPORT);
+            buffer.append(playerName).append(DRAW_CARD_REPORT);
+            endLine();
         } else {
             if (cardPlayed.getRank() == Card.Rank.ACE) {
                 cardPlayedDeclaration = CARD_PLAYED_ACE;
@@ -218,12 +334,14 @@ public class ConsoleUI {
                 cardPlayedDeclaration = CARD_PLAYED_NOT_ACE;
             }
 
-            out.println(playerName + cardPlayedDeclaration + cardPlayed.toString());
+            buffer.append(playerName).append(cardPlayedDeclaration).append(cardPlayed);
+            endLine();
 
             if (newSuit != null) {
                 // Capitalize the first letter
                 String newSuitStr = capitalizeFirstLetter(newSuit);
-                out.println(newSuitStr + NEW_SUIT_DECLARED);
+                buffer.append(newSuitStr).append(NEW_SUIT_DECLARED);
+                endLine();
             }
         }
     }
@@ -234,14 +352,23 @@ public class ConsoleUI {
     }
 
     public void displayTopCard(Card topPileCard) {
-        out.println(TOP_CARD_DISPLAY + topPileCard.toString());
+        if (shows(OutputLevel.VERBOSE)) {
+            buffer.append(TOP_CARD_DISPLAY).append(topPileCard);
+            endLine();
+        }
     }
 
     public void displaySizeOfHand(String playerName, int sizeOfHand) {
-        out.println(playerName + SIZE_OF_HAND_REPORT_0 + sizeOfHand + SIZE_OF_HAND_REPORT_1);
+        if (shows(OutputLevel.VERBOSE)) {
+            buffer.append(playerName).append(SIZE_OF_HAND_REPORT_0).append(sizeOfHand).append(SIZE_OF_HAND_REPORT_1);
+            endLine();
+        }
     }
 
     public void displayDeclaredSuit(Card.Suit declaredSuit) {
-        out.println(DECLARED_SUIT_DISPLAY + declaredSuit.toString());
+        if (shows(OutputLevel.VERBOSE)) {
+            buffer.append(DECLARED_SUIT_DISPLAY).append(declaredSuit);
+            endLine();
+        }
     }
 }
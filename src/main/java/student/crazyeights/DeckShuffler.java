@@ -0,0 +1,100 @@
+package student.crazyeights;
+
+import java.util.Random;
+
+/**
+ * Shuffles card ids in a primitive array that is reused from game to game.
+ * <p>
+ * The top card of a new deck (the last id) starts the discard pile and must not be an eight.
+ * Instead of reshuffling until it is not, the top card is drawn uniformly from the non-eights and
+ * the other cards get a Fisher-Yates shuffle. Every order with a non-eight on top is then equally
+ * likely, just as with reshuffling, but it costs exactly one random number per card.
+ */
+public final class DeckShuffler {
+
+    private static final int[] UNSHUFFLED = new int[Card.DECK_SIZE];
+
+    static {
+        for (int id = 0; id < Card.DECK_SIZE; id++) {
+            UNSHUFFLED[id] = id;
+        }
+    }
+
+    /**
+     * Every thread shuffles its decks in its own reused array.
+     */
+    private static final ThreadLocal<DeckShuffler> SHUFFLERS = ThreadLocal.withInitial(DeckShuffler::new);
+
+    private final int[] deck = new int[Card.DECK_SIZE];
+
+    /**
+     * @return The shuffler of the calling thread.
+     */
+    static DeckShuffler forCurrentThread() {
+        return SHUFFLERS.get();
+    }
+
+    /**
+     * Shuffles a full deck.
+     *
+     * @param random Any generator, e.g. one made by a {@link RandomAlgorithm}
+     * @return The card ids, bottom first. The array is overwritten by the next shuffle.
+     */
+    public int[] shuffleDeck(Random random) {
+        System.arraycopy(UNSHUFFLED, 0, deck, 0, Card.DECK_SIZE);
+        shuffle(deck, Card.DECK_SIZE, random);
+        return deck;
+    }
+
+    /**
+     * @return The array of this shuffler, for up to a deck of ids to be shuffled in. The next
+     * shuffle overwrites it.
+     */
+    int[] getBuffer() {
+        return deck;
+    }
+
+    /**
+     * Shuffles the first cards of an array of ids, keeping an eight off the top (the last of
+     * them) unless they are all eights.
+     *
+     * @param ids    The card ids
+     * @param size   The number of ids to shuffle
+     * @param random Any generator
+     */
+    public static void shuffle(int[] ids, int size, Random random) {
+        if (size < 2) {
+            return;
+        }
+        int nonEights = 0;
+        for (int i = 0; i < size; i++) {
+            if (!isEight(ids[i])) {
+                nonEights++;
+            }
+        }
+        int last = size - 1;
+        if (nonEights > 0) {
+            int pick = random.nextInt(nonEights);
+            for (int i = 0; ; i++) {
+                if (!isEight(ids[i]) && pick-- == 0) {
+                    swap(ids, i, last);
+                    break;
+                }
+            }
+            last--;
+        }
+        for (int i = last; i > 0; i--) {
+            swap(ids, i, random.nextInt(i + 1));
+        }
+    }
+
+    private static boolean isEight(int id) {
+        return (CardMask.EIGHTS & (1L << id)) != 0;
+    }
+
+    private static void swap(int[] ids, int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+}
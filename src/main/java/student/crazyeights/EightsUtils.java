@@ -11,17 +11,36 @@ public final class EightsUtils {
     private EightsUtils() {
     }
 
-    /***************************************************************************************
-     *    Title: Finding the Highest Value in a Java Map
-     *    Author: baeldung
-     *    Date: September 24, 2019
-     *    Availability: https://www.baeldung.com/java-find-map-max
+    /**
+     * Finds the highest of some scores.
      *
-     ***************************************************************************************/
+     * @param values The scores, at least one
+     * @return The highest score.
+     */
+    public static long maxValue(long[] values) {
+        long max = values[0];
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+        return max;
+    }
 
-    public static <K, V extends Comparable<V>> V maxValueInMap(Map<K, V> map) {
-        Map.Entry<K, V> maxEntry = Collections.max(map.entrySet(), Comparator.comparing(Map.Entry::getValue));
-        return maxEntry.getValue();
+    /**
+     * Derives the seed of one independent random stream from a master seed, the same way
+     * SplittableRandom does (SplitMix64), so stream i never depends on how many others exist
+     * or in what order they are used.
+     *
+     * @param masterSeed The seed of the whole run
+     * @param index      The index of the stream, e.g. the game number
+     * @return The seed for stream {@code index}
+     */
+    public static long deriveSeed(long masterSeed, long index) {
+        long z = masterSeed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
     public static String generateBotNames(Random random) {
@@ -0,0 +1,91 @@
+package student.crazyeights;
+
+import java.util.List;
+
+/**
+ * {@link PlayerAI} with an exact endgame: in a two-player game, once the unseen cards can be
+ * dealt out in few enough ways, every move is chosen by {@link EndgameSolver} for the best score
+ * margin. Before that, and whenever a position is too big for the node budget, the heuristics
+ * decide.
+ */
+public class EndgamePlayerAI extends PlayerAI {
+
+    /**
+     * Solves positions whose unseen cards can be dealt out in at most this many ways, which
+     * covers draw piles of up to three cards against a full hand.
+     */
+    public static final int DEFAULT_MAX_DEALS = 1000;
+
+    /**
+     * Keeps every move within a few milliseconds.
+     */
+    public static final long DEFAULT_NODE_BUDGET = 50_000;
+
+    /**
+     * The solver's tables are big, so every thread shares one between its players.
+     */
+    private static final ThreadLocal<EndgameSolver> SOLVERS = ThreadLocal.withInitial(EndgameSolver::new);
+
+    private final int maxDeals;
+    private final long nodeBudget;
+
+    private int chosenMove = EndgameSolver.NO_MOVE;
+
+    public EndgamePlayerAI() {
+        this(DEFAULT_MAX_DEALS, DEFAULT_NODE_BUDGET);
+    }
+
+    /**
+     * @param maxDeals   The largest number of ways to deal out the unseen cards that is solved
+     * @param nodeBudget The largest number of positions searched for one move
+     */
+    public EndgamePlayerAI(int maxDeals, long nodeBudget) {
+        this.maxDeals = maxDeals;
+        this.nodeBudget = nodeBudget;
+    }
+
+    @Override
+    protected boolean decideToDraw(Card topPileCard, Card.Suit changedSuit) {
+        chosenMove = EndgameSolver.NO_MOVE;
+        List<Integer> opponentIds = getOpponentIds();
+        if (opponentIds.size() == 1) {
+            UnseenCardTracker unseenCards = getUnseenCards();
+            int opponentHandSize = unseenCards.getHandSize(opponentIds.get(0));
+            int drawPileSize = unseenCards.getDrawPileSize();
+            if (opponentHandSize > 0 && drawPileSize > 0
+                    && EndgameSolver.countDeals(opponentHandSize, drawPileSize) <= maxDeals) {
+                long hand = unseenCards.getHand();
+                long unseen = unseenCards.getUnseen();
+                int declaredSuit = changedSuit == null ? SimGame.NO_SUIT : changedSuit.ordinal();
+                chosenMove = SOLVERS.get().solve(hand, unseen, opponentHandSize, topPileCard.getId(),
+                        declaredSuit, nodeBudget);
+            }
+        }
+        if (chosenMove == EndgameSolver.NO_MOVE) {
+            return super.decideToDraw(topPileCard, changedSuit);
+        }
+        return chosenMove == SimGame.DRAW;
+    }
+
+    @Override
+    protected Card chooseCard() {
+        if (chosenMove == EndgameSolver.NO_MOVE) {
+            return super.chooseCard();
+        }
+        return Card.fromId(SimGame.cardOf(chosenMove));
+    }
+
+    @Override
+    public Card.Suit declareSuit() {
+        if (chosenMove == EndgameSolver.NO_MOVE) {
+            return super.declareSuit();
+        }
+        return Card.Suit.values()[SimGame.suitOf(chosenMove)];
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        chosenMove = EndgameSolver.NO_MOVE;
+    }
+}
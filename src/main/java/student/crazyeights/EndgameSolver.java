@@ -0,0 +1,274 @@
+package student.crazyeights;
+
+/**
+ * Solves two-player endgames exactly.
+ * <p>
+ * Once the draw pile is nearly empty, the unseen cards are just the opponent's hand and a few
+ * pile cards, so every way of dealing them out can be listed. Each deal is a game of perfect
+ * information, searched to the end with alpha-beta over {@link SimGame} positions and a
+ * transposition table, for the score margin of {@link Game}'s scoring: the value of the
+ * opponent's hand minus the value of one's own. The move with the best total margin over all deals
+ * is chosen.
+ * <p>
+ * Positions with many deals take long to solve, so callers check {@link #countDeals} first. A
+ * solver is not thread-safe. It allocates nothing after construction.
+ */
+final class EndgameSolver {
+
+    /**
+     * Returned when the position is too big to solve within the budget.
+     */
+    static final int NO_MOVE = Integer.MIN_VALUE;
+
+    private static final int ME = 0;
+    private static final int OPPONENT = 1;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int MAX_PLIES = 2 * Card.DECK_SIZE;
+
+    private static final int TABLE_BITS = 16;
+    private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+    private static final byte EXACT = 0;
+    private static final byte LOWER_BOUND = 1;
+    private static final byte UPPER_BOUND = 2;
+
+    private final SimGame[] plies = new SimGame[MAX_PLIES + 1];
+    private final int[][] moves = new int[MAX_PLIES + 1][SimGame.MAX_MOVES];
+    private final int[] unseenIds = new int[Card.DECK_SIZE];
+    private final int[] pile = new int[Card.DECK_SIZE];
+    private final long[] rootTotals = new long[SimGame.MAX_MOVES];
+
+    // The transposition table. An entry only counts for the deal it was stored in.
+    private final long[] tableHands = new long[1 << TABLE_BITS];
+    private final long[] tableRest = new long[1 << TABLE_BITS];
+    private final int[] tableValues = new int[1 << TABLE_BITS];
+    private final byte[] tableBounds = new byte[1 << TABLE_BITS];
+    private final int[] tableDeals = new int[1 << TABLE_BITS];
+    private int deal;
+
+    private long nodes;
+    private long nodeBudget;
+
+    EndgameSolver() {
+        for (int ply = 0; ply <= MAX_PLIES; ply++) {
+            plies[ply] = new SimGame(2);
+        }
+    }
+
+    /**
+     * @return The number of ways the unseen cards can be dealt into the opponent's hand and an
+     * ordered draw pile, or Long.MAX_VALUE if there are too many to count.
+     */
+    static long countDeals(int opponentHandSize, int drawPileSize) {
+        long deals = 1;
+        // (h + d)! / h! ways: which cards the pile holds, in which order.
+        for (int k = opponentHandSize + 1; k <= opponentHandSize + drawPileSize; k++) {
+            if (deals > Long.MAX_VALUE / k) {
+                return Long.MAX_VALUE;
+            }
+            deals *= k;
+        }
+        return deals;
+    }
+
+    /**
+     * Finds the best move for the player to move.
+     *
+     * @param ownHand          The player's hand
+     * @param unseen           Every card the player has not seen: the opponent's hand and the
+     *                         draw pile
+     * @param opponentHandSize The number of cards the opponent holds
+     * @param topCard          The id of the top card of the discard pile
+     * @param declaredSuit     The ordinal of the declared suit, or {@link SimGame#NO_SUIT}
+     * @param nodeBudget       The largest number of positions to search
+     * @return A move in {@link SimGame}'s encoding, or {@link #NO_MOVE} if the search would take
+     * more positions than the budget
+     */
+    int solve(long ownHand, long unseen, int opponentHandSize, int topCard, int declaredSuit,
+              long nodeBudget) {
+        int numOfUnseen = CardMask.count(unseen);
+        if (opponentHandSize < 1 || numOfUnseen <= opponentHandSize) {
+            throw new IllegalArgumentException("The opponent's hand and the draw pile must not be empty.");
+        }
+        this.nodeBudget = nodeBudget;
+        int unseenCount = 0;
+        for (long rest = unseen; rest != 0; rest &= rest - 1) {
+            unseenIds[unseenCount++] = Long.numberOfTrailingZeros(rest);
+        }
+
+        // The root moves are the same in every deal. Drawing goes last, so plays win ties.
+        SimGame root = plies[0];
+        root.setUp(topCard, declaredSuit, ME);
+        root.setHand(ME, ownHand);
+        root.pushDrawPile(unseenIds[0]);
+        int[] rootMoves = moves[0];
+        int numOfMoves = root.legalMoves(rootMoves);
+        if (numOfMoves > 0 && rootMoves[0] == SimGame.DRAW) {
+            System.arraycopy(rootMoves, 1, rootMoves, 0, numOfMoves - 1);
+            rootMoves[numOfMoves - 1] = SimGame.DRAW;
+        }
+        if (numOfMoves == 1) {
+            return rootMoves[0];
+        }
+        for (int i = 0; i < numOfMoves; i++) {
+            rootTotals[i] = 0;
+        }
+
+        // Every opponent hand is a subset of the unseen cards (by index), listed in order.
+        nodes = 0;
+        long lastSubset = ((1L << opponentHandSize) - 1) << (numOfUnseen - opponentHandSize);
+        for (long subset = (1L << opponentHandSize) - 1; ; subset = nextSubset(subset)) {
+            long opponentHand = CardMask.EMPTY;
+            int pileSize = 0;
+            for (int i = 0; i < numOfUnseen; i++) {
+                if ((subset & (1L << i)) != 0) {
+                    opponentHand |= 1L << unseenIds[i];
+                } else {
+                    pile[pileSize++] = unseenIds[i];
+                }
+            }
+            if (!solvePiles(ownHand, opponentHand, pileSize, 0, topCard, declaredSuit, numOfMoves)) {
+                return NO_MOVE;
+            }
+            if (subset == lastSubset) {
+                break;
+            }
+        }
+
+        int best = 0;
+        for (int i = 1; i < numOfMoves; i++) {
+            if (rootTotals[i] > rootTotals[best]) {
+                best = i;
+            }
+        }
+        return rootMoves[best];
+    }
+
+    /**
+     * Searches every order of the draw pile from position k on, by swapping.
+     *
+     * @return False if the node budget ran out.
+     */
+    private boolean solvePiles(long ownHand, long opponentHand, int pileSize, int k, int topCard,
+                               int declaredSuit, int numOfMoves) {
+        if (k < pileSize - 1) {
+            for (int i = k; i < pileSize; i++) {
+                swap(pile, k, i);
+                boolean solved = solvePiles(ownHand, opponentHand, pileSize, k + 1, topCard, declaredSuit,
+                        numOfMoves);
+                swap(pile, k, i);
+                if (!solved) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        deal++;
+        SimGame root = plies[0];
+        root.setUp(topCard, declaredSuit, ME);
+        root.setHand(ME, ownHand);
+        root.setHand(OPPONENT, opponentHand);
+        for (int i = 0; i < pileSize; i++) {
+            root.pushDrawPile(pile[i]);
+        }
+        root.checkOver();
+
+        int[] rootMoves = moves[0];
+        for (int i = 0; i < numOfMoves; i++) {
+            SimGame child = plies[1];
+            child.copyFrom(root);
+            child.apply(rootMoves[i]);
+            rootTotals[i] -= search(1, -INFINITY, INFINITY);
+            if (nodes > nodeBudget) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Negamax with alpha-beta pruning.
+     *
+     * @return The final margin for the seat to move: the other hand's value minus its own.
+     */
+    private int search(int ply, int alpha, int beta) {
+        SimGame game = plies[ply];
+        int toMove = game.getCurrentSeat();
+        if (++nodes > nodeBudget) {
+            return 0;
+        }
+        if (game.isOver()) {
+            return game.handValue(1 - toMove) - game.handValue(toMove);
+        }
+
+        long hands = game.getHand(ME);
+        long rest = game.getHand(OPPONENT)
+                | (long) game.getDrawPileSize() << 52
+                | (long) toMove << 58
+                | (long) (game.getDeclaredSuit() + 1) << 59;
+        hands |= (long) game.getTopCard() << 52;
+        int slot = index(hands, rest);
+        int originalAlpha = alpha;
+        if (tableDeals[slot] == deal && tableHands[slot] == hands && tableRest[slot] == rest) {
+            int value = tableValues[slot];
+            byte bound = tableBounds[slot];
+            if (bound == EXACT) {
+                return value;
+            } else if (bound == LOWER_BOUND) {
+                alpha = Math.max(alpha, value);
+            } else {
+                beta = Math.min(beta, value);
+            }
+            if (alpha >= beta) {
+                return value;
+            }
+        }
+
+        int[] plyMoves = moves[ply];
+        int numOfMoves = game.legalMoves(plyMoves);
+        int best = -INFINITY;
+        SimGame child = plies[ply + 1];
+        // Plays before the draw, which is listed first: they end games sooner.
+        for (int i = numOfMoves - 1; i >= 0; i--) {
+            child.copyFrom(game);
+            child.apply(plyMoves[i]);
+            int value = -search(ply + 1, -beta, -alpha);
+            if (value > best) {
+                best = value;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        tableDeals[slot] = deal;
+        tableHands[slot] = hands;
+        tableRest[slot] = rest;
+        tableValues[slot] = best;
+        tableBounds[slot] = best <= originalAlpha ? UPPER_BOUND : best >= beta ? LOWER_BOUND : EXACT;
+        return best;
+    }
+
+    private static int index(long hands, long rest) {
+        long hash = (hands * 0x9E3779B97F4A7C15L) ^ (rest * 0xC2B2AE3D27D4EB4FL);
+        return (int) (hash >>> (64 - TABLE_BITS)) & TABLE_MASK;
+    }
+
+    /**
+     * @return The next larger number with the same number of set bits (Gosper's hack).
+     */
+    private static long nextSubset(long subset) {
+        long lowest = subset & -subset;
+        long ripple = subset + lowest;
+        return ripple | (((subset ^ ripple) >>> 2) / lowest);
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int value = array[i];
+        array[i] = array[j];
+        array[j] = value;
+    }
+}
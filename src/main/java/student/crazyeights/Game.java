@@ -6,38 +6,95 @@ import static student.crazyeights.ConsoleUI.GAME_WINNER_ID;
 import static student.crazyeights.ConsoleUI.NEW_GAME_ANNOUNCEMENT;
 
 public class Game {
+
+    /**
+     * The player id of the first history entry, which only shows the initial top card.
+     */
+    public static final int INITIAL_TOP_CARD_ID = -1;
+
     private final ConsoleUI ui;
     private Random random;
-    private CardCollection drawPile;
-    private CardCollection discardPile;
+    private final CardCollection drawPile = new CardCollection("DrawPile");
+    private final CardCollection discardPile = new CardCollection("DiscardPile");
     private ArrayList<Player> players;
-    private Map<Player, Integer> gameScore = new HashMap<>();
-    private List<PlayerTurn> gameHistory = new ArrayList<>();
+    private final int[] gameScore;
+    private final List<PlayerTurn> gameHistory = new ArrayList<>();
+    private final List<PlayerTurn> readOnlyHistory = Collections.unmodifiableList(gameHistory);
+    private final List<PlayerTurn> turnPool = new ArrayList<>();
+    private Card.Suit declaredSuit;
+    private TurnListener turnListener;
+    private Player currentPlayer;
+    private PlayerTurn currentTurn;
+    private MoveValidation illegalMove;
+    private Player cheater;
 
     /**
      * Sets up the initial state of the game.
      *
-     * @param consoleUI the input and output streams.
+     * @param consoleUI the input and output streams, or null for a headless game.
      * @param random    the instance of random passed from main().
      */
     public Game(ConsoleUI consoleUI, Random random, List<Player> players) {
 
         this.ui = consoleUI;
-        this.random = random;
         this.players = (ArrayList<Player>) players;
+        this.gameScore = new int[players.size()];
 
-        // Create a new shuffled deck of cards
-        CardCollection deck = CardCollection.createDeck("deck", random);
+        reset(random);
 
-        // Deal one card into the discard pile.
-        // Impossible to be an eight because of shuffle() implementation so don't have to check for that.
-        discardPile = new CardCollection("DiscardPile");
-        deck.deal(discardPile, 1);
+    }
 
-        // The rest of the deck becomes the draw pile.
-        drawPile = new CardCollection("DrawPile");
-        deck.dealAll(drawPile);
+    /**
+     * Sets up a headless game: nothing is printed and moves are taken straight from the players.
+     *
+     * @param random the instance of random passed from main().
+     */
+    public Game(Random random, List<Player> players) {
+        this(null, random, players);
+    }
+
+    /**
+     * Clears the game in place and deals a new deck, so one game object (with its piles, history
+     * and turns) can be played again and again. The players' hands must be empty, as after
+     * {@link Player#reset()}.
+     * <p>
+     * The turns of the previous game are reused, so strategies must not hold on to them after
+     * their own reset.
+     *
+     * @param random the random stream of the new game.
+     */
+    void reset(Random random) {
+
+        this.random = random;
+        gameHistory.clear();
+        declaredSuit = null;
+        illegalMove = null;
+        cheater = null;
+        Arrays.fill(gameScore, 0);
+
+        // Shuffle a new deck; its top card starts the discard pile.
+        // Impossible to be an eight because of DeckShuffler so don't have to check for that.
+        discardPile.clear();
+        drawPile.clear();
+        int[] deck = DeckShuffler.forCurrentThread().shuffleDeck(random);
+        int top = deck.length - 1;
+        discardPile.addCard(Card.fromId(deck[top]));
+
+        // The rest of the deck becomes the draw pile, dealt one card at a time as before,
+        // so the draw pile is the deck turned over.
+        for (int i = top - 1; i >= 0; i--) {
+            drawPile.addCard(Card.fromId(deck[i]));
+        }
+
+    }
 
+    /**
+     * Sets who is told about every turn, e.g. to record the game.
+     *
+     * @param turnListener the listener, or null for none.
+     */
+    public void setTurnListener(TurnListener turnListener) {
+        this.turnListener = turnListener;
     }
 
     /**
@@ -45,25 +102,36 @@ public class Game {
      */
     public void playGame() {
 
-        ui.consolePrint(NEW_GAME_ANNOUNCEMENT);
-
-        dealHand();
+        if (!isHeadless()) {
+            ui.consolePrint(NEW_GAME_ANNOUNCEMENT);
+            // What the last game left in the buffer is shown before this one starts.
+            ui.flush();
+        }
 
-        Player currentPlayer = chooseRandomFirstPlayer();
+        start();
 
         while (!isOver()) {
-            displayState(currentPlayer);
-            takeTurn(currentPlayer);
-            currentPlayer = nextPlayer(currentPlayer);
+            if (!isHeadless()) {
+                displayState(currentPlayer);
+            }
+            beginTurn();
+            decideTurn();
         }
 
-        calculateScore();
-
         // Announce the game winner and the final scores.
-        ui.announceScoreOrWinner(gameScore, GAME_WINNER_ID);
+        if (!isHeadless()) {
+            ui.announceScoreOrWinner(players, gameScore, GAME_WINNER_ID);
+        }
 
     }
 
+    /**
+     * @return True if the game runs without a console.
+     */
+    public boolean isHeadless() {
+        return ui == null;
+    }
+
     /**
      * Displays the state of the game.
      */
@@ -72,6 +140,11 @@ public class Game {
         // Create a line going across separating turns.
         ui.newTurn();
 
+        // The rest of the state is only worth building when it is shown.
+        if (!ui.shows(OutputLevel.VERBOSE)) {
+            return;
+        }
+
         // "Bruce has 4 cards left in their hand".
         for (Player p : players) {
             ui.displaySizeOfHand(p.getName(), p.getHand().size());
@@ -84,8 +157,7 @@ public class Game {
         ui.displayTopCard(getTopPileCard());
 
         // Gets the suit the previous player declared (if they did).
-        if (CardCollection.cardIsEight(getTopPileCard())) {
-            Card.Suit declaredSuit = gameHistory.get(gameHistory.size() - 1).getDeclaredSuit();
+        if (declaredSuit != null) {
             ui.displayDeclaredSuit(declaredSuit);
         }
 
@@ -95,64 +167,190 @@ public class Game {
     }
 
     /**
-     * One player takes a turn.
+     * Deals the hands and chooses the first player. Together with {@link #beginTurn},
+     * {@link #decideTurn} and {@link #finishTurn} this plays the game a step at a time, for
+     * callers that wait for moves from elsewhere instead of asking the players.
      */
-    private void takeTurn(Player player) {
+    void start() {
 
-        Card currentDiscard = getTopPileCard();
-        Card nextDiscard;
+        dealHand();
 
-        // Creates a new turn.
-        PlayerTurn newTurn = new PlayerTurn();
-        newTurn.setPlayerId(player.getId());
+        currentPlayer = chooseRandomFirstPlayer();
 
-        // Gets declared suit form the last PlayerTurn.
-        Card.Suit declaredSuit;
+    }
 
-        if (!gameHistory.isEmpty()) {
-            // Gets the declared suit from PlayerTurn, if there is none, returns null.
-            declaredSuit = gameHistory.get(gameHistory.size() - 1).getDeclaredSuit();
-        } else {
+    /**
+     * @return The player whose turn it is.
+     */
+    Player getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Starts the current player's turn and hands the player the turns added since its last one.
+     */
+    void beginTurn() {
+
+        // Creates a new turn.
+        if (gameHistory.isEmpty()) {
             // If it is the first term, create new PlayerTurn to notify first player.
-            PlayerTurn firstTurn = new PlayerTurn();
+            PlayerTurn firstTurn = nextPooledTurn();
+            firstTurn.setPlayerId(INITIAL_TOP_CARD_ID);
             firstTurn.setPlayedCard(getTopPileCard());
             gameHistory.add(firstTurn);
-            player.pingAiGameHistory(gameHistory);
-            declaredSuit = null;
         }
 
-        if (player.pingAiShouldDraw(currentDiscard, declaredSuit)) {
+        currentTurn = nextPooledTurn();
+        currentTurn.setPlayerId(currentPlayer.getId());
+
+        // Hands the player only the turns added since its last turn.
+        currentPlayer.pingAiOpponentActions(readOnlyHistory);
+
+    }
+
+    /**
+     * Asks the current player for its move and finishes the turn. An illegal move ends the game
+     * instead, see {@link #getIllegalMove}.
+     *
+     * @return Whether the move was legal, and if not, why.
+     */
+    MoveValidation decideTurn() {
+
+        Player player = currentPlayer;
+
+        // The declared suit stays in force until another card is played, even if players draw.
+        boolean drewACard = player.pingAiShouldDraw(getTopPileCard(), declaredSuit);
+        Card played = null;
+        Card.Suit declared = null;
+        if (!drewACard) {
+            played = readPlayedCard(player);
+            if (played != null && CardCollection.cardIsEight(played)) {
+                declared = readDeclaredSuit(player);
+            }
+        }
+
+        MoveValidation validation = validateMove(drewACard, played, declared);
+        if (validation.isLegal()) {
+            finishTurn(drewACard, played, declared);
+        } else {
+            // The player is reported for cheating and the game ends.
+            endWithIllegalMove(player, validation);
+        }
+        return validation;
+
+    }
+
+    /**
+     * Checks a move of the current player, in constant time.
+     *
+     * @param drewACard True if the player draws a card
+     * @param played    The card the player plays, if it does not draw
+     * @param declared  The suit the player declares, if it plays an eight
+     * @return Whether the move is legal, and if not, why.
+     */
+    MoveValidation validateMove(boolean drewACard, Card played, Card.Suit declared) {
+        return MoveValidation.check(currentPlayer.getHand().getMask(), getTopPileCard(), declaredSuit,
+                drawPile.size(), drewACard, played, declared);
+    }
+
+    /**
+     * Ends the game after an illegal move. The others are scored as usual, and the cheater scores
+     * nothing.
+     */
+    private void endWithIllegalMove(Player player, MoveValidation validation) {
+
+        illegalMove = validation;
+        cheater = player;
+
+        if (!isHeadless()) {
+            ui.reportCheating(player.getName());
+        }
+
+        calculateScore();
+        gameScore[getPlayerIndex(player)] = 0;
+
+    }
+
+    /**
+     * Finishes the current player's turn with the given move and moves on to the next player, or
+     * scores the game if it is over.
+     *
+     * @param drewACard True if the player draws a card
+     * @param played    The card the player plays, if it does not draw
+     * @param declared  The suit the player declares, if it plays an eight
+     */
+    void finishTurn(boolean drewACard, Card played, Card.Suit declared) {
+
+        Player player = currentPlayer;
+        PlayerTurn newTurn = currentTurn;
+
+        if (drewACard) {
             player.pingAiDrawCard(drawFromPile());
             newTurn.setDrewACard(true);
         } else {
-            player.pingAiPlayCard();
-            nextDiscard = ui.getPlayedCard();
-
-//                if (!player.getHand().getCards().contains(nextDiscard)) {
-//                    // The player has attempted to play a card they don't have.
-//                    // He is reported for cheating and the game ends.
-//                    ui.reportCheating(player.getName());
-//                    System.exit(0);
-//                }
-
-            player.cardIsPlayed(nextDiscard);
-            if (CardCollection.cardIsEight(nextDiscard)) {
-                player.pingAiDeclareSuit();
-                newTurn.setDeclaredSuit(ui.getDeclaredSuit());
-            }
+            player.cardIsPlayed(played);
+            declaredSuit = declared;
+            newTurn.setDeclaredSuit(declared);
+            discardPile.addCard(played);
+            newTurn.setPlayedCard(played);
+        }
 
-            discardPile.addCard(nextDiscard);
-            newTurn.setPlayedCard(nextDiscard);
+        gameHistory.add(newTurn);
 
+        if (turnListener != null) {
+            turnListener.turnPlayed(getPlayerIndex(player), newTurn);
         }
 
-        gameHistory.add(newTurn);
+        if (!isHeadless()) {
+            ui.reportPlayerTurn(player, newTurn);
+        }
 
-        for (Player p : players) {
-            p.pingAiGameHistory(gameHistory);
+        currentPlayer = nextPlayer(player);
+        if (isOver()) {
+            calculateScore();
+        }
+
+    }
+
+    /**
+     * Takes the turn object for the next history entry from the pool, cleared.
+     * Turns are only allocated the first time a game on this object gets this long.
+     */
+    private PlayerTurn nextPooledTurn() {
+        int index = gameHistory.size();
+        if (index == turnPool.size()) {
+            turnPool.add(new PlayerTurn());
         }
-        ui.reportPlayerTurn(player, newTurn);
+        PlayerTurn turn = turnPool.get(index);
+        turn.setPlayerId(0);
+        turn.setDrewACard(false);
+        turn.setPlayedCard(null);
+        turn.setDeclaredSuit(null);
+        return turn;
+    }
+
+    /**
+     * Gets the card a player chose to play.
+     * Console players type their card, so it is read back from the console;
+     * headless players hand it over directly.
+     */
+    private Card readPlayedCard(Player player) {
+        Card played = player.pingAiPlayCard();
+        if (player.isHeadless()) {
+            return played;
+        }
+        return ui.getPlayedCard();
+    }
 
+    /**
+     * Gets the suit a player declared after playing an eight.
+     */
+    private Card.Suit readDeclaredSuit(Player player) {
+        Card.Suit declared = player.pingAiDeclareSuit();
+        if (player.isHeadless()) {
+            return declared;
+        }
+        return ui.getDeclaredSuit();
     }
 
     /**
@@ -167,18 +365,11 @@ public class Game {
      */
     private void dealHand() {
 
-        int noOfCardsPerPlayer;
-
-        if (players.size() == 2) {
-            // If there are only 2 players, each gets 7 cards.
-            noOfCardsPerPlayer = 7;
-        } else {
-            //If there are from 3 to 7 players inclusive, each gets 5.
-            noOfCardsPerPlayer = 5;
-        }
+        int noOfCardsPerPlayer = cardsPerPlayer(players.size());
 
         CardCollection playerHand;
-        for (Player p : players) {
+        for (int seat = 0; seat < players.size(); seat++) {
+            Player p = players.get(seat);
             playerHand = p.getHand();
             drawPile.deal(playerHand, noOfCardsPerPlayer);
             p.pingAiDealHand();
@@ -186,6 +377,21 @@ public class Game {
 
     }
 
+    /**
+     * Gets the number of cards each player is dealt.
+     *
+     * @param numOfPlayers The number of players in the game
+     * @return The size of every starting hand.
+     */
+    static int cardsPerPlayer(int numOfPlayers) {
+        if (numOfPlayers == 2) {
+            // If there are only 2 players, each gets 7 cards.
+            return 7;
+        }
+        //If there are from 3 to 7 players inclusive, each gets 5.
+        return 5;
+    }
+
     /**
      * Totals the value of the player's hand (not their score) at the end of the game.
      *
@@ -195,31 +401,51 @@ public class Game {
     private int countHandValue(Player player) {
         List<Card> hand = player.getHand().getCards();
         int sumOfHand = 0;
-        for (Card c : hand) {
-            sumOfHand += c.getPointValue();
+        for (int i = 0; i < hand.size(); i++) {
+            sumOfHand += hand.get(i).getPointValue();
         }
         return sumOfHand;
     }
 
     /**
-     * Gets index of player from the list.
+     * Gets index of player from the list, which is the player's id.
      */
     private int getPlayerIndex(Player player) {
-        return players.indexOf(player);
+        return player.getId();
     }
 
     /**
-     * Returns true if either a player wins (their hand is empty) or the draw pile is empty.
+     * Returns true if either a player wins (their hand is empty), the draw pile is empty or a
+     * player made an illegal move.
      */
-    private boolean isOver() {
-        for (Player p : players) {
-            if (p.getHand().isEmpty()) {
+    boolean isOver() {
+        if (illegalMove != null) {
+            return true;
+        }
+        // Indexed, like the other loops run every turn, so no iterator is created.
+        for (int seat = 0; seat < players.size(); seat++) {
+            if (players.get(seat).getHand().isEmpty()) {
                 return true;
             }
         }
         return drawPile.isEmpty();
     }
 
+    /**
+     * @return How the game ended, once it is over.
+     */
+    GameResult.Ending getEnding() {
+        if (illegalMove != null) {
+            return GameResult.Ending.ILLEGAL_MOVE;
+        }
+        for (int seat = 0; seat < players.size(); seat++) {
+            if (players.get(seat).getHand().isEmpty()) {
+                return GameResult.Ending.EMPTY_HAND;
+            }
+        }
+        return GameResult.Ending.DRAW_PILE_EMPTY;
+    }
+
     /**
      * Draws one card from the draw pile.
      */
@@ -243,7 +469,7 @@ public class Game {
      *
      * @return The top discard card.
      */
-    private Card getTopPileCard() {
+    Card getTopPileCard() {
         return discardPile.getTopCard();
     }
 
@@ -253,38 +479,67 @@ public class Game {
     private void calculateScore() {
         // Calculates the total score.
         int totalScore = 0;
-        for (Player p : players) {
-            totalScore = countHandValue(p);
+        for (int seat = 0; seat < players.size(); seat++) {
+            totalScore += countHandValue(players.get(seat));
         }
-        // Saves the final score of each player.
-        int playerScore;
-        for (Player p : players) {
-            // Save the final score.
-            playerScore = totalScore - countHandValue(p);
-            gameScore.put(p, playerScore);
+        // Saves the final score of each player, by seat.
+        for (int seat = 0; seat < players.size(); seat++) {
+            gameScore[seat] = totalScore - countHandValue(players.get(seat));
         }
     }
 
     /**
-     * Updates the score when a game ends.
-     *
-     * @param oldScore The scores from the last game.
-     * @return The new updated scores after current game.
+     * @return Every turn of the game so far, the initial top card first. The list is read-only.
      */
-    Map<Player, Integer> updateScore(Map<Player, Integer> oldScore) {
+    List<PlayerTurn> getHistory() {
+        return readOnlyHistory;
+    }
 
-        Player player;
-        int playerScore;
-        Map<Player, Integer> newScore = new HashMap<>();
+    /**
+     * @return The suit the last eight declared, or null if the top card is not an eight.
+     */
+    Card.Suit getDeclaredSuit() {
+        return declaredSuit;
+    }
 
-        for (Map.Entry<Player, Integer> entry : gameScore.entrySet()) {
-            player = entry.getKey();
-            playerScore = entry.getValue() + oldScore.get(player);
-            newScore.put(player, playerScore);
-        }
+    /**
+     * @return The rule the illegal move that ended the game broke, or null if every move was
+     * legal.
+     */
+    MoveValidation getIllegalMove() {
+        return illegalMove;
+    }
+
+    /**
+     * @return The player whose illegal move ended the game, or null if every move was legal.
+     */
+    Player getCheater() {
+        return cheater;
+    }
+
+    /**
+     * @return The scores of the finished game, indexed by seat.
+     */
+    int[] getGameScore() {
+        return gameScore;
+    }
 
-        return newScore;
+    /**
+     * @return The number of turns the players took, not counting the initial top card.
+     */
+    int getNumberOfTurns() {
+        return Math.max(0, gameHistory.size() - 1);
+    }
 
+    /**
+     * Adds the scores of the finished game to the tournament's scores, in place.
+     *
+     * @param tournamentScore The total score of every seat so far.
+     */
+    void updateScore(long[] tournamentScore) {
+        for (int seat = 0; seat < gameScore.length; seat++) {
+            tournamentScore[seat] += gameScore[seat];
+        }
     }
 
 }
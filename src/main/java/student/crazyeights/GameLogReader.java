@@ -0,0 +1,247 @@
+package student.crazyeights;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Scans a log written by {@link GameLogWriter} through a window of the file mapped into memory,
+ * without creating objects for games or turns.
+ * <p>
+ * {@link #nextGame()} moves to the next game, whose header can then be read, and
+ * {@link #nextTurn()} moves through its turns:
+ * <pre>
+ *     while (reader.nextGame()) {
+ *         while (reader.nextTurn()) {
+ *             if (reader.isDraw()) { ... reader.getSeat() ... }
+ *         }
+ *     }
+ * </pre>
+ */
+public class GameLogReader implements Closeable {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private static final int MAX_SEATS = 7;
+    private static final int MAX_HEADER_SIZE = 8 + 1 + 255 + 1 + MAX_SEATS * (1 + 255 + 2) + 4 + 4;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private long seed;
+    private int algorithmOffset;
+    private int algorithmLength;
+    private int numOfSeats;
+    private final int[] nameOffsets = new int[MAX_SEATS];
+    private final int[] nameLengths = new int[MAX_SEATS];
+    private final int[] scores = new int[MAX_SEATS];
+    private int numOfTurns;
+    private int turnsEnd;
+    private int turnPosition;
+
+    private int seat;
+    private boolean draw;
+    private int cardId;
+    private int declaredSuit;
+
+    /**
+     * Opens a log with the default window size.
+     */
+    public GameLogReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param file       The log
+     * @param windowSize The number of bytes mapped at a time
+     * @throws IllegalArgumentException If the file is not a game log
+     */
+    public GameLogReader(Path file, int windowSize) throws IOException {
+        if (windowSize < MAX_HEADER_SIZE + GameLogWriter.MAX_TURN_BYTES) {
+            throw new IllegalArgumentException("The window cannot hold a whole game.");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        mapFrom(0);
+        if (window.remaining() < 6 || window.getInt() != GameLogWriter.MAGIC) {
+            channel.close();
+            throw new IllegalArgumentException(file + " is not a game log.");
+        }
+        if (window.getShort() != GameLogWriter.VERSION) {
+            channel.close();
+            throw new IllegalArgumentException(file + " has an unknown game log version.");
+        }
+        turnsEnd = window.position();
+    }
+
+    /**
+     * Moves to the next game, skipping any turns of the current one that were not read.
+     *
+     * @return False if there are no more games
+     */
+    public boolean nextGame() throws IOException {
+        window.position(turnsEnd);
+        long gameStart = windowStart + turnsEnd;
+        if (gameStart == fileSize) {
+            return false;
+        }
+        // A whole game always fits in the window once it starts at the window's start.
+        if (window.remaining() < MAX_HEADER_SIZE + GameLogWriter.MAX_TURN_BYTES
+                && windowStart + window.limit() < fileSize) {
+            mapFrom(gameStart);
+        }
+
+        seed = window.getLong();
+        algorithmLength = window.get() & 0xFF;
+        algorithmOffset = window.position();
+        window.position(algorithmOffset + algorithmLength);
+        numOfSeats = window.get();
+        for (int s = 0; s < numOfSeats; s++) {
+            nameLengths[s] = window.get() & 0xFF;
+            nameOffsets[s] = window.position();
+            window.position(nameOffsets[s] + nameLengths[s]);
+        }
+        for (int s = 0; s < numOfSeats; s++) {
+            scores[s] = window.getShort();
+        }
+        numOfTurns = window.getInt();
+        int turnBytes = window.getInt();
+        turnPosition = window.position();
+        turnsEnd = turnPosition + turnBytes;
+        return true;
+    }
+
+    /**
+     * @return The seed of the current game.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The random number generator the current game was played with, decoded on every call.
+     * @throws IllegalArgumentException If the log names a generator that does not exist
+     */
+    public RandomAlgorithm getRandomAlgorithm() {
+        byte[] name = new byte[algorithmLength];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = window.get(algorithmOffset + i);
+        }
+        return RandomAlgorithm.valueOf(new String(name, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return The number of seats of the current game.
+     */
+    public int getNumberOfSeats() {
+        return numOfSeats;
+    }
+
+    /**
+     * @return The name of the strategy in a seat of the current game, decoded on every call.
+     */
+    public String getStrategy(int seat) {
+        byte[] name = new byte[nameLengths[seat]];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = window.get(nameOffsets[seat] + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The score of a seat in the current game.
+     */
+    public int getScore(int seat) {
+        return scores[seat];
+    }
+
+    /**
+     * @return The number of turns of the current game.
+     */
+    public int getNumberOfTurns() {
+        return numOfTurns;
+    }
+
+    /**
+     * Moves to the next turn of the current game.
+     *
+     * @return False if the game has no more turns
+     */
+    public boolean nextTurn() {
+        if (turnPosition >= turnsEnd) {
+            return false;
+        }
+        int flags = window.get(turnPosition++);
+        seat = (flags >> GameLogWriter.SEAT_SHIFT) & 0x7;
+        draw = (flags & GameLogWriter.PLAYED_FLAG) == 0;
+        if (draw) {
+            cardId = -1;
+            declaredSuit = -1;
+        } else {
+            cardId = window.get(turnPosition++);
+            declaredSuit = (flags & GameLogWriter.DECLARED_FLAG) == 0 ? -1 : flags & 0x3;
+        }
+        return true;
+    }
+
+    /**
+     * @return The seat that took the current turn.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * @return True if the current turn drew a card.
+     */
+    public boolean isDraw() {
+        return draw;
+    }
+
+    /**
+     * @return The id of the card played on the current turn, or -1 for a draw.
+     */
+    public int getCardId() {
+        return cardId;
+    }
+
+    /**
+     * @return The ordinal of the suit declared on the current turn, or -1 if none was.
+     */
+    public int getDeclaredSuit() {
+        return declaredSuit;
+    }
+
+    /**
+     * @return The current turn as a {@link PlayerTurn} whose player id is the seat.
+     */
+    public PlayerTurn toPlayerTurn() {
+        PlayerTurn turn = new PlayerTurn();
+        turn.setPlayerId(seat);
+        turn.setDrewACard(draw);
+        if (!draw) {
+            turn.setPlayedCard(Card.fromId(cardId));
+            turn.setDeclaredSuit(declaredSuit < 0 ? null : Card.Suit.values()[declaredSuit]);
+        }
+        return turn;
+    }
+
+    private void mapFrom(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, fileSize - position));
+        turnsEnd = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,135 @@
+package student.crazyeights;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams finished games into a compact binary log, read back by {@link GameLogReader}.
+ * <p>
+ * The file starts with {@link #MAGIC} and {@link #VERSION}. Each game then has a header: its seed
+ * (8 bytes), the name of its {@link RandomAlgorithm} (1 byte length, then ASCII), the number of
+ * seats (1 byte), each seat's strategy name (1 byte length, then UTF-8),
+ * each seat's score (2 bytes), the number of turns and the number of turn bytes (4 bytes each).
+ * A draw takes one byte, {@code seat << 4}; a played card takes two, {@code 0x80 | seat << 4},
+ * plus {@code 0x08 | suit} if a suit was declared, followed by the card id. All numbers are
+ * big-endian.
+ */
+public class GameLogWriter implements Closeable {
+
+    public static final int MAGIC = 0x43384C47;
+    public static final short VERSION = 2;
+
+    static final int PLAYED_FLAG = 0x80;
+    static final int DECLARED_FLAG = 0x08;
+    static final int SEAT_SHIFT = 4;
+
+    /**
+     * The most bytes a game's turns can take: every turn adds a card to or takes one from a hand,
+     * so there are at most two turns per card.
+     */
+    static final int MAX_TURN_BYTES = 2 * 2 * Card.DECK_SIZE;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+    /**
+     * Creates (or replaces) a log file.
+     */
+    public GameLogWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC).putShort(VERSION);
+    }
+
+    /**
+     * Collects the encoded turns of one game while it is played. Every game needs its own.
+     */
+    public static final class Turns implements TurnListener {
+        private final byte[] bytes = new byte[MAX_TURN_BYTES];
+        private int length;
+        private int count;
+
+        @Override
+        public void turnPlayed(int seat, PlayerTurn turn) {
+            if (turn.isDrewACard()) {
+                bytes[length++] = (byte) (seat << SEAT_SHIFT);
+            } else {
+                Card.Suit declared = turn.getDeclaredSuit();
+                int flags = PLAYED_FLAG | seat << SEAT_SHIFT | (declared == null ? 0 : DECLARED_FLAG | declared.ordinal());
+                bytes[length++] = (byte) flags;
+                bytes[length++] = (byte) turn.getPlayedCard().getId();
+            }
+            count++;
+        }
+
+        /**
+         * Empties the turns so they can collect another game.
+         */
+        public void clear() {
+            length = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * Appends a game.
+     *
+     * @param result    The result of the game
+     * @param algorithm The random number generator it was played with
+     * @param turns     The turns collected while it was played
+     */
+    public synchronized void write(GameResult result, RandomAlgorithm algorithm, Turns turns) throws IOException {
+        int numOfSeats = result.getNumberOfSeats();
+        byte[] algorithmName = algorithm.name().getBytes(StandardCharsets.US_ASCII);
+        byte[][] names = new byte[numOfSeats][];
+        int size = 8 + 1 + algorithmName.length + 1 + 2 * numOfSeats + 4 + 4 + turns.length;
+        for (int seat = 0; seat < numOfSeats; seat++) {
+            names[seat] = result.getStrategy(seat).getBytes(StandardCharsets.UTF_8);
+            if (names[seat].length > 255) {
+                throw new IllegalArgumentException("Strategy name too long: " + result.getStrategy(seat));
+            }
+            size += 1 + names[seat].length;
+        }
+        if (buffer.remaining() < size) {
+            flush();
+        }
+
+        buffer.putLong(result.getSeed());
+        buffer.put((byte) algorithmName.length).put(algorithmName);
+        buffer.put((byte) numOfSeats);
+        for (byte[] name : names) {
+            buffer.put((byte) name.length).put(name);
+        }
+        for (int seat = 0; seat < numOfSeats; seat++) {
+            buffer.putShort((short) result.getScore(seat));
+        }
+        buffer.putInt(turns.count);
+        buffer.putInt(turns.length);
+        buffer.put(turns.bytes, 0, turns.length);
+    }
+
+    /**
+     * Writes out everything appended so far.
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
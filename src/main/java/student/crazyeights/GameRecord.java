@@ -0,0 +1,171 @@
+package student.crazyeights;
+
+import java.util.Arrays;
+
+/**
+ * Everything needed to reproduce a headless game: its result, which holds the seed and the seat
+ * order, the random number generator it was played with, and the decision of every turn in the
+ * order they were taken.
+ * <p>
+ * A decision is {@link #DRAW}, or the id of the played card times four plus the ordinal of the
+ * declared suit (zero when no suit was declared).
+ */
+public final class GameRecord {
+
+    public static final int DRAW = -1;
+
+    private static final int SUITS = Card.Suit.values().length;
+
+    private final GameResult result;
+    private final RandomAlgorithm algorithm;
+    private final int[] decisions;
+
+    GameRecord(GameResult result, RandomAlgorithm algorithm, int[] decisions) {
+        this.result = result;
+        this.algorithm = algorithm;
+        this.decisions = decisions;
+    }
+
+    /**
+     * @return The decision a turn stands for.
+     */
+    public static int encode(PlayerTurn turn) {
+        if (turn.isDrewACard()) {
+            return DRAW;
+        }
+        Card.Suit declared = turn.getDeclaredSuit();
+        return turn.getPlayedCard().getId() * SUITS + (declared == null ? 0 : declared.ordinal());
+    }
+
+    /**
+     * @return A readable form of a decision, e.g. "draw", "KING of HEARTS" or
+     * "EIGHT of CLUBS>SPADES".
+     */
+    public static String describe(int decision) {
+        if (decision == DRAW) {
+            return "draw";
+        }
+        Card card = Card.fromId(decision / SUITS);
+        if (card.getRank() != Card.Rank.EIGHT) {
+            return card.toString();
+        }
+        return card + ">" + Card.Suit.values()[decision % SUITS];
+    }
+
+    /**
+     * @return The result of the recorded game.
+     */
+    public GameResult getResult() {
+        return result;
+    }
+
+    /**
+     * @return The random number generator the game was played with.
+     */
+    public RandomAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return The number of recorded decisions, one per turn.
+     */
+    public int getNumberOfDecisions() {
+        return decisions.length;
+    }
+
+    /**
+     * @return The decision taken on a turn, counted from 0.
+     */
+    public int getDecision(int turn) {
+        return decisions[turn];
+    }
+
+    /**
+     * Writes the record as one tab-separated line: seed, strategies, scores, decisions, the
+     * ending and the random number generator, with the strategies, scores and decisions separated by commas.
+     */
+    public String toLine() {
+        StringBuilder line = new StringBuilder();
+        line.append(result.getSeed()).append('\t');
+        for (int seat = 0; seat < result.getNumberOfSeats(); seat++) {
+            line.append(seat == 0 ? "" : ",").append(result.getStrategy(seat));
+        }
+        line.append('\t');
+        for (int seat = 0; seat < result.getNumberOfSeats(); seat++) {
+            line.append(seat == 0 ? "" : ",").append(result.getScore(seat));
+        }
+        line.append('\t');
+        for (int turn = 0; turn < decisions.length; turn++) {
+            line.append(turn == 0 ? "" : ",").append(decisions[turn]);
+        }
+        line.append('\t').append(result.getEnding().name());
+        line.append('\t').append(algorithm.name());
+        return line.toString();
+    }
+
+    /**
+     * Reads a record written by {@link #toLine()}.
+     *
+     * @throws IllegalArgumentException If the line is not a record
+     */
+    public static GameRecord parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Not a game record: " + line);
+        }
+        long seed;
+        String[] strategies = fields[1].split(",");
+        int[] scores;
+        int[] decisions;
+        GameResult.Ending ending;
+        RandomAlgorithm algorithm;
+        try {
+            seed = Long.parseLong(fields[0]);
+            scores = parseInts(fields[2]);
+            decisions = parseInts(fields[3]);
+            ending = GameResult.Ending.valueOf(fields[4]);
+            algorithm = RandomAlgorithm.valueOf(fields[5]);
+        } catch (IllegalArgumentException e) {
+            // Also thrown for numbers and names that do not parse.
+            throw new IllegalArgumentException("Not a game record: " + line, e);
+        }
+        if (scores.length != strategies.length) {
+            throw new IllegalArgumentException("Not a game record: " + line);
+        }
+        return new GameRecord(new GameResult(seed, strategies, scores, ending, decisions.length), algorithm,
+                decisions);
+    }
+
+    private static int[] parseInts(String field) {
+        if (field.isEmpty()) {
+            return new int[0];
+        }
+        String[] parts = field.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i]);
+        }
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GameRecord that = (GameRecord) o;
+        return result.equals(that.result) && algorithm == that.algorithm && Arrays.equals(decisions, that.decisions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * result.hashCode() + algorithm.ordinal()) + Arrays.hashCode(decisions);
+    }
+
+    public String toString() {
+        return result + ", " + algorithm + ", " + decisions.length + " decisions";
+    }
+}
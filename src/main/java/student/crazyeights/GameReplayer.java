@@ -0,0 +1,109 @@
+package student.crazyeights;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Re-plays recorded games headless and checks that the strategies still make the recorded
+ * decisions.
+ * <p>
+ * The seed recreates the deal, the seat order and every random choice of the players, so any
+ * difference comes from a change in a strategy or in the game itself. Every game is replayed
+ * with the {@link RandomAlgorithm} its record names.
+ */
+public class GameReplayer {
+
+    public static final int NO_DIVERGENCE = -1;
+
+    private final StrategyRegistry registry;
+    private final int parallelism;
+
+    /**
+     * @param registry    Where the recorded strategies are looked up
+     * @param parallelism The number of threads {@link #replayAll} uses
+     */
+    public GameReplayer(StrategyRegistry registry, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.registry = registry;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Re-plays a game, stopping at the first decision that differs from the record.
+     *
+     * @param record The recorded game
+     * @return The first turn, counted from 0, that went differently, or {@link #NO_DIVERGENCE}
+     * if the whole game and its scores are the same
+     */
+    public int findDivergence(GameRecord record) {
+        GameResult recorded = record.getResult();
+        Checker checker = new Checker(record);
+        GameResult replayed;
+        try {
+            replayed = SimulationRunner.playGame(recorded.getSeed(), registry, strategiesOf(recorded),
+                    record.getAlgorithm(), checker);
+        } catch (Divergence divergence) {
+            return divergence.turn;
+        }
+        if (checker.turns != record.getNumberOfDecisions() || !replayed.equals(recorded)) {
+            return checker.turns;
+        }
+        return NO_DIVERGENCE;
+    }
+
+    /**
+     * Re-plays many games in parallel.
+     *
+     * @return The result of {@link #findDivergence} for record i at index i
+     */
+    public int[] replayAll(List<GameRecord> records) {
+        int[] divergences = new int[records.size()];
+        SimulationRunner.runInParallel(parallelism, records.size(),
+                i -> divergences[i] = findDivergence(records.get(i)));
+        return divergences;
+    }
+
+    private static List<String> strategiesOf(GameResult result) {
+        String[] strategies = new String[result.getNumberOfSeats()];
+        for (int seat = 0; seat < strategies.length; seat++) {
+            strategies[seat] = result.getStrategy(seat);
+        }
+        return Arrays.asList(strategies);
+    }
+
+    /**
+     * Compares every turn with the record as it is played.
+     */
+    private static final class Checker implements TurnListener {
+        private final GameRecord record;
+        private int turns;
+
+        Checker(GameRecord record) {
+            this.record = record;
+        }
+
+        @Override
+        public void turnPlayed(int seat, PlayerTurn turn) {
+            if (turns == record.getNumberOfDecisions() || GameRecord.encode(turn) != record.getDecision(turns)) {
+                throw new Divergence(turns);
+            }
+            turns++;
+        }
+    }
+
+    /**
+     * Ends a replay as soon as it has gone differently.
+     */
+    private static final class Divergence extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int turn;
+
+        Divergence(int turn) {
+            super(null, null, false, false);
+            this.turn = turn;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package student.crazyeights;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of one finished game: its seed, who sat where, the score of every seat, how it
+ * ended and how long it lasted.
+ */
+public final class GameResult {
+
+    /**
+     * How a game ended.
+     */
+    public enum Ending {
+        /**
+         * A player emptied their hand.
+         */
+        EMPTY_HAND,
+        /**
+         * The draw pile ran out.
+         */
+        DRAW_PILE_EMPTY,
+        /**
+         * A player made an illegal move.
+         */
+        ILLEGAL_MOVE
+    }
+
+    private final long seed;
+    private final String[] strategies;
+    private final int[] scores;
+    private final Ending ending;
+    private final int numberOfTurns;
+
+    GameResult(long seed, String[] strategies, int[] scores, Ending ending, int numberOfTurns) {
+        this.seed = seed;
+        this.strategies = strategies;
+        this.scores = scores;
+        this.ending = ending;
+        this.numberOfTurns = numberOfTurns;
+    }
+
+    /**
+     * @return The seed the game was played with.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The number of seats.
+     */
+    public int getNumberOfSeats() {
+        return scores.length;
+    }
+
+    /**
+     * @return The name of the strategy that played a seat.
+     */
+    public String getStrategy(int seat) {
+        return strategies[seat];
+    }
+
+    /**
+     * @return True if the seat has the highest score, alone or tied with others.
+     */
+    public boolean isWinner(int seat) {
+        for (int score : scores) {
+            if (score > scores[seat]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of seats sharing the highest score.
+     */
+    public int getNumberOfWinners() {
+        int winners = 0;
+        for (int seat = 0; seat < scores.length; seat++) {
+            if (isWinner(seat)) {
+                winners++;
+            }
+        }
+        return winners;
+    }
+
+    /**
+     * @return The score of each seat, in seat order.
+     */
+    public int[] getScores() {
+        return scores.clone();
+    }
+
+    /**
+     * @return The score of one seat.
+     */
+    public int getScore(int seat) {
+        return scores[seat];
+    }
+
+    /**
+     * @return How the game ended.
+     */
+    public Ending getEnding() {
+        return ending;
+    }
+
+    /**
+     * @return True if a player emptied their hand, false if the draw pile ran out or a player
+     * made an illegal move.
+     */
+    public boolean endedWithEmptyHand() {
+        return ending == Ending.EMPTY_HAND;
+    }
+
+    /**
+     * @return The number of turns the players took.
+     */
+    public int getNumberOfTurns() {
+        return numberOfTurns;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GameResult that = (GameResult) o;
+        return seed == that.seed &&
+            numberOfTurns == that.numberOfTurns &&
+            ending == that.ending &&
+            Arrays.equals(strategies, that.strategies) &&
+            Arrays.equals(scores, that.scores);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * Long.hashCode(seed) + numberOfTurns;
+        result = 31 * result + ending.ordinal();
+        result = 31 * result + Arrays.hashCode(strategies);
+        return 31 * result + Arrays.hashCode(scores);
+    }
+
+    public String toString() {
+        return "seed " + seed + ": " + Arrays.toString(strategies) + " scored "
+                + Arrays.toString(scores) + " in " + numberOfTurns + " turns, ending " + ending;
+    }
+}
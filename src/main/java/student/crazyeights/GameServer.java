@@ -0,0 +1,285 @@
+package student.crazyeights;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Hosts many tables at once for remote players speaking the {@link TableProtocol}, on a single
+ * thread with a non-blocking selector.
+ * <p>
+ * A player that joins is seated at the open table of the size, length and number of remote
+ * players it asks for, or at a new one. The match starts as soon as all of its remote seats are
+ * taken, and {@link PlayerAI} bots play the other seats on the selector thread between the remote
+ * moves. A player that leaves is replaced by a bot, and a table nobody is left at is closed.
+ * <p>
+ * Every table and connection holds a bounded amount of memory, so the number of tables is only
+ * limited by the number of sockets. Table i gets the random stream derived from the master seed
+ * and i, so the games of a table are the same as headless games with the same seeds.
+ */
+public class GameServer implements Closeable {
+
+    private final long masterSeed;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Map<String, ServerTable> openTables = new HashMap<>();
+    private final Set<ServerTable> tables = new HashSet<>();
+    private Consumer<GameResult> resultListener;
+
+    private volatile boolean closed;
+    private volatile int activeTables;
+    private volatile int connections;
+    private volatile long gamesPlayed;
+    private int tablesCreated;
+
+    /**
+     * Opens the server socket. Nothing is served before {@link #run()} is called.
+     *
+     * @param address    The address to listen on; port 0 picks a free port
+     * @param masterSeed The seed every table's random stream is derived from
+     * @throws IOException If the socket cannot be opened
+     */
+    public GameServer(InetSocketAddress address, long masterSeed) throws IOException {
+        this.masterSeed = masterSeed;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Sets who is told the result of every game, on the server's thread. Must be called before
+     * {@link #run()}.
+     */
+    public void setResultListener(Consumer<GameResult> resultListener) {
+        this.resultListener = resultListener;
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return The number of tables waiting for players or playing.
+     */
+    public int getActiveTables() {
+        return activeTables;
+    }
+
+    /**
+     * @return The number of open connections.
+     */
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return The number of games finished so far.
+     */
+    public long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Serves players on the calling thread until {@link #close()} is called.
+     *
+     * @throws IOException If the selector fails
+     */
+    public void run() throws IOException {
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        serve(key);
+                    }
+                }
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        }
+    }
+
+    /**
+     * Stops serving; {@link #run()} returns and closes every connection.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Client(new LineConnection(channel, key)));
+            connections++;
+        }
+    }
+
+    private void serve(SelectionKey key) {
+        Client client = (Client) key.attachment();
+        try {
+            if (key.isWritable()) {
+                client.connection.flush();
+            }
+            if (key.isReadable() && !client.connection.read(line -> handle(client, line))) {
+                disconnect(client);
+                return;
+            }
+        } catch (IOException e) {
+            disconnect(client);
+            return;
+        }
+        if (client.table != null) {
+            flush(client.table);
+        }
+        flush(client);
+    }
+
+    private void handle(Client client, String line) {
+        if (client.connection.isClosed()) {
+            return;
+        }
+        String[] words = line.trim().split("\\s+");
+        try {
+            int[] numbers = TableProtocol.numbers(words);
+            if (words[0].equals(TableProtocol.JOIN) && client.table == null
+                    && (numbers.length == 2 || numbers.length == 3)) {
+                join(client, numbers[0], numbers[1], numbers.length == 3 ? numbers[2] : 1);
+            } else if (words[0].equals(TableProtocol.MOVE) && client.table != null && numbers.length == 1) {
+                client.table.move(client.seat, numbers[0]);
+                finish(client.table);
+            } else {
+                throw new IllegalArgumentException("Unexpected message: " + line);
+            }
+        } catch (IllegalArgumentException e) {
+            client.connection.send(TableProtocol.ERROR + ' ' + e.getMessage());
+        }
+    }
+
+    private void join(Client client, int numOfPlayers, int numOfGames, int numOfRemoteSeats) {
+        String shape = numOfPlayers + " " + numOfGames + " " + numOfRemoteSeats;
+        ServerTable table = openTables.get(shape);
+        if (table == null) {
+            int number = tablesCreated++;
+            table = new ServerTable(number, EightsUtils.deriveSeed(masterSeed, number), numOfPlayers, numOfGames,
+                    numOfRemoteSeats, this::gamePlayed);
+            openTables.put(shape, table);
+            tables.add(table);
+            activeTables = tables.size();
+        }
+        client.table = table;
+        client.seat = table.join(client.connection);
+        if (table.isFull()) {
+            openTables.remove(shape);
+        }
+        finish(table);
+    }
+
+    private void gamePlayed(GameResult result) {
+        gamesPlayed++;
+        if (resultListener != null) {
+            resultListener.accept(result);
+        }
+    }
+
+    /**
+     * Counts the table out once its match is over. Its players are disconnected once they have
+     * been sent everything.
+     */
+    private void finish(ServerTable table) {
+        if (table.isFinished() && tables.remove(table)) {
+            activeTables = tables.size();
+        }
+    }
+
+    private void disconnect(Client client) {
+        close(client);
+        ServerTable table = client.table;
+        if (table == null || table.isFinished()) {
+            return;
+        }
+        table.leave(client.seat);
+        if (!table.isStarted() && table.getConnections().isEmpty()) {
+            openTables.values().remove(table);
+            tables.remove(table);
+            activeTables = tables.size();
+            return;
+        }
+        finish(table);
+        flush(table);
+    }
+
+    /**
+     * Sends what the table's players have been told, and lets them go if the match is over.
+     */
+    private void flush(ServerTable table) {
+        for (LineConnection connection : table.getConnections()) {
+            flush((Client) connection.getKey().attachment());
+        }
+    }
+
+    private void flush(Client client) {
+        if (client.connection.isClosed()) {
+            return;
+        }
+        try {
+            client.connection.flush();
+        } catch (IOException e) {
+            disconnect(client);
+            return;
+        }
+        if (client.table != null && client.table.isFinished() && !client.connection.hasPendingOutput()) {
+            close(client);
+        }
+    }
+
+    private void close(Client client) {
+        if (!client.connection.isClosed()) {
+            client.connection.close();
+            connections--;
+        }
+    }
+
+    /**
+     * A connection and where it sits, once it has joined a table.
+     */
+    private static final class Client {
+        private final LineConnection connection;
+        private ServerTable table;
+        private int seat;
+
+        private Client(LineConnection connection) {
+            this.connection = connection;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The players and the game of one headless table, set up once and cleared in place between
+ * games, so a long run of games hardly allocates anything but what the strategies do.
+ * <p>
+ * A game played here is the same as one played by {@link SimulationRunner#playGame} with the
+ * same seed on new players, as long as every strategy's reset() puts it back the way it was
+ * created, as {@link PlayerAI}'s does. A table is not thread-safe.
+ */
+public final class GameTable {
+
+    private final String[] strategies;
+    private final ArrayList<Player> players = new ArrayList<>();
+    private final Random random;
+    private Game game;
+    private long seed;
+
+    /**
+     * @param registry   Where the strategies are looked up
+     * @param strategies The strategy names, in seat order
+     */
+    public GameTable(StrategyRegistry registry, List<String> strategies) {
+        this(registry, strategies, RandomAlgorithm.JDK);
+    }
+
+    /**
+     * @param registry   Where the strategies are looked up
+     * @param strategies The strategy names, in seat order
+     * @param algorithm  The random number generator every game is played with
+     */
+    public GameTable(StrategyRegistry registry, List<String> strategies, RandomAlgorithm algorithm) {
+        this(strategies, createAll(registry, strategies), algorithm);
+    }
+
+    /**
+     * Seats strategies that were created elsewhere.
+     *
+     * @param names      The names the results give the strategies, in seat order
+     * @param strategies The strategies, in seat order
+     */
+    GameTable(List<String> names, List<? extends PlayerStrategy> strategies) {
+        this(names, strategies, RandomAlgorithm.JDK);
+    }
+
+    private GameTable(List<String> names, List<? extends PlayerStrategy> strategies, RandomAlgorithm algorithm) {
+        this.strategies = names.toArray(new String[0]);
+        // Seeded again for every game.
+        this.random = algorithm.create(0);
+        for (PlayerStrategy strategy : strategies) {
+            Player player = new Player(random, strategy);
+            player.createEmptyHand();
+            players.add(player);
+        }
+        for (Player p : players) {
+            p.pingAiInit(players);
+        }
+    }
+
+    private static List<PlayerStrategy> createAll(StrategyRegistry registry, List<String> names) {
+        List<PlayerStrategy> strategies = new ArrayList<>();
+        for (String name : names) {
+            strategies.add(registry.create(name));
+        }
+        return strategies;
+    }
+
+    /**
+     * Plays one game.
+     *
+     * @param seed The seed of the game
+     * @return The result of the game
+     */
+    public GameResult play(long seed) {
+        return play(seed, null);
+    }
+
+    /**
+     * Plays one game, telling the listener (if any) about every turn.
+     */
+    public GameResult play(long seed, TurnListener turnListener) {
+        setUp(seed, turnListener).playGame();
+        return getResult();
+    }
+
+    /**
+     * Deals a game and leaves it to the caller to play it a step at a time, as a table waiting
+     * for remote players does. It is the same game {@link #play} plays with the same seed.
+     *
+     * @param seed The seed of the game
+     * @return The game, ready for its first turn
+     */
+    Game startGame(long seed) {
+        Game started = setUp(seed, null);
+        started.start();
+        return started;
+    }
+
+    /**
+     * @return The result of the last game, once it is over.
+     */
+    GameResult getResult() {
+        return new GameResult(seed, strategies, game.getGameScore().clone(), game.getEnding(),
+                game.getNumberOfTurns());
+    }
+
+    /**
+     * @return The players, in seat order.
+     */
+    List<Player> getPlayers() {
+        return players;
+    }
+
+    private Game setUp(long seed, TurnListener turnListener) {
+        this.seed = seed;
+        random.setSeed(seed);
+        for (Player p : players) {
+            p.reset();
+            p.setName(p.pingAiForName());
+        }
+
+        if (game == null) {
+            game = new Game(random, players);
+        } else {
+            game.reset(random);
+        }
+        game.setTurnListener(turnListener);
+        return game;
+    }
+}
@@ -0,0 +1,394 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Information set Monte Carlo tree search (single observer) over {@link SimGame}s.
+ * <p>
+ * Every iteration deals the unseen cards at random into the opponents' hands and the draw pile,
+ * keeping each opponent to the cards it may hold, walks the tree through the moves that are
+ * legal in that deal, expands one new move, plays the rest of the game out at random and backs
+ * the result up. Several threads each grow their own tree from independently derived seeds and
+ * their root visit counts are summed, so with an iteration budget the chosen move only depends
+ * on the seed.
+ */
+final class IsmctsSearch {
+
+    /**
+     * What the searching player knows at the start of its turn. Seat 0 is the searching player and
+     * the other seats follow in turn order.
+     */
+    static final class Position {
+        long ownHand;
+        long unseen;
+        int[] handSizes;
+        /**
+         * The cards each seat may hold, as {@link UnseenCardTracker#getPossibleCards}, or null if
+         * the opponents may hold any unseen card.
+         */
+        long[] possible;
+        int topCard;
+        int declaredSuit = SimGame.NO_SUIT;
+    }
+
+    private static final double EXPLORATION = 0.7;
+    private static final int SUITS = Card.Suit.values().length;
+    private static final int MOVE_SLOTS = 1 + Card.DECK_SIZE * SUITS;
+
+    private static ExecutorService workers;
+
+    private final int iterations;
+    private final long timeLimitNanos;
+    private final int threads;
+
+    /**
+     * @param iterations      The number of iterations per move, shared by all threads, or 0 for
+     *                        no limit
+     * @param timeLimitMillis The time per move, or 0 for no limit
+     * @param threads         The number of trees grown in parallel
+     */
+    IsmctsSearch(int iterations, long timeLimitMillis, int threads) {
+        if (iterations < 0 || timeLimitMillis < 0 || iterations == 0 && timeLimitMillis == 0) {
+            throw new IllegalArgumentException("The search needs an iteration or time budget.");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("The search needs at least one thread.");
+        }
+        this.iterations = iterations;
+        this.timeLimitNanos = timeLimitMillis * 1_000_000L;
+        this.threads = threads;
+    }
+
+    /**
+     * Finds the best move for seat 0.
+     *
+     * @param position What seat 0 knows
+     * @param seed     Seeds the random deals and playouts
+     * @return The move with the most visits
+     */
+    int search(Position position, long seed) {
+        long deadline = timeLimitNanos == 0 ? Long.MAX_VALUE : System.nanoTime() + timeLimitNanos;
+        int[] visits = new int[MOVE_SLOTS];
+        if (threads == 1) {
+            addVisits(visits, growTree(position, iterationsOf(0), deadline, EightsUtils.deriveSeed(seed, 0)));
+        } else {
+            List<Future<int[]>> trees = new ArrayList<>();
+            for (int t = 1; t < threads; t++) {
+                int budget = iterationsOf(t);
+                long treeSeed = EightsUtils.deriveSeed(seed, t);
+                trees.add(workers().submit(() -> growTree(position, budget, deadline, treeSeed)));
+            }
+            addVisits(visits, growTree(position, iterationsOf(0), deadline, EightsUtils.deriveSeed(seed, 0)));
+            for (Future<int[]> tree : trees) {
+                try {
+                    addVisits(visits, tree.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while searching.", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A search thread failed.", e.getCause());
+                }
+            }
+        }
+
+        int best = 0;
+        for (int slot = 1; slot < MOVE_SLOTS; slot++) {
+            if (visits[slot] > visits[best]) {
+                best = slot;
+            }
+        }
+        return best - 1;
+    }
+
+    private int iterationsOf(int tree) {
+        if (iterations == 0) {
+            return Integer.MAX_VALUE;
+        }
+        return iterations / threads + (tree < iterations % threads ? 1 : 0);
+    }
+
+    private static void addVisits(int[] total, int[] visits) {
+        for (int slot = 0; slot < MOVE_SLOTS; slot++) {
+            total[slot] += visits[slot];
+        }
+    }
+
+    private static synchronized ExecutorService workers() {
+        if (workers == null) {
+            workers = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "ismcts-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * Grows one tree and returns the visit count of every root move, indexed by move + 1.
+     */
+    private static int[] growTree(Position position, int budget, long deadline, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int numOfSeats = position.handSizes.length;
+        SimGame game = new SimGame(numOfSeats);
+        int[] moves = new int[SimGame.MAX_MOVES];
+        int[] unseen = new int[Card.DECK_SIZE];
+        double[] rewards = new double[numOfSeats];
+        int[] dealOrder = dealOrder(position);
+        Node root = new Node(null, SimGame.DRAW, numOfSeats - 1);
+
+        for (int i = 0; i < budget; i++) {
+            // Reading the clock costs more than a few playouts, so it is only checked now and then.
+            if (i > 0 && (i & 63) == 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+            determinize(position, dealOrder, random, game, unseen);
+            Node node = root;
+
+            while (!game.isOver()) {
+                int count = game.legalMoves(moves);
+                int untried = 0;
+                for (int m = 0; m < count; m++) {
+                    if (node.child(moves[m]) == null) {
+                        int move = moves[m];
+                        moves[m] = moves[untried];
+                        moves[untried++] = move;
+                    }
+                }
+                if (untried > 0) {
+                    int move = moves[random.nextInt(untried)];
+                    node = node.addChild(move, game.getCurrentSeat());
+                    game.apply(move);
+                    break;
+                }
+                node = selectChild(node, moves, count);
+                game.apply(node.move);
+            }
+
+            playOut(game, random);
+            scoreOutcome(game, rewards);
+            for (; node != null; node = node.parent) {
+                node.visits++;
+                node.reward += rewards[node.seat];
+            }
+        }
+
+        int[] visits = new int[MOVE_SLOTS];
+        for (int c = 0; c < root.childCount; c++) {
+            visits[root.children[c].move + 1] = root.children[c].visits;
+        }
+        return visits;
+    }
+
+    /**
+     * @return The opponents' seats, the one that may hold the fewest cards first.
+     */
+    static int[] dealOrder(Position position) {
+        int[] order = new int[position.handSizes.length - 1];
+        int[] choices = new int[position.handSizes.length];
+        for (int seat = 1; seat < position.handSizes.length; seat++) {
+            choices[seat] = CardMask.count(possibleCards(position, seat, position.unseen));
+            int i = seat - 1;
+            while (i > 0 && choices[order[i - 1]] > choices[seat]) {
+                order[i] = order[i - 1];
+                i--;
+            }
+            order[i] = seat;
+        }
+        return order;
+    }
+
+    /**
+     * Deals the unseen cards at random: the opponents get as many as they hold, each from the
+     * cards it may hold and in the given order, and the draw pile gets the rest. An opponent left
+     * with too few cards it may hold gets the missing ones from any card still undealt.
+     */
+    static void determinize(Position position, int[] dealOrder, SplittableRandom random, SimGame game,
+                            int[] unseen) {
+        game.setUp(position.topCard, position.declaredSuit, 0);
+        game.setHand(0, position.ownHand);
+
+        long undealt = position.unseen;
+        for (int seat : dealOrder) {
+            int handSize = position.handSizes[seat];
+            long hand = deal(possibleCards(position, seat, undealt), handSize, random, unseen);
+            if (CardMask.count(hand) < handSize) {
+                hand |= deal(undealt & ~hand, handSize - CardMask.count(hand), random, unseen);
+            }
+            game.setHand(seat, hand);
+            undealt &= ~hand;
+        }
+
+        int count = 0;
+        for (long rest = undealt; rest != 0; rest &= rest - 1) {
+            unseen[count++] = Long.numberOfTrailingZeros(rest);
+        }
+        shuffle(unseen, count, count, random);
+        for (int i = 0; i < count; i++) {
+            game.pushDrawPile(unseen[i]);
+        }
+        game.checkOver();
+    }
+
+    private static long possibleCards(Position position, int seat, long undealt) {
+        return position.possible == null ? undealt : undealt & position.possible[seat];
+    }
+
+    /**
+     * @return As many of the cards as asked for (or all of them, if there are fewer), picked at
+     * random.
+     */
+    private static long deal(long cards, int numOfCards, SplittableRandom random, int[] ids) {
+        int count = 0;
+        for (long rest = cards; rest != 0; rest &= rest - 1) {
+            ids[count++] = Long.numberOfTrailingZeros(rest);
+        }
+        if (count <= numOfCards) {
+            return cards;
+        }
+        shuffle(ids, count, numOfCards, random);
+        long hand = CardMask.EMPTY;
+        for (int i = count - numOfCards; i < count; i++) {
+            hand |= 1L << ids[i];
+        }
+        return hand;
+    }
+
+    /**
+     * Puts a random pick of the given number of the first count ids, in random order, at the end
+     * of them.
+     */
+    private static void shuffle(int[] ids, int count, int picks, SplittableRandom random) {
+        for (int i = count - 1; i >= count - picks && i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int card = ids[i];
+            ids[i] = ids[j];
+            ids[j] = card;
+        }
+    }
+
+    /**
+     * Picks the child with the best upper confidence bound among the moves legal in this deal,
+     * counting the deal as an opportunity for each of them.
+     */
+    private static Node selectChild(Node node, int[] moves, int count) {
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int m = 0; m < count; m++) {
+            Node child = node.child(moves[m]);
+            child.availability++;
+            double value = child.reward / child.visits
+                    + EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+            if (value > bestValue) {
+                best = child;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays the game to its end: every seat plays a random playable card, declaring its most
+     * common remaining suit for an eight, and draws when it has nothing to play.
+     */
+    private static void playOut(SimGame game, SplittableRandom random) {
+        while (!game.isOver()) {
+            long hand = game.getHand(game.getCurrentSeat());
+            long playable = game.playableCards(hand);
+            if (playable == CardMask.EMPTY) {
+                game.apply(SimGame.DRAW);
+                continue;
+            }
+            for (int skip = random.nextInt(Long.bitCount(playable)); skip > 0; skip--) {
+                playable &= playable - 1;
+            }
+            int cardId = Long.numberOfTrailingZeros(playable);
+            int suit = SimGame.NO_SUIT;
+            if ((CardMask.EIGHTS & (1L << cardId)) != 0) {
+                suit = mostCommonSuit(hand & ~(1L << cardId));
+            }
+            game.apply(SimGame.playMove(cardId, suit));
+        }
+    }
+
+    private static int mostCommonSuit(long hand) {
+        int best = 0;
+        int bestCount = -1;
+        for (Card.Suit suit : Card.Suit.values()) {
+            int count = Long.bitCount(hand & CardMask.suitMask(suit));
+            if (count > bestCount) {
+                best = suit.ordinal();
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gives each seat 1 for a win, shared between tied winners, and 0 for a loss. As in
+     * {@link Game}, the winner is the player left with the lowest hand value.
+     */
+    private static void scoreOutcome(SimGame game, double[] rewards) {
+        int lowest = Integer.MAX_VALUE;
+        int winners = 0;
+        for (int seat = 0; seat < rewards.length; seat++) {
+            int value = game.handValue(seat);
+            rewards[seat] = value;
+            if (value < lowest) {
+                lowest = value;
+                winners = 1;
+            } else if (value == lowest) {
+                winners++;
+            }
+        }
+        for (int seat = 0; seat < rewards.length; seat++) {
+            rewards[seat] = rewards[seat] == lowest ? 1.0 / winners : 0.0;
+        }
+    }
+
+    /**
+     * A node of the tree: the move that leads to it and the statistics of the seat that made it.
+     */
+    private static final class Node {
+        final Node parent;
+        final int move;
+        final int seat;
+        Node[] children = new Node[4];
+        int childCount;
+        int visits;
+        int availability = 1;
+        double reward;
+
+        Node(Node parent, int move, int seat) {
+            this.parent = parent;
+            this.move = move;
+            this.seat = seat;
+        }
+
+        Node child(int move) {
+            for (int c = 0; c < childCount; c++) {
+                if (children[c].move == move) {
+                    return children[c];
+                }
+            }
+            return null;
+        }
+
+        Node addChild(int move, int seat) {
+            if (childCount == children.length) {
+                Node[] grown = new Node[childCount * 2];
+                System.arraycopy(children, 0, grown, 0, childCount);
+                children = grown;
+            }
+            Node child = new Node(this, move, seat);
+            children[childCount++] = child;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A strategy that chooses every move with an information set Monte Carlo tree search.
+ * <p>
+ * An {@link UnseenCardTracker} knows which cards are in the opponents' hands and the draw pile,
+ * how many each of them holds, and which of them each opponent may hold. The whole decision,
+ * including the card and the declared suit, is made in {@link #shouldDrawCard} and handed out by
+ * {@link #playCard} and {@link #declareSuit}.
+ */
+public class IsmctsStrategy implements PlayerStrategy {
+
+    public static final int DEFAULT_ITERATIONS = 1000;
+
+    private final IsmctsSearch search;
+    private final long seed;
+
+    private int id;
+    private List<Integer> opponentIds;
+    private UnseenCardTracker unseenCards;
+    private int lastOpponentId;
+    private long decisions;
+
+    private int chosenMove;
+
+    /**
+     * Searches {@link #DEFAULT_ITERATIONS} iterations per move on the calling thread.
+     */
+    public IsmctsStrategy() {
+        this(DEFAULT_ITERATIONS, 0, 1, 0);
+    }
+
+    /**
+     * @param iterations      The iterations per move, or 0 to search until the time limit
+     * @param timeLimitMillis The time per move, or 0 to search until the iterations are used up
+     * @param threads         The number of threads searching each move
+     * @param seed            Seeds the search; with an iteration budget the same seed and the same
+     *                        game give the same moves
+     */
+    public IsmctsStrategy(int iterations, long timeLimitMillis, int threads, long seed) {
+        this.search = new IsmctsSearch(iterations, timeLimitMillis, threads);
+        this.seed = seed;
+    }
+
+    @Override
+    public void init(int playerId, List<Integer> opponentIds) {
+        this.id = playerId;
+        this.opponentIds = new ArrayList<>(opponentIds);
+        this.unseenCards = new UnseenCardTracker(playerId, opponentIds);
+        this.lastOpponentId = opponentIds.get(opponentIds.size() - 1);
+    }
+
+    @Override
+    public void receiveInitialCards(List<Card> cards) {
+        unseenCards.setHand(CardMask.of(cards));
+    }
+
+    @Override
+    public boolean shouldDrawCard(Card topPileCard, Card.Suit changedSuit) {
+        IsmctsSearch.Position position = new IsmctsSearch.Position();
+        long hand = unseenCards.getHand();
+        position.ownHand = hand;
+        position.unseen = unseenCards.getUnseen();
+        position.topCard = topPileCard.getId();
+        position.declaredSuit = changedSuit == null ? SimGame.NO_SUIT : changedSuit.ordinal();
+
+        // Seats follow the turn order, which starts after the opponent who moved last.
+        int numOfOpponents = opponentIds.size();
+        int firstOpponent = opponentIds.indexOf(lastOpponentId) + 1;
+        position.handSizes = new int[numOfOpponents + 1];
+        position.possible = new long[numOfOpponents + 1];
+        position.handSizes[0] = CardMask.count(hand);
+        for (int seat = 1; seat <= numOfOpponents; seat++) {
+            int opponentId = opponentIds.get((firstOpponent + seat - 1) % numOfOpponents);
+            position.handSizes[seat] = unseenCards.getHandSize(opponentId);
+            position.possible[seat] = unseenCards.getPossibleCards(opponentId);
+        }
+
+        long decisionSeed = EightsUtils.deriveSeed(seed, decisions++);
+        chosenMove = search.search(position, decisionSeed);
+        return chosenMove == SimGame.DRAW;
+    }
+
+    @Override
+    public void receiveCard(Card drawnCard) {
+        unseenCards.addToHand(drawnCard);
+    }
+
+    @Override
+    public Card playCard() {
+        Card card = Card.fromId(SimGame.cardOf(chosenMove));
+        unseenCards.removeFromHand(card);
+        return card;
+    }
+
+    @Override
+    public Card.Suit declareSuit() {
+        return Card.Suit.values()[SimGame.suitOf(chosenMove)];
+    }
+
+    @Override
+    public void processOpponentActions(List<PlayerTurn> opponentActions) {
+        unseenCards.observeAll(opponentActions);
+        for (int i = 0; i < opponentActions.size(); i++) {
+            PlayerTurn turn = opponentActions.get(i);
+            if (turn.getPlayerId() != id && opponentIds.contains(turn.getPlayerId())) {
+                lastOpponentId = turn.getPlayerId();
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        unseenCards.reset();
+        decisions = 0;
+        lastOpponentId = opponentIds.get(opponentIds.size() - 1);
+    }
+}
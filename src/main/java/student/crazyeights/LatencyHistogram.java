@@ -0,0 +1,129 @@
+package student.crazyeights;
+
+/**
+ * Counts durations in nanoseconds in log-linear buckets: exact below 16 ns, and above that eight
+ * buckets per power of two, so every percentile is read back within 12.5% of the true value. The
+ * buckets are fixed, so recording never allocates.
+ * <p>
+ * Calls may also be counted without being timed, when timing every one of them would cost too
+ * much; the percentiles and the longest call then come from the timed ones only.
+ * <p>
+ * A histogram is not thread-safe; histograms filled on different threads are combined with
+ * {@link #merge}.
+ */
+public final class LatencyHistogram {
+
+    private static final int EXACT = 16;
+    private static final int SUB_BUCKETS = 8;
+    private static final int BUCKETS = EXACT + (63 - 4) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long calls;
+    private long max;
+    private long violations;
+
+    /**
+     * Counts one call that took the given time.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucket(value)]++;
+        count++;
+        calls++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Counts one call that was not timed.
+     */
+    public void recordCall() {
+        calls++;
+    }
+
+    /**
+     * Counts a call that missed its deadline.
+     */
+    public void recordViolation() {
+        violations++;
+    }
+
+    /**
+     * Adds the counts of another histogram to this one.
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        calls += other.calls;
+        max = Math.max(max, other.max);
+        violations += other.violations;
+    }
+
+    /**
+     * @return The number of calls counted, timed or not.
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return The number of calls timed, which the percentiles are taken from.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The number of calls that missed their deadline.
+     */
+    public long getViolations() {
+        return violations;
+    }
+
+    /**
+     * @return The longest duration counted, in nanoseconds.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param share The share of durations, e.g. 0.99
+     * @return The duration, in nanoseconds, that the share of the timed calls do not
+     * exceed, or 0 if none was timed.
+     */
+    public long getPercentile(double share) {
+        long wanted = Math.max(1, (long) Math.ceil(share * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= wanted) {
+                return Math.min(max, upperBound(i));
+            }
+        }
+        return max;
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < EXACT) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return EXACT + (exponent - 4) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < EXACT) {
+            return bucket;
+        }
+        int exponent = (bucket - EXACT) / SUB_BUCKETS + 4;
+        int subBucket = (bucket - EXACT) % SUB_BUCKETS;
+        long width = 1L << (exponent - 3);
+        return (SUB_BUCKETS + subBucket) * width + width - 1;
+    }
+}
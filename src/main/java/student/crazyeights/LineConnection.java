@@ -0,0 +1,139 @@
+package student.crazyeights;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking socket that sends and receives {@link TableProtocol} lines through two buffers
+ * of fixed size, so a connection never holds more than a few kilobytes however its peer behaves.
+ * A peer that sends a line longer than {@link TableProtocol#MAX_LINE_LENGTH} or reads so slowly
+ * that the output buffer fills up is dropped.
+ * <p>
+ * A connection belongs to the thread of its selector and is not thread-safe.
+ */
+final class LineConnection {
+
+    private static final int OUTPUT_CAPACITY = 16 * TableProtocol.MAX_LINE_LENGTH;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final ByteBuffer input = ByteBuffer.allocate(TableProtocol.MAX_LINE_LENGTH);
+    private final ByteBuffer output = ByteBuffer.allocate(OUTPUT_CAPACITY);
+    private boolean overflowed;
+    private boolean closed;
+
+    /**
+     * @param channel A connected channel in non-blocking mode
+     * @param key     The channel's key with its selector, interested in reading
+     */
+    LineConnection(SocketChannel channel, SelectionKey key) {
+        this.channel = channel;
+        this.key = key;
+    }
+
+    /**
+     * Reads what has arrived and hands over every complete line, without its line break.
+     *
+     * @return False if the peer closed the connection.
+     * @throws IOException If reading fails or a line is too long
+     */
+    boolean read(Consumer<String> lines) throws IOException {
+        int read = channel.read(input);
+        int start = 0;
+        for (int i = 0; i < input.position(); i++) {
+            if (input.get(i) == '\n') {
+                int end = i > start && input.get(i - 1) == '\r' ? i - 1 : i;
+                lines.accept(new String(input.array(), start, end - start, StandardCharsets.US_ASCII));
+                start = i + 1;
+            }
+        }
+        input.flip();
+        input.position(start);
+        input.compact();
+        if (!input.hasRemaining()) {
+            throw new IOException("Line too long");
+        }
+        return read >= 0;
+    }
+
+    /**
+     * Queues a line to be sent by {@link #flush()}. A line that does not fit any more is lost,
+     * and the connection is marked as overflowed.
+     */
+    void send(String line) {
+        if (closed) {
+            return;
+        }
+        if (output.remaining() < line.length() + 1) {
+            overflowed = true;
+            return;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            output.put((byte) line.charAt(i));
+        }
+        output.put((byte) '\n');
+    }
+
+    /**
+     * Writes as much of the queued output as the socket takes, and waits for the socket to be
+     * writable if some is left.
+     *
+     * @throws IOException If writing fails or the output overflowed
+     */
+    void flush() throws IOException {
+        if (overflowed) {
+            throw new IOException("Output overflowed");
+        }
+        if (closed) {
+            return;
+        }
+        output.flip();
+        try {
+            channel.write(output);
+        } finally {
+            output.compact();
+        }
+        int ops = output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+
+    /**
+     * @return The channel's key with its selector.
+     */
+    SelectionKey getKey() {
+        return key;
+    }
+
+    /**
+     * @return True if queued output is still waiting to be written.
+     */
+    boolean hasPendingOutput() {
+        return output.position() > 0;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes the channel, quietly.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to do with a channel that fails to close.
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package student.crazyeights;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * Puts load on a {@link GameServer}: opens one connection per remote seat of many tables at once,
+ * plays every seat with a {@link ClientSession} on a single selector thread, and measures how
+ * long the server takes to come back with the next turn after every move.
+ */
+public class LoadClient {
+
+    private static final int LATENCY_BUCKETS = 40;
+
+    private final InetSocketAddress server;
+    private final Supplier<? extends PlayerStrategy> strategies;
+
+    /**
+     * @param server     The address of the server
+     * @param strategies Creates the strategy of every remote seat
+     */
+    public LoadClient(InetSocketAddress server, Supplier<? extends PlayerStrategy> strategies) {
+        this.server = server;
+        this.strategies = strategies;
+    }
+
+    /**
+     * Joins the tables and plays until every one of them is over.
+     *
+     * @param numOfTables      The number of tables
+     * @param numOfPlayers     The number of seats of every table
+     * @param numOfGames       The number of games every table plays
+     * @param numOfRemoteSeats The seats of every table the client plays; the server's bots play
+     *                         the others
+     * @return What was played and how fast
+     * @throws IOException If the selector fails
+     */
+    public Report run(int numOfTables, int numOfPlayers, int numOfGames, int numOfRemoteSeats) throws IOException {
+        Report report = new Report();
+        String join = ClientSession.join(numOfPlayers, numOfGames, numOfRemoteSeats);
+        int open = 0;
+        long start = System.nanoTime();
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < numOfTables * numOfRemoteSeats; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.connect(server);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_CONNECT);
+                key.attach(new Seat(new LineConnection(channel, key), new ClientSession(strategies.get())));
+                open++;
+            }
+            report.connections = open;
+
+            while (open > 0) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Seat seat = (Seat) key.attachment();
+                    if (!key.isValid() || seat.connection.isClosed()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isConnectable()) {
+                            ((SocketChannel) key.channel()).finishConnect();
+                            key.interestOps(SelectionKey.OP_READ);
+                            seat.connection.send(join);
+                        }
+                        if (key.isWritable()) {
+                            seat.connection.flush();
+                        }
+                        if (key.isReadable() && !seat.connection.read(line -> seat.handle(line, report))) {
+                            seat.connection.close();
+                        }
+                        seat.connection.flush();
+                    } catch (IOException | IllegalStateException e) {
+                        report.errors++;
+                        seat.connection.close();
+                    }
+                    if (seat.connection.isClosed()) {
+                        open--;
+                        report.games += seat.session.getGamesPlayed();
+                        report.finishedSeats += seat.session.isFinished() ? 1 : 0;
+                    }
+                }
+            }
+        }
+        report.seconds = (System.nanoTime() - start) / 1e9;
+        report.numOfRemoteSeats = numOfRemoteSeats;
+        return report;
+    }
+
+    /**
+     * A connection with the session that plays it.
+     */
+    private static final class Seat {
+        private final LineConnection connection;
+        private final ClientSession session;
+        private long moveSent;
+
+        private Seat(LineConnection connection, ClientSession session) {
+            this.connection = connection;
+            this.session = session;
+        }
+
+        private void handle(String line, Report report) {
+            if (moveSent != 0 && line.startsWith(TableProtocol.TURN)) {
+                report.addLatency(System.nanoTime() - moveSent);
+                moveSent = 0;
+            }
+            String answer = session.handle(line);
+            if (answer != null) {
+                connection.send(answer);
+                moveSent = System.nanoTime();
+                report.moves++;
+            }
+            if (session.isFinished()) {
+                moveSent = 0;
+            }
+        }
+    }
+
+    /**
+     * What a run played and how fast.
+     */
+    public static final class Report {
+        private int connections;
+        private int finishedSeats;
+        private int numOfRemoteSeats;
+        private long games;
+        private long moves;
+        private long errors;
+        private double seconds;
+        private final long[] latencies = new long[LATENCY_BUCKETS];
+        private long latencyCount;
+        private long latencyTotal;
+
+        private Report() {
+        }
+
+        private void addLatency(long nanos) {
+            // Bucket b holds the latencies below 2^b microseconds.
+            long micros = nanos / 1000;
+            int bucket = Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            latencies[bucket]++;
+            latencyCount++;
+            latencyTotal += nanos;
+        }
+
+        /**
+         * @return The number of connections opened, one per remote seat.
+         */
+        public int getConnections() {
+            return connections;
+        }
+
+        /**
+         * @return The number of seats whose table played all its games.
+         */
+        public int getFinishedSeats() {
+            return finishedSeats;
+        }
+
+        /**
+         * @return The number of games played, counting each game once however many of its seats
+         * were remote.
+         */
+        public long getGames() {
+            return numOfRemoteSeats == 0 ? 0 : games / numOfRemoteSeats;
+        }
+
+        /**
+         * @return The number of moves sent.
+         */
+        public long getMoves() {
+            return moves;
+        }
+
+        /**
+         * @return The number of connections lost to errors.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return The time from opening the connections until the last one closed.
+         */
+        public double getSeconds() {
+            return seconds;
+        }
+
+        /**
+         * @return The mean time from a move to the next turn, in microseconds.
+         */
+        public double getMeanLatencyMicros() {
+            return latencyCount == 0 ? 0 : latencyTotal / 1000.0 / latencyCount;
+        }
+
+        /**
+         * @return A bound that the given share of the times from a move to the next turn stay
+         * below, in microseconds, rounded up to a power of two.
+         */
+        public long getLatencyBoundMicros(double share) {
+            long wanted = (long) Math.ceil(share * latencyCount);
+            long seen = 0;
+            for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+                seen += latencies[bucket];
+                if (seen >= wanted) {
+                    return 1L << bucket;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d connections, %d finished, %d errors%n"
+                            + "%d games and %d moves in %.2f s (%.0f games/s, %.0f moves/s)%n"
+                            + "Move to next turn: mean %.0f us, p50 < %d us, p99 < %d us%n",
+                    connections, finishedSeats, errors, getGames(), moves, seconds, getGames() / seconds,
+                    moves / seconds, getMeanLatencyMicros(), getLatencyBoundMicros(0.5), getLatencyBoundMicros(0.99));
+        }
+    }
+}
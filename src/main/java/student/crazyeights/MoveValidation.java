@@ -0,0 +1,84 @@
+package student.crazyeights;
+
+/**
+ * Whether a move may be made, and if not, why. Every check is a mask or table lookup, so moves
+ * can be checked on every turn of every game at no noticeable cost.
+ */
+public enum MoveValidation {
+    /**
+     * The move may be made.
+     */
+    LEGAL("The move is legal."),
+    /**
+     * The player neither drew nor played a card.
+     */
+    NO_CARD("No card was played."),
+    /**
+     * The player played a card it does not hold.
+     */
+    CARD_NOT_HELD("The card is not in the hand."),
+    /**
+     * The card does not match the top card or the declared suit, and is not an eight.
+     */
+    CARD_NOT_PLAYABLE("The card cannot be played on the top card."),
+    /**
+     * The player played an eight without declaring a suit.
+     */
+    NO_SUIT_DECLARED("An eight was played without declaring a suit."),
+    /**
+     * The player drew from an empty draw pile.
+     */
+    DRAW_PILE_EMPTY("There is no card left to draw.");
+
+    private final String message;
+
+    MoveValidation(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Checks a move against the table.
+     *
+     * @param hand          The player's hand, as a {@link CardMask}
+     * @param topCard       The top card of the discard pile
+     * @param declaredSuit  The suit in force after an eight, or null
+     * @param drawPileSize  The number of cards left to draw
+     * @param drawsACard    True if the player draws
+     * @param played        The card the player plays, if it does not draw
+     * @param declares      The suit the player declares, if it plays an eight
+     * @return {@link #LEGAL}, or the first rule the move breaks.
+     */
+    public static MoveValidation check(long hand, Card topCard, Card.Suit declaredSuit, int drawPileSize,
+                                       boolean drawsACard, Card played, Card.Suit declares) {
+        if (drawsACard) {
+            return drawPileSize > 0 ? LEGAL : DRAW_PILE_EMPTY;
+        }
+        if (played == null) {
+            return NO_CARD;
+        }
+        if (!CardMask.contains(hand, played)) {
+            return CARD_NOT_HELD;
+        }
+        if (!PlayabilityTable.canPlay(played, topCard, declaredSuit)) {
+            return CARD_NOT_PLAYABLE;
+        }
+        if (declares == null && CardCollection.cardIsEight(played)) {
+            return NO_SUIT_DECLARED;
+        }
+        return LEGAL;
+    }
+
+    /**
+     * @return True for {@link #LEGAL}.
+     */
+    public boolean isLegal() {
+        return this == LEGAL;
+    }
+
+    /**
+     * @return What is wrong with the move, as a sentence.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
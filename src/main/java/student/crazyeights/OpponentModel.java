@@ -0,0 +1,140 @@
+package student.crazyeights;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the turn history says about each opponent's hand and habits, updated in constant time
+ * per {@link PlayerTurn}.
+ * <p>
+ * A player who draws is taken to have had no card other than an eight that it could play: no
+ * card of the declared suit, or else of the top card's suit or rank. Those cards become the
+ * opponent's void. The card it draws may be anything, and so may every card it draws later, so
+ * the void only holds for all but {@link #getUnknownCards} cards of its hand. The next draw
+ * replaces the void with a new one. Eights are never part of a void, as players may keep them
+ * back.
+ * <p>
+ * The suits every opponent declares are counted too. The counts start over with every game, like
+ * the voids, so that a game depends only on its own seed.
+ */
+public class OpponentModel {
+
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+
+    private final Map<Integer, Integer> seatOfOpponent = new HashMap<>();
+    private final long[] voids;
+    private final int[] unknownCards;
+    private final int[][] declarations;
+
+    private Card topCard;
+    private Card.Suit declaredSuit;
+
+    /**
+     * @param opponentIds The ids of the opponents to model
+     */
+    public OpponentModel(List<Integer> opponentIds) {
+        for (int opponentId : opponentIds) {
+            seatOfOpponent.put(opponentId, seatOfOpponent.size());
+        }
+        this.voids = new long[seatOfOpponent.size()];
+        this.unknownCards = new int[seatOfOpponent.size()];
+        this.declarations = new int[seatOfOpponent.size()][SUITS.length];
+    }
+
+    /**
+     * Forgets the voids and declared suits of the last game.
+     */
+    public void reset() {
+        for (int seat = 0; seat < voids.length; seat++) {
+            voids[seat] = CardMask.EMPTY;
+            unknownCards[seat] = 0;
+            Arrays.fill(declarations[seat], 0);
+        }
+        topCard = null;
+        declaredSuit = null;
+    }
+
+    /**
+     * Updates the model with one turn of any player, the initial top card included.
+     */
+    public void observe(PlayerTurn turn) {
+        Integer seat = seatOfOpponent.get(turn.getPlayerId());
+        if (turn.isDrewACard()) {
+            if (seat != null && topCard != null) {
+                voids[seat] = PlayabilityTable.playableNotEights(topCard, declaredSuit);
+                unknownCards[seat] = 1;
+            }
+            return;
+        }
+
+        Card played = turn.getPlayedCard();
+        if (seat != null) {
+            // A card from the void must be one of the unknown ones.
+            if (CardMask.contains(voids[seat], played) && unknownCards[seat] > 0) {
+                unknownCards[seat]--;
+            }
+            if (turn.getDeclaredSuit() != null) {
+                declarations[seat][turn.getDeclaredSuit().ordinal()]++;
+            }
+        }
+        topCard = played;
+        declaredSuit = turn.getDeclaredSuit();
+    }
+
+    /**
+     * @return The cards the opponent is believed not to hold, apart from its unknown cards, or
+     * an empty mask for an unknown player.
+     */
+    public long getVoid(int opponentId) {
+        Integer seat = seatOfOpponent.get(opponentId);
+        return seat == null ? CardMask.EMPTY : voids[seat];
+    }
+
+    /**
+     * @return The number of the opponent's cards that may be in its void: the cards it drew
+     * since the void was inferred and has not played yet.
+     */
+    public int getUnknownCards(int opponentId) {
+        Integer seat = seatOfOpponent.get(opponentId);
+        return seat == null ? 0 : unknownCards[seat];
+    }
+
+    /**
+     * @return True if the opponent is believed to hold no card of the suit other than eights,
+     * not even among its unknown cards.
+     */
+    public boolean isVoidIn(int opponentId, Card.Suit suit) {
+        long suitCards = CardMask.ofSuit(CardMask.FULL_DECK, suit) & ~CardMask.EIGHTS;
+        return getUnknownCards(opponentId) == 0 && (getVoid(opponentId) & suitCards) == suitCards;
+    }
+
+    /**
+     * @return How often the opponent declared the suit.
+     */
+    public int getDeclarations(int opponentId, Card.Suit suit) {
+        Integer seat = seatOfOpponent.get(opponentId);
+        return seat == null ? 0 : declarations[seat][suit.ordinal()];
+    }
+
+    /**
+     * @return The suit the opponent declared most often (the first one on a tie), or null if it
+     * never declared one.
+     */
+    public Card.Suit getFavoriteSuit(int opponentId) {
+        Integer seat = seatOfOpponent.get(opponentId);
+        if (seat == null) {
+            return null;
+        }
+        Card.Suit favorite = null;
+        int most = 0;
+        for (Card.Suit suit : SUITS) {
+            if (declarations[seat][suit.ordinal()] > most) {
+                most = declarations[seat][suit.ordinal()];
+                favorite = suit;
+            }
+        }
+        return favorite;
+    }
+}
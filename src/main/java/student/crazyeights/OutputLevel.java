@@ -0,0 +1,23 @@
+package student.crazyeights;
+
+/**
+ * How much a {@link ConsoleUI} prints. Every level prints everything the levels before it print.
+ */
+public enum OutputLevel {
+    /**
+     * Nothing but the questions the user has to answer.
+     */
+    SILENT,
+    /**
+     * The announcements, scores and winners of games and tournaments.
+     */
+    RESULTS,
+    /**
+     * What every player did on every turn.
+     */
+    TURNS,
+    /**
+     * The state of the table before every turn and everything the bots type.
+     */
+    VERBOSE
+}
@@ -0,0 +1,231 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Searches for {@link AiParameters} that beat the default ones, with a (1 + lambda) evolution
+ * strategy.
+ * <p>
+ * Every generation mutates the current parameters into a few offspring and plays each of them,
+ * and the current parameters too, against the default {@link PlayerAI} in the other seats. All of
+ * them play the same deals from every seat (common random numbers), so the differences between
+ * them are down to the parameters rather than the cards. An offspring that wins more often than
+ * its parent replaces it, and the mutation step grows after a success and shrinks otherwise (the
+ * one-fifth rule). The winner is finally measured again on deals the search never saw, as the
+ * best of many noisy measurements looks better than it is.
+ * <p>
+ * The games of a generation are split into fixed chunks and played on every core, and the results
+ * are the same whatever the number of threads.
+ */
+public class ParameterTuner {
+
+    public static final int DEFAULT_OFFSPRING = 7;
+
+    private static final String CANDIDATE = "candidate";
+    private static final String REFERENCE = "reference";
+    private static final int DEALS_PER_CHUNK = 64;
+    private static final double INITIAL_STEP = 0.15;
+    private static final double MIN_STEP = 0.02;
+    private static final double MAX_STEP = 0.5;
+    private static final double STEP_GROWTH = 1.5;
+    private static final long VALIDATION = -1;
+
+    private final int numOfPlayers;
+    private final int numOfDeals;
+    private final int offspring;
+    private final long masterSeed;
+    private final int parallelism;
+
+    /**
+     * @param numOfPlayers The number of players at every table
+     * @param numOfDeals   The deals every candidate plays per generation, once from every seat
+     * @param offspring    The candidates mutated from the current parameters per generation
+     * @param masterSeed   The seed the deals and the mutations are derived from
+     * @param parallelism  The number of threads to play on
+     */
+    public ParameterTuner(int numOfPlayers, int numOfDeals, int offspring, long masterSeed, int parallelism) {
+        if (numOfPlayers > 7 || numOfPlayers < 2) {
+            throw new IllegalArgumentException(ConsoleUI.NUMBER_OF_PLAYER_FAIL);
+        }
+        if (numOfDeals < 1 || offspring < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Deals, offspring and parallelism must be at least 1.");
+        }
+        this.numOfPlayers = numOfPlayers;
+        this.numOfDeals = numOfDeals;
+        this.offspring = offspring;
+        this.masterSeed = masterSeed;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Tunes with {@link #DEFAULT_OFFSPRING} offspring per generation on every available core.
+     */
+    public ParameterTuner(int numOfPlayers, int numOfDeals, long masterSeed) {
+        this(numOfPlayers, numOfDeals, DEFAULT_OFFSPRING, masterSeed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Searches from the default parameters.
+     *
+     * @param generations The number of generations
+     * @return The best parameters found and their win rate on fresh deals
+     */
+    public Result tune(int generations) {
+        return tune(AiParameters.DEFAULT, generations);
+    }
+
+    /**
+     * Searches from the given parameters.
+     *
+     * @param start       The parameters to start from
+     * @param generations The number of generations
+     * @return The best parameters found and their win rate on fresh deals
+     */
+    public Result tune(AiParameters start, int generations) {
+        Random random = new Random(masterSeed);
+        AiParameters current = start;
+        double step = INITIAL_STEP;
+        AiParameters[] candidates = new AiParameters[offspring + 1];
+
+        for (int generation = 0; generation < generations; generation++) {
+            candidates[0] = current;
+            for (int i = 1; i < candidates.length; i++) {
+                candidates[i] = mutate(current, step, random);
+            }
+            StatsAggregator.Stats[] stats = evaluate(candidates, EightsUtils.deriveSeed(masterSeed, generation));
+
+            int best = 0;
+            for (int i = 1; i < candidates.length; i++) {
+                if (stats[i].getWinRate() > stats[best].getWinRate()) {
+                    best = i;
+                }
+            }
+            current = candidates[best];
+            step = best > 0 ? Math.min(MAX_STEP, step * STEP_GROWTH)
+                    : Math.max(MIN_STEP, step / Math.pow(STEP_GROWTH, 0.25));
+        }
+
+        StatsAggregator.Stats stats = evaluate(new AiParameters[] {current},
+                EightsUtils.deriveSeed(masterSeed, VALIDATION))[0];
+        return new Result(current, stats, numOfPlayers);
+    }
+
+    /**
+     * Plays every candidate against the default parameters on the same deals.
+     *
+     * @param candidates The parameters to measure
+     * @param dealSeed   The seed the deals are derived from
+     * @return The statistics of candidate i, over all its seats, at index i
+     */
+    StatsAggregator.Stats[] evaluate(AiParameters[] candidates, long dealSeed) {
+        int numOfChunks = (numOfDeals + DEALS_PER_CHUNK - 1) / DEALS_PER_CHUNK;
+        StatsAggregator[] chunks = new StatsAggregator[candidates.length * numOfChunks];
+        SimulationRunner.runInParallel(parallelism, chunks.length, task -> {
+            AiParameters candidate = candidates[task / numOfChunks];
+            int chunk = task % numOfChunks;
+            StrategyRegistry registry = new StrategyRegistry();
+            registry.register(CANDIDATE, () -> new PlayerAI(candidate));
+            registry.register(REFERENCE, () -> new PlayerAI(AiParameters.DEFAULT));
+            GameTable[] tables = new GameTable[numOfPlayers];
+            for (int seat = 0; seat < numOfPlayers; seat++) {
+                tables[seat] = new GameTable(registry, seating(seat));
+            }
+
+            StatsAggregator stats = new StatsAggregator();
+            int end = Math.min(numOfDeals, (chunk + 1) * DEALS_PER_CHUNK);
+            for (int deal = chunk * DEALS_PER_CHUNK; deal < end; deal++) {
+                long seed = EightsUtils.deriveSeed(dealSeed, deal);
+                for (GameTable table : tables) {
+                    stats.add(table.play(seed));
+                }
+            }
+            chunks[task] = stats;
+        });
+
+        StatsAggregator.Stats[] stats = new StatsAggregator.Stats[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            StatsAggregator total = new StatsAggregator();
+            for (int chunk = 0; chunk < numOfChunks; chunk++) {
+                total.merge(chunks[i * numOfChunks + chunk]);
+            }
+            stats[i] = total.getStrategyStats(CANDIDATE);
+        }
+        return stats;
+    }
+
+    /**
+     * @return The candidate in the given seat and the default AI in the others.
+     */
+    private List<String> seating(int candidateSeat) {
+        List<String> seating = new ArrayList<>(Collections.nCopies(numOfPlayers, REFERENCE));
+        seating.set(candidateSeat, CANDIDATE);
+        return seating;
+    }
+
+    /**
+     * Adds a normal step of the given share of its range to every parameter, and makes sure at
+     * least one of them changes.
+     */
+    static AiParameters mutate(AiParameters parent, double step, Random random) {
+        int[] values = parent.toArray();
+        int[] mutated = new int[values.length];
+        boolean changed = false;
+        while (!changed) {
+            for (int i = 0; i < values.length; i++) {
+                int range = AiParameters.getMax(i) - AiParameters.getMin(i);
+                mutated[i] = values[i] + (int) Math.round(random.nextGaussian() * step * range);
+                mutated[i] = Math.max(AiParameters.getMin(i), Math.min(AiParameters.getMax(i), mutated[i]));
+                changed |= mutated[i] != values[i];
+            }
+        }
+        return new AiParameters(mutated);
+    }
+
+    /**
+     * The outcome of a search: the parameters and how they fared on fresh deals.
+     */
+    public static final class Result {
+        private final AiParameters parameters;
+        private final StatsAggregator.Stats stats;
+        private final int numOfPlayers;
+
+        private Result(AiParameters parameters, StatsAggregator.Stats stats, int numOfPlayers) {
+            this.parameters = parameters;
+            this.stats = stats;
+            this.numOfPlayers = numOfPlayers;
+        }
+
+        /**
+         * @return The best parameters found.
+         */
+        public AiParameters getParameters() {
+            return parameters;
+        }
+
+        /**
+         * @return The share of games the parameters won against the default ones, which is one in
+         * the number of players for parameters no better than the default.
+         */
+        public double getWinRate() {
+            return stats.getWinRate();
+        }
+
+        /**
+         * @return The statistics of the validation games, over all the seats of the parameters.
+         */
+        public StatsAggregator.Stats getStats() {
+            return stats;
+        }
+
+        @Override
+        public String toString() {
+            double[] interval = stats.getWinRateInterval(StatsAggregator.Z_95);
+            return String.format("%s%nWon %.2f%% [%.2f%%, %.2f%%] of %d games against %d default AI (even: %.2f%%)%n",
+                    parameters, 100 * stats.getWinRate(), 100 * interval[0], 100 * interval[1], stats.getCount(),
+                    numOfPlayers - 1, 100.0 / numOfPlayers);
+        }
+    }
+}
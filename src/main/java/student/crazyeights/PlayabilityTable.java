@@ -0,0 +1,72 @@
+package student.crazyeights;
+
+/**
+ * Which cards may be played on which, looked up instead of compared suit by suit.
+ * <p>
+ * For every top card, and every suit an eight may have declared, the table holds the mask of the
+ * cards other than eights that may be played; eights may always be played. The cards of a hand
+ * that may be played are then {@code hand & playable(top, declaredSuit)}.
+ */
+public final class PlayabilityTable {
+
+    /**
+     * The declared suit index meaning that no suit was declared.
+     */
+    public static final int NO_DECLARED_SUIT = -1;
+
+    private static final int COLUMNS = Card.Suit.values().length + 1;
+    private static final long[] NOT_EIGHTS = new long[Card.DECK_SIZE * COLUMNS];
+
+    static {
+        for (Card top : Card.getDeck()) {
+            int row = top.getId() * COLUMNS;
+            for (Card.Suit suit : Card.Suit.values()) {
+                NOT_EIGHTS[row + suit.ordinal()] = CardMask.suitMask(suit) & ~CardMask.EIGHTS;
+            }
+            NOT_EIGHTS[row + COLUMNS - 1] = (CardMask.suitMask(top.getSuit()) | CardMask.rankMask(top.getRank()))
+                    & ~CardMask.EIGHTS;
+        }
+    }
+
+    private PlayabilityTable() {
+    }
+
+    /**
+     * @param topCardId    The id of the top card of the discard pile
+     * @param declaredSuit The ordinal of the declared suit, or {@link #NO_DECLARED_SUIT}
+     * @return The cards other than eights that may be played.
+     */
+    public static long playableNotEights(int topCardId, int declaredSuit) {
+        return NOT_EIGHTS[topCardId * COLUMNS + (declaredSuit < 0 ? COLUMNS - 1 : declaredSuit)];
+    }
+
+    /**
+     * @param topCard      The top card of the discard pile
+     * @param declaredSuit The declared suit, or null
+     * @return The cards other than eights that may be played.
+     */
+    public static long playableNotEights(Card topCard, Card.Suit declaredSuit) {
+        return playableNotEights(topCard.getId(), declaredSuit == null ? NO_DECLARED_SUIT : declaredSuit.ordinal());
+    }
+
+    /**
+     * @return Every card that may be played, eights included.
+     */
+    public static long playable(int topCardId, int declaredSuit) {
+        return playableNotEights(topCardId, declaredSuit) | CardMask.EIGHTS;
+    }
+
+    /**
+     * @return Every card that may be played, eights included.
+     */
+    public static long playable(Card topCard, Card.Suit declaredSuit) {
+        return playableNotEights(topCard, declaredSuit) | CardMask.EIGHTS;
+    }
+
+    /**
+     * @return True if the card may be played on the top card.
+     */
+    public static boolean canPlay(Card card, Card topCard, Card.Suit declaredSuit) {
+        return CardMask.contains(playable(topCard, declaredSuit), card);
+    }
+}
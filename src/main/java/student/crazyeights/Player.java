@@ -1,8 +1,10 @@
 package student.crazyeights;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.RandomAccess;
 
 public class Player {
 
@@ -12,14 +14,28 @@ public class Player {
     private Random random;
     private CardCollection hand;
     private List<Integer> score;
+    private int historyCursor;
+    private final HistoryWindow newTurns = new HistoryWindow();
 
-    private PlayerAI ai;
+    private PlayerStrategy ai;
 
 
     /**
      * Creates a new player with an empty hand and an empty history.
+     * Every move the player makes is echoed to the console and read back by the game.
      */
     Player(ConsoleUI ui, Random random) {
+        this(ui, random, new PlayerAI());
+    }
+
+    /**
+     * Creates a new player that is played by the given strategy.
+     *
+     * @param ui       The console the player echoes its moves to, or null for a headless player
+     * @param random   Instance of Random passed from main()
+     * @param strategy The strategy that makes the player's decisions
+     */
+    Player(ConsoleUI ui, Random random, PlayerStrategy strategy) {
 
         this.ui = ui;
 
@@ -27,42 +43,89 @@ public class Player {
 
         this.score = new ArrayList<>();
 
-        this.ai = new PlayerAI();
-        ai.setUI(ui);
+        this.ai = strategy;
 
-        this.id = hashCode();
+    }
 
+    /**
+     * Creates a new headless player: its moves are handed straight to the game without any text.
+     */
+    Player(Random random) {
+        this(null, random);
+    }
+
+    /**
+     * Creates a new headless player that is played by the given strategy.
+     */
+    Player(Random random, PlayerStrategy strategy) {
+        this(null, random, strategy);
     }
 
+    /**
+     * Takes the player's seat at the table and tells the AI who it plays against. A player's id is
+     * its seat, so ids run from 0 to the number of players - 1.
+     *
+     * @param players Every player, in seat order
+     */
     public void pingAiInit(List<Player> players) {
 
+        this.id = players.indexOf(this);
+
         List<Integer> opponentIds = new ArrayList<>();
-        for (Player p : players) {
-            opponentIds.add(p.getId());
+        for (int seat = 0; seat < players.size(); seat++) {
+            if (seat != id) {
+                opponentIds.add(seat);
+            }
         }
-        opponentIds.remove((Integer) id);
 
         ai.init(this.id, opponentIds);
 
     }
 
-    public void pingAiGameHistory(List<PlayerTurn> gameHistory) {
-        ai.setGameHistory(gameHistory);
+    /**
+     * Gives the AI the turns that were added to the game history since it last saw it,
+     * its own last turn included.
+     *
+     * @param gameHistory The read-only, append-only history of the current game
+     */
+    public void pingAiOpponentActions(List<PlayerTurn> gameHistory) {
+        int historySize = gameHistory.size();
+        if (historyCursor < historySize) {
+            ai.processOpponentActions(newTurns.show(gameHistory, historyCursor, historySize));
+            historyCursor = historySize;
+        }
     }
 
     public Card.Suit pingAiDeclareSuit() {
-        return ai.declareSuit();
+        Card.Suit declaredSuit = ai.declareSuit();
+        if (!isHeadless()) {
+            ui.simulateInput(declaredSuit.toString());
+        }
+        return declaredSuit;
     }
 
     public Card pingAiPlayCard() {
-        return ai.playCard();
+        Card played = ai.playCard();
+        if (!isHeadless()) {
+            ui.simulateInput(played.toString());
+        }
+        return played;
     }
 
+    /**
+     * Takes a played card out of the hand, in constant time.
+     *
+     * @throws IllegalStateException If the hand does not hold the card, which
+     *                               {@link Game#validateMove} rules out first
+     */
     public void cardIsPlayed(Card played) {
-        hand.removeCard(played);
+        if (!hand.removeCard(played)) {
+            throw new IllegalStateException(name + " does not hold the " + played + ".");
+        }
     }
 
     public void pingAiDrawCard(Card drawedCard) {
+        hand.addCard(drawedCard);
         ai.receiveCard(drawedCard);
     }
 
@@ -74,9 +137,24 @@ public class Player {
         ai.receiveInitialCards(hand.getCards());
     }
 
-    public void pingAiForName() {
-        ai.setRandom(random);
-        ai.declareName();
+    /**
+     * Picks a bot name. Console players also type the name into the console.
+     *
+     * @return The name chosen for the player
+     */
+    public String pingAiForName() {
+        String name = EightsUtils.generateBotNames(random);
+        if (!isHeadless()) {
+            ui.simulateInput(name);
+        }
+        return name;
+    }
+
+    /**
+     * @return True if the player talks to the game directly instead of through the console.
+     */
+    public boolean isHeadless() {
+        return ui == null;
     }
 
     public void createEmptyHand() {
@@ -101,12 +179,19 @@ public class Player {
     }
 
     /**
-     * Gets the ID (hashcode) of the player.
+     * Gets the ID of the player, which is its seat at the table.
      */
     public int getId() {
         return id;
     }
 
+    /**
+     * Gets the strategy that makes the player's decisions.
+     */
+    public PlayerStrategy getStrategy() {
+        return ai;
+    }
+
     /**
      * Gets the player's hand.
      */
@@ -123,11 +208,41 @@ public class Player {
 
     /**
      * Called before a game begins, to allow for resetting any state between games.
+     * The hand is emptied in place.
      */
     public void reset() {
-        String handLabel = hand.getLabel();
-        this.hand = new CardCollection(handLabel);
+        hand.clear();
+        this.historyCursor = 0;
         ai.reset();
     }
-}
 
+    /**
+     * A read-only view of part of the game history, reused every turn instead of a new subList.
+     * Like the history itself, it is only valid during the call it is handed to.
+     */
+    private static final class HistoryWindow extends AbstractList<PlayerTurn> implements RandomAccess {
+        private List<PlayerTurn> history;
+        private int from;
+        private int size;
+
+        HistoryWindow show(List<PlayerTurn> history, int from, int to) {
+            this.history = history;
+            this.from = from;
+            this.size = to - from;
+            return this;
+        }
+
+        @Override
+        public PlayerTurn get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return history.get(from + index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
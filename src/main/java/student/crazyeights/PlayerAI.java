@@ -1,30 +1,87 @@
 package student.crazyeights;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class PlayerAI implements PlayerStrategy {
 
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    private static final Comparator<Card> BY_VALUE_DESCENDING =
+            Comparator.comparing(Card::getPointValue).reversed();
 
     private int id;
-    private String name;
-    private ConsoleUI ui;
-    private Random random;
 
     private List<Integer> opponentIds;
-    private List<PlayerTurn> gameHistory;
+    private final List<PlayerTurn> gameHistory = new ArrayList<>();
 
-    private List<Card> availableCards;
-    private List<Card> playableCardsNotEight;
+    private final List<Card> availableCards = new ArrayList<>();
+    private long availableMask;
+    private final List<Card> playableCardsNotEight = new ArrayList<>();
+    private long playableMaskNotEight;
 
-    private List<Card> sortedPlayableCardsByValue;
-    private List<Card> sortedPlayableCardsByCommonality;
+    // Buffers reused from turn to turn and game to game.
+    private final List<Card> sortedPlayableCardsByValue = new ArrayList<>();
+    private final List<Card> sortedPlayableCardsByCommonality = new ArrayList<>();
+    private final int[] commonalities = new int[Card.DECK_SIZE];
+    private final Card[] commonCards = new Card[Card.DECK_SIZE];
 
     private int noOfEightCards;
-    private List<Card.Suit> mostCommonSuit;
+    private final List<Card.Suit> mostCommonSuit = new ArrayList<>(SUITS.length);
+    private final int[] suitCounts = new int[SUITS.length];
+    private final double[] suitOdds = new double[SUITS.length];
+    private Card.Suit nextPlayersFavoriteSuit;
+    private final Comparator<Card.Suit> bySuitCount = (first, second) -> {
+        int byCount = Integer.compare(suitCounts[second.ordinal()], suitCounts[first.ordinal()]);
+        if (byCount != 0) {
+            return byCount;
+        }
+        if ((first == nextPlayersFavoriteSuit) != (second == nextPlayersFavoriteSuit)) {
+            return first == nextPlayersFavoriteSuit ? 1 : -1;
+        }
+        int byOdds = Double.compare(suitOdds[first.ordinal()], suitOdds[second.ordinal()]);
+        return byOdds != 0 ? byOdds : Integer.compare(second.ordinal(), first.ordinal());
+    };
+
+    private final AiParameters parameters;
+    private final int eightHandSize;
+    private final int eightDrawPileSize;
+    private final int eightOpponentHandSize;
+    private final int valueCandidates;
+    private final int commonalityCandidates;
+    private final int positionWeight;
+    private final int suitWeight;
+    private final int rankWeight;
+
+    private UnseenCardTracker unseenCards;
+    private CardCountTracker cardCounts;
 
-    private Map<Integer, Integer> cardsLeftInOpponentHands = new HashMap<>();
-    private int cardsLeftInDrawPile;
+    /**
+     * Plays by {@link AiParameters#DEFAULT}.
+     */
+    public PlayerAI() {
+        this(AiParameters.DEFAULT);
+    }
+
+    /**
+     * @param parameters The thresholds and weights to play by
+     */
+    public PlayerAI(AiParameters parameters) {
+        this.parameters = parameters;
+        this.eightHandSize = parameters.get(AiParameters.EIGHT_HAND_SIZE);
+        this.eightDrawPileSize = parameters.get(AiParameters.EIGHT_DRAW_PILE_SIZE);
+        this.eightOpponentHandSize = parameters.get(AiParameters.EIGHT_OPPONENT_HAND_SIZE);
+        this.valueCandidates = parameters.get(AiParameters.VALUE_CANDIDATES);
+        this.commonalityCandidates = parameters.get(AiParameters.COMMONALITY_CANDIDATES);
+        this.positionWeight = parameters.get(AiParameters.POSITION_WEIGHT);
+        this.suitWeight = parameters.get(AiParameters.SUIT_WEIGHT);
+        this.rankWeight = parameters.get(AiParameters.RANK_WEIGHT);
+    }
+
+    /**
+     * @return The thresholds and weights the player plays by.
+     */
+    public AiParameters getParameters() {
+        return parameters;
+    }
 
     /**
      * Gives the player their assigned id, as well as a list of the opponents' assigned ids.
@@ -39,9 +96,8 @@ public class PlayerAI implements PlayerStrategy {
     public void init(int playerId, List<Integer> opponentIds) {
         this.id = playerId;
         this.opponentIds = opponentIds;
-        for (int opponentId : opponentIds) {
-            cardsLeftInOpponentHands.put(opponentId, 0);
-        }
+        this.unseenCards = new UnseenCardTracker(playerId, opponentIds);
+        this.cardCounts = unseenCards.getCardCounts();
     }
 
     /**
@@ -51,7 +107,13 @@ public class PlayerAI implements PlayerStrategy {
      */
     @Override
     public void receiveInitialCards(List<Card> cards) {
-        this.availableCards = cards;
+        // Added one by one: addAll would copy the cards into a new array first.
+        this.availableCards.clear();
+        for (int i = 0; i < cards.size(); i++) {
+            this.availableCards.add(cards.get(i));
+        }
+        this.availableMask = CardMask.of(cards);
+        unseenCards.setHand(availableMask);
     }
 
     /**
@@ -62,6 +124,8 @@ public class PlayerAI implements PlayerStrategy {
     @Override
     public void receiveCard(Card drawnCard) {
         this.availableCards.add(drawnCard);
+        this.availableMask = CardMask.add(availableMask, drawnCard);
+        unseenCards.addToHand(drawnCard);
     }
 
     /**
@@ -82,6 +146,23 @@ public class PlayerAI implements PlayerStrategy {
 
         filterPlayableCards();
 
+        return decideToDraw(topPileCard, changedSuit);
+
+    }
+
+    /**
+     * Decides whether to draw, by the heuristics: play an eight when it is urgent, otherwise
+     * draw only if no other card can be played.
+     * <p>
+     * Subclasses can take over the turn here, e.g. by searching the position, and then hand
+     * over the card they picked in {@link #chooseCard()}.
+     *
+     * @param topPileCard The card currently at the top of the pile
+     * @param changedSuit The declared suit, or null
+     * @return whether or not the player wants to draw
+     */
+    protected boolean decideToDraw(Card topPileCard, Card.Suit changedSuit) {
+
         if (shouldPlayEightCard()) {
             return false;
         }
@@ -101,11 +182,11 @@ public class PlayerAI implements PlayerStrategy {
     @Override
     public Card playCard() {
 
-        Card cardChosen = suggestCard();
-
-        ui.simulateInput(cardChosen.toString());
+        Card cardChosen = chooseCard();
 
         availableCards.remove(cardChosen);
+        availableMask = CardMask.remove(availableMask, cardChosen);
+        unseenCards.removeFromHand(cardChosen);
 
         return cardChosen;
 
@@ -125,7 +206,7 @@ public class PlayerAI implements PlayerStrategy {
 
         Card.Suit suitToDeclare;
 
-        for (int i = gameHistory.size() - 1; i > gameHistory.size() - 4; i--) {
+        for (int i = gameHistory.size() - 1; i > gameHistory.size() - 4 && i >= 0; i--) {
 
             PlayerTurn opponentTurn = gameHistory.get(i);
             int opponentId = opponentTurn.getPlayerId();
@@ -135,17 +216,15 @@ public class PlayerAI implements PlayerStrategy {
 
             Card.Suit opponentDeclaredSuit = opponentTurn.getDeclaredSuit();
 
-            if (opponentDeclaredSuit != null && cardsLeftInOpponentHands.get(opponentId) == 1
+            if (opponentDeclaredSuit != null && cardCounts.getHandSize(opponentId) == 1
                     && (opponentDeclaredSuit == mostCommonSuit.get(0))) {
                 suitToDeclare = mostCommonSuit.get(1);
-                ui.simulateInput(suitToDeclare.toString());
                 return suitToDeclare;
             }
 
         }
 
         suitToDeclare = mostCommonSuit.get(0);
-        ui.simulateInput(suitToDeclare.toString());
         return suitToDeclare;
 
     }
@@ -153,28 +232,29 @@ public class PlayerAI implements PlayerStrategy {
     /**
      * Called at the very beginning of this player's turn to give it context of what its opponents
      * chose to do on each of their turns.
+     * <p>
+     * Holds every turn since this player's last turn, including that turn, so appending them
+     * keeps a full copy of the game history.
      *
      * @param opponentActions A list of what the opponents did on each of their turns
      */
     @Override
-    public void processOpponentActions(List<PlayerTurn> opponentActions) throws UnsupportedOperationException {
+    public void processOpponentActions(List<PlayerTurn> opponentActions) {
+        for (int i = 0; i < opponentActions.size(); i++) {
+            gameHistory.add(opponentActions.get(i));
+        }
+        unseenCards.observeAll(opponentActions);
     }
 
     private boolean shouldPlayEightCard() {
 
-        calculateCardsLeft();
-
         if (noOfEightCards > 0) {
 
-            if (availableCards.size() == 2 || cardsLeftInDrawPile < 2) {
+            if (availableCards.size() == eightHandSize || cardCounts.getDrawPileSize() < eightDrawPileSize) {
                 return true;
             }
 
-            for (int noOfCardsInOpponentHand : cardsLeftInOpponentHands.keySet()) {
-                if (noOfCardsInOpponentHand == 1) {
-                    return true;
-                }
-            }
+            return cardCounts.getSmallestHandSizeExcept(id) == eightOpponentHandSize;
 
         }
 
@@ -184,28 +264,95 @@ public class PlayerAI implements PlayerStrategy {
 
     private void sortCardsByCommonality() {
 
-        Map<Integer, Card> sortedMap = new TreeMap<>(Comparator.reverseOrder());
-        List<Card> playableCardsRest = new ArrayList<>();
-        for (Card c1 : playableCardsNotEight) {
-            int commonality = 0;
-            playableCardsRest.addAll(playableCardsNotEight);
-            playableCardsRest.remove(c1);
-            for (Card c2 : playableCardsRest) {
-                if (c1.getRank() == c2.getRank()
-                        && c1.getSuit() == c2.getSuit()) {
-                    commonality += 2;
-                } else if (canPlayCard(c1, c2, null)) {
-                    commonality += 1;
-                }
+        // Cards with the same commonality share one entry, which keeps the last of them.
+        int entries = 0;
+        long playableMask = playableMaskNotEight;
+        long before = CardMask.EMPTY;
+        for (int k = 0; k < playableCardsNotEight.size(); k++) {
+            Card c1 = playableCardsNotEight.get(k);
+            long bit = CardMask.bit(c1);
+            // The other playable cards c1 could follow: same suit or same rank.
+            long related = PlayabilityTable.playableNotEights(c1, null) & playableMask & ~bit;
+            long sameSuit = CardMask.ofSuit(related, c1.getSuit());
+            long sameRank = related & ~sameSuit;
+            // The k-th card scores the position weight for each of k copies of itself, and the
+            // suit or rank weight for every related card, counted k times if it comes before it
+            // in the hand and k + 1 times if it comes after.
+            int commonality = positionWeight * k + suitWeight * countRelated(sameSuit, before, k)
+                    + rankWeight * countRelated(sameRank, before, k);
+            int entry = 0;
+            while (entry < entries && commonalities[entry] != commonality) {
+                entry++;
             }
-            sortedMap.put(commonality, c1);
+            if (entry == entries) {
+                commonalities[entries++] = commonality;
+            }
+            commonCards[entry] = c1;
+            before |= bit;
+        }
+
+        // Highest commonality first, by insertion sort: there are only a handful of entries.
+        for (int i = 1; i < entries; i++) {
+            int commonality = commonalities[i];
+            Card card = commonCards[i];
+            int j = i - 1;
+            while (j >= 0 && commonalities[j] < commonality) {
+                commonalities[j + 1] = commonalities[j];
+                commonCards[j + 1] = commonCards[j];
+                j--;
+            }
+            commonalities[j + 1] = commonality;
+            commonCards[j + 1] = card;
+        }
+
+        sortedPlayableCardsByCommonality.clear();
+        for (int i = 0; i < entries; i++) {
+            sortedPlayableCardsByCommonality.add(commonCards[i]);
+            commonCards[i] = null;
         }
 
-        sortedPlayableCardsByCommonality = new ArrayList<>(sortedMap.values());
+    }
+
+    /**
+     * Picks the card to play, by the heuristics unless a subclass decides otherwise. The card is
+     * removed from the hand afterwards.
+     */
+    protected Card chooseCard() {
+        return suggestCard();
+    }
+
+    /**
+     * @return The id this player was given.
+     */
+    protected int getId() {
+        return id;
+    }
+
+    /**
+     * @return The ids of the opponents.
+     */
+    protected List<Integer> getOpponentIds() {
+        return opponentIds;
+    }
+
+    /**
+     * @return The hand sizes and draw pile size as this player has counted them.
+     */
+    protected CardCountTracker getCardCounts() {
+        return cardCounts;
+    }
 
+    /**
+     * @return What this player knows about the cards it has not seen.
+     */
+    protected UnseenCardTracker getUnseenCards() {
+        return unseenCards;
     }
 
-    private Card suggestCard() {
+    /**
+     * Picks the card to play without removing it from the hand.
+     */
+    Card suggestCard() {
 
         if (shouldPlayEightCard()) {
             for (Card c : availableCards) {
@@ -215,20 +362,28 @@ public class PlayerAI implements PlayerStrategy {
             }
         }
 
-        sortCardsByCommonality();
         sortCardsByValue();
 
-        if (playableCardsNotEight.size() <= 2) {
+        // The next player can then only follow with the same rank or an eight.
+        Card leavesAVoid = highestCardOfNextPlayersVoid();
+        if (leavesAVoid != null) {
+            return leavesAVoid;
+        }
+
+        sortCardsByCommonality();
+
+        if (playableCardsNotEight.size() < valueCandidates) {
             return sortedPlayableCardsByValue.get(0);
         }
 
-        sortedPlayableCardsByValue = sortedPlayableCardsByValue.subList(0, 3);
-        sortedPlayableCardsByCommonality = sortedPlayableCardsByCommonality.subList(0, 3);
+        // Cards with equal commonality share one entry, so there may be fewer than asked for.
+        int mostCommon = Math.min(commonalityCandidates, sortedPlayableCardsByCommonality.size());
         Card currentHighestValueCard;
 
-        for (int i = 0; i <= 3; i++) {
+        for (int i = 0; i < valueCandidates; i++) {
             currentHighestValueCard = sortedPlayableCardsByValue.get(i);
-            if (sortedPlayableCardsByCommonality.contains(currentHighestValueCard)) {
+            int commonRank = sortedPlayableCardsByCommonality.indexOf(currentHighestValueCard);
+            if (commonRank >= 0 && commonRank < mostCommon) {
                 return currentHighestValueCard;
             }
         }
@@ -237,54 +392,66 @@ public class PlayerAI implements PlayerStrategy {
 
     }
 
+    /**
+     * @return The most valuable playable card, other than an eight, of a suit the next player is
+     * known to hold no card of, or null if there is none.
+     */
+    private Card highestCardOfNextPlayersVoid() {
+        int nextPlayer = nextPlayer();
+        OpponentModel opponents = unseenCards.getOpponentModel();
+        for (int i = 0; i < sortedPlayableCardsByValue.size(); i++) {
+            Card card = sortedPlayableCardsByValue.get(i);
+            if (opponents.isVoidIn(nextPlayer, card.getSuit())) {
+                return card;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The id of the player after this one: the next seat, if the ids are seats.
+     */
+    private int nextPlayer() {
+        return (id + 1) % (opponentIds.size() + 1);
+    }
+
     private void findMostCommonSuit() {
 
-        int diamonds = 0;
-        int hearts = 0;
-        int spades = 0;
-        int clubs = 0;
-
-        for (Card c : availableCards) {
-            switch (c.getSuit()) {
-                case DIAMONDS:
-                    diamonds += 1;
-                    break;
-                case HEARTS:
-                    hearts += 1;
-                    break;
-                case SPADES:
-                    spades += 1;
-                    break;
-                case CLUBS:
-                    clubs += 1;
-                    break;
-                default:
-                    break;
-            }
+        int nextPlayer = nextPlayer();
+        boolean knowsNextPlayer = opponentIds.contains(nextPlayer);
+        for (Card.Suit suit : SUITS) {
+            suitCounts[suit.ordinal()] = CardMask.count(CardMask.ofSuit(availableMask, suit));
+            suitOdds[suit.ordinal()] = knowsNextPlayer ? unseenCards.probabilityOfSuit(nextPlayer, suit) : 0;
         }
+        nextPlayersFavoriteSuit = knowsNextPlayer ? unseenCards.getOpponentModel().getFavoriteSuit(nextPlayer) : null;
 
-        Map<Integer, Card.Suit> sortedMap = new TreeMap<>(Comparator.reverseOrder());
-        sortedMap.put(diamonds, Card.Suit.DIAMONDS);
-        sortedMap.put(hearts, Card.Suit.HEARTS);
-        sortedMap.put(spades, Card.Suit.SPADES);
-        sortedMap.put(clubs, Card.Suit.CLUBS);
+        // Most cards first. Every suit stays in the list, and on a tie a suit the next player has
+        // not declared most often comes first, then the one it is least likely to follow, and
+        // then the later suit.
+        mostCommonSuit.clear();
+        Collections.addAll(mostCommonSuit, SUITS);
+        mostCommonSuit.sort(bySuitCount);
 
-        mostCommonSuit = new ArrayList<>(sortedMap.values());
+    }
 
+    private static int countRelated(long related, long before, int k) {
+        return k * CardMask.count(related & before) + (k + 1) * CardMask.count(related & ~before);
     }
 
     private void sortCardsByValue() {
 
-        sortedPlayableCardsByValue = playableCardsNotEight;
-        sortedPlayableCardsByValue = sortedPlayableCardsByValue.stream()
-                .sorted(Comparator.comparing(Card::getPointValue).reversed())
-                .collect(Collectors.toList());
+        // A stable sort, so cards of equal value stay in hand order.
+        sortedPlayableCardsByValue.clear();
+        for (int i = 0; i < playableCardsNotEight.size(); i++) {
+            sortedPlayableCardsByValue.add(playableCardsNotEight.get(i));
+        }
+        sortedPlayableCardsByValue.sort(BY_VALUE_DESCENDING);
 
     }
 
     private void filterPlayableCards() {
 
-        playableCardsNotEight = new ArrayList<>();
+        playableCardsNotEight.clear();
         noOfEightCards = 0;
 
         Card topPileCard = null;
@@ -302,82 +469,29 @@ public class PlayerAI implements PlayerStrategy {
             }
         }
 
-        for (Card avcard : availableCards) {
-            if (CardCollection.cardIsEight(avcard)) {
-                noOfEightCards += 1;
-            }
-            if (canPlayCard(avcard, topPileCard, changedSuit)) {
-                playableCardsNotEight.add(avcard);
-            }
-        }
+        noOfEightCards = CardMask.count(availableMask & CardMask.EIGHTS);
 
-    }
-
-    private boolean canPlayCard(Card cardToPlay, Card topPileCard, Card.Suit changedSuit) {
-        if (changedSuit != null) {
-            return !CardCollection.cardIsEight(cardToPlay) &&
-                    (cardToPlay.getSuit() == changedSuit);
-        }
-        return !CardCollection.cardIsEight(cardToPlay) &&
-                (cardToPlay.getSuit() == topPileCard.getSuit()
-                        || cardToPlay.getRank() == topPileCard.getRank());
-    }
-
-    private void calculateCardsLeft() {
-
-        // Calculates cards left in draw pile.
-        if (opponentIds.size() == 1) {
-            cardsLeftInDrawPile = 52 - 7 * 2;
-        } else {
-            cardsLeftInDrawPile = 52 - 5 * (opponentIds.size() + 1);
-        }
+        long playableMask = availableMask & PlayabilityTable.playableNotEights(topPileCard, changedSuit);
+        playableMaskNotEight = playableMask;
 
-        // Calculates cards left in opponents' hands.
-        int cardsLeftInHand;
-        for (PlayerTurn pt : gameHistory) {
-            for (int opponentId : opponentIds) {
-                if (pt.getPlayerId() == opponentId) {
-                    if (pt.isDrewACard()) {
-                        cardsLeftInDrawPile -= 1;
-                        cardsLeftInHand = cardsLeftInOpponentHands.get(opponentId) + 1;
-                    } else {
-                        cardsLeftInHand = cardsLeftInOpponentHands.get(opponentId) - 1;
-                    }
-                    cardsLeftInOpponentHands.replace(opponentId, cardsLeftInHand);
-                }
+        // Keeps the cards in hand order, which the sorting below relies on to break ties.
+        for (int i = 0; playableMask != CardMask.EMPTY && i < availableCards.size(); i++) {
+            Card avcard = availableCards.get(i);
+            if (CardMask.contains(playableMask, avcard)) {
+                playableCardsNotEight.add(avcard);
+                playableMask = CardMask.remove(playableMask, avcard);
             }
         }
 
     }
 
-    public void setGameHistory(List<PlayerTurn> gameHistory) {
-        this.gameHistory = new ArrayList<>();
-        this.gameHistory.addAll(gameHistory);
-    }
-
-    public void declareName() {
-        ui.simulateInput(generateName());
-    }
-
-    public String generateName() {
-        this.name = EightsUtils.generateBotNames(random);
-        return name;
-    }
-
-    public void setRandom(Random random) {
-        this.random = random;
-    }
-
-    public void setUI(ConsoleUI ui) {
-        this.ui = ui;
-    }
-
     /**
      * Called before a game begins, to allow for resetting any state between games.
      */
     @Override
     public void reset() {
-        this.gameHistory = new ArrayList<>();
+        gameHistory.clear();
+        unseenCards.reset();
     }
 
 }
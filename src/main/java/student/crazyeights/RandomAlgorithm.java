@@ -0,0 +1,41 @@
+package student.crazyeights;
+
+import java.util.Random;
+
+/**
+ * The random number generators a game can be played with.
+ */
+public enum RandomAlgorithm {
+    /**
+     * {@link Random}, which every recorded game so far was played with.
+     */
+    JDK {
+        @Override
+        public Random create(long seed) {
+            return new Random(seed);
+        }
+    },
+    /**
+     * {@link java.util.SplittableRandom}, through {@link SplittableRandomAdapter}.
+     */
+    SPLITTABLE {
+        @Override
+        public Random create(long seed) {
+            return new SplittableRandomAdapter(seed);
+        }
+    },
+    /**
+     * {@link Xoshiro256StarStar}.
+     */
+    XOSHIRO {
+        @Override
+        public Random create(long seed) {
+            return new Xoshiro256StarStar(seed);
+        }
+    };
+
+    /**
+     * @return A new generator of this kind.
+     */
+    public abstract Random create(long seed);
+}
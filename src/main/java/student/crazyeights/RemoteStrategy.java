@@ -0,0 +1,124 @@
+package student.crazyeights;
+
+import java.util.List;
+
+/**
+ * The seat of a remote player at a {@link ServerTable}. What the game tells the strategy is sent
+ * over the connection as {@link TableProtocol} messages; the moves come back asynchronously and
+ * are handed straight to the {@link Game}, so the decision callbacks are never called while the
+ * player is connected.
+ * <p>
+ * Once the connection is gone a {@link PlayerAI} takes over the seat. It is brought up to date
+ * with the current hand and every turn the remote player saw, and answers from then on.
+ */
+final class RemoteStrategy implements PlayerStrategy {
+
+    private final int tableNumber;
+    private LineConnection connection;
+
+    private int playerId;
+    private List<Integer> opponentIds;
+    private int turnsSeen;
+    private PlayerStrategy bot;
+
+    RemoteStrategy(int tableNumber, LineConnection connection) {
+        this.tableNumber = tableNumber;
+        this.connection = connection;
+    }
+
+    /**
+     * @return The connection, or null once the bot has taken over.
+     */
+    LineConnection getConnection() {
+        return connection;
+    }
+
+    boolean isConnected() {
+        return connection != null;
+    }
+
+    /**
+     * Lets a bot play the seat from now on.
+     *
+     * @param hand    The cards the player holds
+     * @param history Every turn of the game so far
+     */
+    void takeOver(List<Card> hand, List<PlayerTurn> history) {
+        connection = null;
+        bot = new PlayerAI();
+        bot.init(playerId, opponentIds);
+        bot.reset();
+        bot.receiveInitialCards(hand);
+        if (turnsSeen > 0) {
+            bot.processOpponentActions(history.subList(0, turnsSeen));
+        }
+    }
+
+    @Override
+    public void init(int playerId, List<Integer> opponentIds) {
+        this.playerId = playerId;
+        this.opponentIds = opponentIds;
+        send(TableProtocol.SEAT + ' ' + tableNumber + ' ' + playerId + ' ' + (opponentIds.size() + 1));
+    }
+
+    @Override
+    public void receiveInitialCards(List<Card> cards) {
+        if (bot != null) {
+            bot.receiveInitialCards(cards);
+        }
+        send(TableProtocol.cards(TableProtocol.HAND, cards));
+    }
+
+    @Override
+    public boolean shouldDrawCard(Card topPileCard, Card.Suit changedSuit) {
+        return remoteBot().shouldDrawCard(topPileCard, changedSuit);
+    }
+
+    @Override
+    public void receiveCard(Card drawnCard) {
+        if (bot != null) {
+            bot.receiveCard(drawnCard);
+        }
+        send(TableProtocol.CARD + ' ' + drawnCard.getId());
+    }
+
+    @Override
+    public Card playCard() {
+        return remoteBot().playCard();
+    }
+
+    @Override
+    public Card.Suit declareSuit() {
+        return remoteBot().declareSuit();
+    }
+
+    @Override
+    public void processOpponentActions(List<PlayerTurn> opponentActions) {
+        turnsSeen += opponentActions.size();
+        if (bot != null) {
+            bot.processOpponentActions(opponentActions);
+        }
+        send(TableProtocol.turns(opponentActions));
+    }
+
+    @Override
+    public void reset() {
+        turnsSeen = 0;
+        if (bot != null) {
+            bot.reset();
+        }
+    }
+
+    private PlayerStrategy remoteBot() {
+        if (bot == null) {
+            throw new IllegalStateException("The remote player decides its own moves.");
+        }
+        return bot;
+    }
+
+    private void send(String line) {
+        if (connection != null) {
+            connection.send(line);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One table of a {@link GameServer}: a match of several games between remote players and
+ * {@link PlayerAI} bots in the seats nobody joined.
+ * <p>
+ * The table never waits. It plays the bots' turns as soon as they come up and stops at the
+ * first turn of a connected remote player, which goes on when {@link #move} brings its answer.
+ * Games are played on a {@link GameTable}, one step at a time, so they follow the same rules
+ * and give the same results as headless games with the same seed. A table keeps nothing that
+ * grows from game to game. It is not thread-safe.
+ */
+final class ServerTable {
+
+    static final String REMOTE = "remote";
+
+    private final int number;
+    private final long seed;
+    private final int numOfPlayers;
+    private final int numOfGames;
+    private final int numOfRemoteSeats;
+    private final Consumer<GameResult> results;
+
+    private final List<LineConnection> joined = new ArrayList<>();
+    private final RemoteStrategy[] remotes;
+    private GameTable table;
+    private Game game;
+    private int gamesPlayed;
+    private boolean awaitingMove;
+    private boolean finished;
+
+    /**
+     * @param number           The number the table is known by
+     * @param seed             The seed the games' seeds are derived from
+     * @param numOfPlayers     The number of seats
+     * @param numOfGames       The number of games in the match
+     * @param numOfRemoteSeats The seats that wait for remote players; bots take the others
+     * @param results          Told the result of every game, or null
+     */
+    ServerTable(int number, long seed, int numOfPlayers, int numOfGames, int numOfRemoteSeats,
+                Consumer<GameResult> results) {
+        if (numOfPlayers > 7 || numOfPlayers < 2) {
+            throw new IllegalArgumentException(ConsoleUI.NUMBER_OF_PLAYER_FAIL);
+        }
+        if (numOfGames < 1 || numOfRemoteSeats < 1 || numOfRemoteSeats > numOfPlayers) {
+            throw new IllegalArgumentException("A table needs at least one game and 1 to "
+                    + numOfPlayers + " remote players.");
+        }
+        this.number = number;
+        this.seed = seed;
+        this.numOfPlayers = numOfPlayers;
+        this.numOfGames = numOfGames;
+        this.numOfRemoteSeats = numOfRemoteSeats;
+        this.results = results;
+        this.remotes = new RemoteStrategy[numOfRemoteSeats];
+    }
+
+    /**
+     * Seats a remote player, and starts the match once every remote seat is taken.
+     *
+     * @return The player's seat
+     */
+    int join(LineConnection connection) {
+        if (isFull()) {
+            throw new IllegalStateException("The table is full.");
+        }
+        joined.add(connection);
+        int seat = joined.size() - 1;
+        if (isFull()) {
+            start();
+        }
+        return seat;
+    }
+
+    boolean isFull() {
+        return joined.size() == numOfRemoteSeats;
+    }
+
+    boolean isStarted() {
+        return table != null;
+    }
+
+    /**
+     * @return True once every game is played, or every remote player has left.
+     */
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return The connections of the remote players still at the table.
+     */
+    List<LineConnection> getConnections() {
+        List<LineConnection> connections = new ArrayList<>(numOfRemoteSeats);
+        for (int seat = 0; seat < joined.size(); seat++) {
+            LineConnection connection = remotes[seat] == null ? joined.get(seat) : remotes[seat].getConnection();
+            if (connection != null) {
+                connections.add(connection);
+            }
+        }
+        return connections;
+    }
+
+    private void start() {
+        List<String> names = new ArrayList<>();
+        List<PlayerStrategy> strategies = new ArrayList<>();
+        for (int seat = 0; seat < numOfPlayers; seat++) {
+            LineConnection connection = seat < numOfRemoteSeats ? joined.get(seat) : null;
+            if (connection != null) {
+                remotes[seat] = new RemoteStrategy(number, connection);
+                names.add(REMOTE);
+                strategies.add(remotes[seat]);
+            } else {
+                names.add(StrategyRegistry.DEFAULT_STRATEGY);
+                strategies.add(new PlayerAI());
+            }
+        }
+        table = new GameTable(names, strategies);
+        advance();
+    }
+
+    /**
+     * Plays a remote player's move and goes on to the next remote turn.
+     *
+     * @param seat The player's seat
+     * @param move The move, as {@link TableProtocol} writes it
+     * @throws IllegalArgumentException If it is not the player's turn or the move is illegal; the
+     *                                  table still waits for a move
+     */
+    void move(int seat, int move) {
+        if (finished || !awaitingMove || game.getCurrentPlayer().getId() != seat) {
+            throw new IllegalArgumentException("It is not your turn.");
+        }
+        Card card = TableProtocol.cardOf(move);
+        Card.Suit declared = TableProtocol.declaredSuitOf(move);
+        MoveValidation validation = game.validateMove(card == null, card, declared);
+        if (!validation.isLegal()) {
+            throw new IllegalArgumentException(validation.getMessage());
+        }
+        awaitingMove = false;
+        game.finishTurn(card == null, card, declared);
+        advance();
+    }
+
+    /**
+     * Hands a remote player's seat to a bot, which plays for it if it is its turn. The match
+     * is given up once no remote player is left.
+     */
+    void leave(int seat) {
+        if (remotes[seat] == null) {
+            // The match has not started: a bot will be seated instead.
+            joined.set(seat, null);
+            return;
+        }
+        if (!remotes[seat].isConnected()) {
+            return;
+        }
+        Player player = table.getPlayers().get(seat);
+        remotes[seat].takeOver(player.getHand().getCards(), game == null ? new ArrayList<>() : game.getHistory());
+        if (getConnections().isEmpty()) {
+            finished = true;
+            return;
+        }
+        if (awaitingMove && game.getCurrentPlayer().getId() == seat) {
+            awaitingMove = false;
+            game.decideTurn();
+            advance();
+        }
+    }
+
+    /**
+     * Plays on until a connected remote player is to move or the match is over.
+     */
+    private void advance() {
+        while (!finished) {
+            if (game == null || game.isOver()) {
+                if (game != null) {
+                    endGame();
+                }
+                if (gamesPlayed == numOfGames || getConnections().isEmpty()) {
+                    sendToAll(TableProtocol.BYE);
+                    finished = true;
+                    return;
+                }
+                game = table.startGame(EightsUtils.deriveSeed(seed, gamesPlayed));
+            }
+
+            game.beginTurn();
+            int seat = game.getCurrentPlayer().getId();
+            if (seat < numOfRemoteSeats && remotes[seat] != null && remotes[seat].isConnected()) {
+                remotes[seat].getConnection().send(TableProtocol.turn(game.getTopPileCard(), game.getDeclaredSuit()));
+                awaitingMove = true;
+                return;
+            }
+            game.decideTurn();
+        }
+    }
+
+    private void endGame() {
+        gamesPlayed++;
+        GameResult result = table.getResult();
+        if (results != null) {
+            results.accept(result);
+        }
+        StringBuilder line = new StringBuilder(TableProtocol.END);
+        for (int score : result.getScores()) {
+            line.append(' ').append(score);
+        }
+        sendToAll(line.toString());
+    }
+
+    private void sendToAll(String line) {
+        for (LineConnection connection : getConnections()) {
+            connection.send(line);
+        }
+    }
+}
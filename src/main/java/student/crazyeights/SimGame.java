@@ -0,0 +1,206 @@
+package student.crazyeights;
+
+/**
+ * A compact, allocation-free model of one game, used by search strategies to play out
+ * positions thousands of times per second.
+ * <p>
+ * Hands are {@link CardMask}s, the draw pile is an array of card ids with its top at the end, and
+ * moves are ints: {@link #DRAW}, or a card id times four plus the declared suit's ordinal (zero
+ * for cards other than eights). It follows the same rules as {@link Game}: eights can always be
+ * played, other cards must match the declared suit or else the top card's suit or rank, and the
+ * game ends as soon as a hand or the draw pile is empty.
+ */
+final class SimGame {
+
+    static final int DRAW = -1;
+    static final int NO_SUIT = -1;
+
+    /**
+     * The largest number of moves one position can have: a draw, and every card of a hand with
+     * every eight four times over.
+     */
+    static final int MAX_MOVES = 1 + Card.DECK_SIZE + 3 * 4;
+
+    private static final int SUITS = Card.Suit.values().length;
+    private static final int[] POINT_VALUES = new int[Card.DECK_SIZE];
+
+    static {
+        for (Card card : Card.getDeck()) {
+            POINT_VALUES[card.getId()] = card.getPointValue();
+        }
+    }
+
+    private final int numOfSeats;
+    private final long[] hands;
+    private final int[] drawPile = new int[Card.DECK_SIZE];
+    private int drawPileSize;
+    private int topCard;
+    private int declaredSuit;
+    private int currentSeat;
+    private boolean over;
+
+    SimGame(int numOfSeats) {
+        this.numOfSeats = numOfSeats;
+        this.hands = new long[numOfSeats];
+    }
+
+    /**
+     * Sets up a position. Hands and the draw pile are filled in afterwards.
+     *
+     * @param topCard      The id of the top card of the discard pile
+     * @param declaredSuit The ordinal of the declared suit, or {@link #NO_SUIT}
+     * @param currentSeat  The seat that moves next
+     */
+    void setUp(int topCard, int declaredSuit, int currentSeat) {
+        this.topCard = topCard;
+        this.declaredSuit = declaredSuit;
+        this.currentSeat = currentSeat;
+        this.drawPileSize = 0;
+        for (int seat = 0; seat < numOfSeats; seat++) {
+            hands[seat] = CardMask.EMPTY;
+        }
+        this.over = false;
+    }
+
+    void setHand(int seat, long hand) {
+        hands[seat] = hand;
+    }
+
+    /**
+     * Puts a card on top of the draw pile.
+     */
+    void pushDrawPile(int cardId) {
+        drawPile[drawPileSize++] = cardId;
+    }
+
+    /**
+     * Checks whether the position is already over, once hands and the draw pile are filled in.
+     */
+    void checkOver() {
+        over = drawPileSize == 0;
+        for (int seat = 0; seat < numOfSeats; seat++) {
+            over |= hands[seat] == CardMask.EMPTY;
+        }
+    }
+
+    /**
+     * Makes this game an exact copy of another one with the same number of seats.
+     */
+    void copyFrom(SimGame other) {
+        System.arraycopy(other.hands, 0, hands, 0, numOfSeats);
+        System.arraycopy(other.drawPile, 0, drawPile, 0, other.drawPileSize);
+        drawPileSize = other.drawPileSize;
+        topCard = other.topCard;
+        declaredSuit = other.declaredSuit;
+        currentSeat = other.currentSeat;
+        over = other.over;
+    }
+
+    int getNumOfSeats() {
+        return numOfSeats;
+    }
+
+    int getCurrentSeat() {
+        return currentSeat;
+    }
+
+    long getHand(int seat) {
+        return hands[seat];
+    }
+
+    int getDrawPileSize() {
+        return drawPileSize;
+    }
+
+    int getTopCard() {
+        return topCard;
+    }
+
+    int getDeclaredSuit() {
+        return declaredSuit;
+    }
+
+    boolean isOver() {
+        return over;
+    }
+
+    /**
+     * @return The cards of the hand that may be played now, eights included.
+     */
+    long playableCards(long hand) {
+        return hand & PlayabilityTable.playable(topCard, declaredSuit);
+    }
+
+    /**
+     * Lists the moves of the current seat.
+     *
+     * @param moves Filled with the moves; needs room for {@link #MAX_MOVES}
+     * @return The number of moves
+     */
+    int legalMoves(int[] moves) {
+        int count = 0;
+        if (drawPileSize > 0) {
+            moves[count++] = DRAW;
+        }
+        for (long rest = playableCards(hands[currentSeat]); rest != 0; rest &= rest - 1) {
+            int cardId = Long.numberOfTrailingZeros(rest);
+            if ((CardMask.EIGHTS & (1L << cardId)) != 0) {
+                for (int suit = 0; suit < SUITS; suit++) {
+                    moves[count++] = cardId * SUITS + suit;
+                }
+            } else {
+                moves[count++] = cardId * SUITS;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Plays a move for the current seat and passes the turn on.
+     */
+    void apply(int move) {
+        int seat = currentSeat;
+        if (move == DRAW) {
+            hands[seat] |= 1L << drawPile[--drawPileSize];
+        } else {
+            int cardId = cardOf(move);
+            hands[seat] &= ~(1L << cardId);
+            topCard = cardId;
+            declaredSuit = (CardMask.EIGHTS & (1L << cardId)) != 0 ? move % SUITS : NO_SUIT;
+        }
+        over = drawPileSize == 0 || hands[seat] == CardMask.EMPTY;
+        currentSeat = seat + 1 == numOfSeats ? 0 : seat + 1;
+    }
+
+    /**
+     * @return The total point value of a seat's hand.
+     */
+    int handValue(int seat) {
+        int value = 0;
+        for (long rest = hands[seat]; rest != 0; rest &= rest - 1) {
+            value += POINT_VALUES[Long.numberOfTrailingZeros(rest)];
+        }
+        return value;
+    }
+
+    /**
+     * @return The card id a move plays.
+     */
+    static int cardOf(int move) {
+        return move / SUITS;
+    }
+
+    /**
+     * @return The suit a move declares, meaningful only when it plays an eight.
+     */
+    static int suitOf(int move) {
+        return move % SUITS;
+    }
+
+    /**
+     * @return The move that plays a card, declaring a suit if it is an eight.
+     */
+    static int playMove(int cardId, int declaredSuit) {
+        return cardId * SUITS + (declaredSuit == NO_SUIT ? 0 : declaredSuit);
+    }
+}
@@ -0,0 +1,339 @@
+package student.crazyeights;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Plays many independent headless games or tournaments across a fork-join pool.
+ * <p>
+ * Game (or tournament) i always gets the random stream derived from the master seed and i,
+ * so the results are the same whatever the number of threads. The stream comes from the
+ * runner's {@link RandomAlgorithm}, {@link Random} unless another one is given.
+ */
+public class SimulationRunner {
+
+    private static final StrategyRegistry DEFAULT_REGISTRY = new StrategyRegistry();
+    private static final int LOG_BATCH_SIZE = 4096;
+    static final int STATS_CHUNK_SIZE = 256;
+    private static final int TABLE_CHUNK_SIZE = 256;
+
+    private final long masterSeed;
+    private final int parallelism;
+    private final RandomAlgorithm algorithm;
+
+    /**
+     * @param masterSeed  The seed every game's random stream is derived from
+     * @param parallelism The number of threads to play on
+     */
+    public SimulationRunner(long masterSeed, int parallelism) {
+        this(masterSeed, parallelism, RandomAlgorithm.JDK);
+    }
+
+    /**
+     * @param masterSeed  The seed every game's random stream is derived from
+     * @param parallelism The number of threads to play on
+     * @param algorithm   The random number generator every game is played with
+     */
+    public SimulationRunner(long masterSeed, int parallelism, RandomAlgorithm algorithm) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.masterSeed = masterSeed;
+        this.parallelism = parallelism;
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Uses every available core.
+     */
+    public SimulationRunner(long masterSeed) {
+        this(masterSeed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Plays independent single games of the default strategy. Games are split into fixed chunks,
+     * each played on one reused {@link GameTable}; the results are the same as with freshly
+     * created players.
+     *
+     * @param numOfGames   The number of games
+     * @param numOfPlayers The number of players in every game
+     * @return The result of game i at index i
+     */
+    public GameResult[] runGames(int numOfGames, int numOfPlayers) {
+        List<String> seats = Collections.nCopies(numOfPlayers, StrategyRegistry.DEFAULT_STRATEGY);
+        GameResult[] results = new GameResult[numOfGames];
+        int numOfChunks = (numOfGames + TABLE_CHUNK_SIZE - 1) / TABLE_CHUNK_SIZE;
+        runInParallel(numOfChunks, chunk -> {
+            GameTable table = new GameTable(DEFAULT_REGISTRY, seats, algorithm);
+            int end = Math.min(numOfGames, (chunk + 1) * TABLE_CHUNK_SIZE);
+            for (int i = chunk * TABLE_CHUNK_SIZE; i < end; i++) {
+                results[i] = table.play(EightsUtils.deriveSeed(masterSeed, i));
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Plays independent single games between the given strategies.
+     *
+     * @param numOfGames The number of games
+     * @param registry   Where the strategies are looked up
+     * @param seating    The strategy names of game i, in seat order
+     * @return The result of game i at index i
+     */
+    public GameResult[] runGames(int numOfGames, StrategyRegistry registry, IntFunction<List<String>> seating) {
+        GameResult[] results = new GameResult[numOfGames];
+        runInParallel(numOfGames, i ->
+                results[i] = playGame(EightsUtils.deriveSeed(masterSeed, i), registry, seating.apply(i), algorithm,
+                        null));
+        return results;
+    }
+
+    /**
+     * Plays independent single games between the given strategies and only keeps their totals
+     * per strategy. Games are split into fixed chunks, each played on one reused
+     * {@link GameTable} per seating, and the chunks are merged in order, so the report does not
+     * depend on the number of threads.
+     *
+     * @param numOfGames The number of games
+     * @param registry   Where the strategies are looked up
+     * @param seating    The strategy names of game i, in seat order
+     * @return The totals of all the games
+     */
+    public ArenaReport reportGames(int numOfGames, StrategyRegistry registry, IntFunction<List<String>> seating) {
+        int numOfChunks = (numOfGames + TABLE_CHUNK_SIZE - 1) / TABLE_CHUNK_SIZE;
+        ArenaReport[] chunks = new ArenaReport[numOfChunks];
+        runInParallel(numOfChunks, chunk -> {
+            ArenaReport report = new ArenaReport();
+            Map<List<String>, GameTable> tables = new HashMap<>();
+            int end = Math.min(numOfGames, (chunk + 1) * TABLE_CHUNK_SIZE);
+            for (int i = chunk * TABLE_CHUNK_SIZE; i < end; i++) {
+                GameTable table = tables.computeIfAbsent(seating.apply(i),
+                        seats -> new GameTable(registry, seats, algorithm));
+                report.add(table.play(EightsUtils.deriveSeed(masterSeed, i)));
+            }
+            chunks[chunk] = report;
+        });
+        ArenaReport total = new ArenaReport();
+        for (ArenaReport chunk : chunks) {
+            total.merge(chunk);
+        }
+        return total;
+    }
+
+    /**
+     * Plays independent single games between the given strategies and only keeps their
+     * statistics. Games are split into fixed chunks, each summed up on one thread, and the chunks
+     * are merged in order, so the numbers do not depend on the number of threads.
+     *
+     * @param numOfGames The number of games
+     * @param registry   Where the strategies are looked up
+     * @param seating    The strategy names of game i, in seat order
+     * @return The statistics of all the games
+     */
+    public StatsAggregator aggregateGames(int numOfGames, StrategyRegistry registry,
+                                          IntFunction<List<String>> seating) {
+        StatsAggregator total = new StatsAggregator();
+        aggregateGames(0, numOfGames, registry, seating, total);
+        return total;
+    }
+
+    /**
+     * Plays games firstGame to endGame - 1 like {@link #aggregateGames(int, StrategyRegistry,
+     * IntFunction)} and adds their statistics to the total. As the chunks are the same, a run
+     * split into parts at multiples of {@link #STATS_CHUNK_SIZE} gives the same numbers as one run.
+     *
+     * @throws IllegalArgumentException If firstGame is not at the start of a chunk
+     */
+    void aggregateGames(int firstGame, int endGame, StrategyRegistry registry, IntFunction<List<String>> seating,
+                        StatsAggregator total) {
+        if (firstGame % STATS_CHUNK_SIZE != 0) {
+            throw new IllegalArgumentException("Games must be added a whole chunk at a time.");
+        }
+        int firstChunk = firstGame / STATS_CHUNK_SIZE;
+        int numOfChunks = Math.max(0, (endGame - firstGame + STATS_CHUNK_SIZE - 1) / STATS_CHUNK_SIZE);
+        StatsAggregator[] chunks = new StatsAggregator[numOfChunks];
+        runInParallel(numOfChunks, chunk -> {
+            StatsAggregator stats = new StatsAggregator();
+            int end = Math.min(endGame, (firstChunk + chunk + 1) * STATS_CHUNK_SIZE);
+            for (int i = (firstChunk + chunk) * STATS_CHUNK_SIZE; i < end; i++) {
+                stats.add(playGame(EightsUtils.deriveSeed(masterSeed, i), registry, seating.apply(i), algorithm, null));
+            }
+            chunks[chunk] = stats;
+        });
+
+        for (StatsAggregator chunk : chunks) {
+            total.merge(chunk);
+        }
+    }
+
+    /**
+     * Plays independent single games between the given strategies and records every decision.
+     *
+     * @param numOfGames The number of games
+     * @param registry   Where the strategies are looked up
+     * @param seating    The strategy names of game i, in seat order
+     * @return The record of game i at index i
+     */
+    public GameRecord[] recordGames(int numOfGames, StrategyRegistry registry, IntFunction<List<String>> seating) {
+        GameRecord[] records = new GameRecord[numOfGames];
+        runInParallel(numOfGames, i ->
+                records[i] = recordGame(EightsUtils.deriveSeed(masterSeed, i), registry, seating.apply(i), algorithm));
+        return records;
+    }
+
+    /**
+     * Plays independent single games between the given strategies and streams them into a log,
+     * in game order. Games are played in batches, so only one batch is held in memory.
+     *
+     * @param numOfGames The number of games
+     * @param registry   Where the strategies are looked up
+     * @param seating    The strategy names of game i, in seat order
+     * @param log        Where the games are written
+     */
+    public void logGames(int numOfGames, StrategyRegistry registry, IntFunction<List<String>> seating,
+                         GameLogWriter log) throws IOException {
+        int batchSize = Math.min(numOfGames, LOG_BATCH_SIZE);
+        GameResult[] results = new GameResult[batchSize];
+        GameLogWriter.Turns[] turns = new GameLogWriter.Turns[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            turns[i] = new GameLogWriter.Turns();
+        }
+        for (int first = 0; first < numOfGames; first += batchSize) {
+            int start = first;
+            int count = Math.min(batchSize, numOfGames - first);
+            runInParallel(count, i -> {
+                turns[i].clear();
+                results[i] = playGame(EightsUtils.deriveSeed(masterSeed, start + i), registry,
+                        seating.apply(start + i), algorithm, turns[i]);
+            });
+            for (int i = 0; i < count; i++) {
+                log.write(results[i], algorithm, turns[i]);
+            }
+        }
+    }
+
+    /**
+     * Plays independent headless tournaments.
+     *
+     * @param numOfTournaments The number of tournaments
+     * @param numOfPlayers     The number of players in every tournament
+     * @return The final score of every seat of tournament i at index i
+     */
+    public long[][] runTournaments(int numOfTournaments, int numOfPlayers) {
+        long[][] results = new long[numOfTournaments][];
+        runInParallel(numOfTournaments, i -> {
+            Tournament tournament = new Tournament(algorithm.create(EightsUtils.deriveSeed(masterSeed, i)),
+                    numOfPlayers);
+            tournament.setRandomAlgorithm(algorithm);
+            tournament.startTournament();
+            results[i] = tournament.getTournamentScore();
+        });
+        return results;
+    }
+
+    /**
+     * Plays one headless game with new players, using only the given seed.
+     *
+     * @param seed         The seed of the game
+     * @param numOfPlayers The number of players
+     * @return The result of the game
+     */
+    static GameResult playGame(long seed, int numOfPlayers) {
+        List<String> seats = Collections.nCopies(numOfPlayers, StrategyRegistry.DEFAULT_STRATEGY);
+        return playGame(seed, DEFAULT_REGISTRY, seats);
+    }
+
+    /**
+     * Plays one headless game between new instances of the given strategies.
+     *
+     * @param seed       The seed of the game
+     * @param registry   Where the strategies are looked up
+     * @param strategies The strategy names, in seat order
+     * @return The result of the game
+     */
+    static GameResult playGame(long seed, StrategyRegistry registry, List<String> strategies) {
+        return playGame(seed, registry, strategies, RandomAlgorithm.JDK, null);
+    }
+
+    /**
+     * Plays one headless game like {@link #playGame(long, StrategyRegistry, List)} and records
+     * every decision.
+     */
+    static GameRecord recordGame(long seed, StrategyRegistry registry, List<String> strategies) {
+        return recordGame(seed, registry, strategies, RandomAlgorithm.JDK);
+    }
+
+    /**
+     * Plays one headless game with the given random number generator and records every decision.
+     */
+    static GameRecord recordGame(long seed, StrategyRegistry registry, List<String> strategies,
+                                 RandomAlgorithm algorithm) {
+        DecisionRecorder recorder = new DecisionRecorder();
+        GameResult result = playGame(seed, registry, strategies, algorithm, recorder);
+        return new GameRecord(result, algorithm, recorder.getDecisions());
+    }
+
+    /**
+     * Plays one headless game with the given random number generator, telling the listener (if
+     * any) about every turn.
+     */
+    static GameResult playGame(long seed, StrategyRegistry registry, List<String> strategies,
+                               RandomAlgorithm algorithm, TurnListener turnListener) {
+        return new GameTable(registry, strategies, algorithm).play(seed, turnListener);
+    }
+
+    /**
+     * Runs task(0) to task(count - 1) on a pool of this runner's size and waits for all of them.
+     */
+    private void runInParallel(int count, IntConsumer task) {
+        runInParallel(parallelism, count, task);
+    }
+
+    /**
+     * Runs task(0) to task(count - 1) on a pool of the given size and waits for all of them.
+     */
+    static void runInParallel(int parallelism, int count, IntConsumer task) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Collects the decisions of a game in a growing array.
+     */
+    private static final class DecisionRecorder implements TurnListener {
+        private int[] decisions = new int[64];
+        private int count;
+
+        @Override
+        public void turnPlayed(int seat, PlayerTurn turn) {
+            if (count == decisions.length) {
+                decisions = Arrays.copyOf(decisions, count * 2);
+            }
+            decisions[count++] = GameRecord.encode(turn);
+        }
+
+        int[] getDecisions() {
+            return Arrays.copyOf(decisions, count);
+        }
+    }
+}
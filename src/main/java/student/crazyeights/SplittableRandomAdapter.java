@@ -0,0 +1,51 @@
+package student.crazyeights;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * A {@link Random} that draws its numbers from a {@link SplittableRandom}, so the faster,
+ * unsynchronized generator can be used anywhere the game takes a Random. It is not thread-safe.
+ */
+public final class SplittableRandomAdapter extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private SplittableRandom random;
+
+    public SplittableRandomAdapter(long seed) {
+        // Random's constructor seeds this generator through setSeed.
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        // Also called by Random's constructor, before this class's fields are set.
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (random.nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+}
@@ -0,0 +1,366 @@
+package student.crazyeights;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Running statistics of finished games, per strategy and per seat, in constant memory.
+ * <p>
+ * Each {@link Stats} keeps its win rate, the mean and variance of its score (Welford's method),
+ * a histogram of game lengths and how the games ended. Aggregates filled on different threads
+ * are combined with {@link #merge}; merging them in a fixed order gives the same numbers however
+ * the games were spread over the threads.
+ */
+public class StatsAggregator {
+
+    /**
+     * The normal quantile of a two-sided 95% confidence interval.
+     */
+    public static final double Z_95 = 1.959963984540054;
+
+    /**
+     * Every turn moves a card into or out of a hand, so no game is longer than this.
+     */
+    public static final int MAX_TURNS = 2 * Card.DECK_SIZE;
+
+    private static final GameResult.Ending[] ENDINGS = GameResult.Ending.values();
+
+    private static final int MAX_SEATS = 7;
+
+    private final Map<String, Stats> byStrategy = new TreeMap<>();
+    private final Stats[] bySeat = new Stats[MAX_SEATS];
+    private final Stats games = new Stats();
+
+    public StatsAggregator() {
+        for (int seat = 0; seat < MAX_SEATS; seat++) {
+            bySeat[seat] = new Stats();
+        }
+    }
+
+    /**
+     * Adds one finished game.
+     */
+    public void add(GameResult result) {
+        double winShare = 1.0 / result.getNumberOfWinners();
+        int turns = result.getNumberOfTurns();
+        GameResult.Ending ending = result.getEnding();
+        for (int seat = 0; seat < result.getNumberOfSeats(); seat++) {
+            double win = result.isWinner(seat) ? winShare : 0;
+            int score = result.getScore(seat);
+            byStrategy.computeIfAbsent(result.getStrategy(seat), name -> new Stats())
+                    .add(score, win, turns, ending);
+            bySeat[seat].add(score, win, turns, ending);
+        }
+        games.add(0, 0, turns, ending);
+    }
+
+    /**
+     * Adds everything another aggregate has seen to this one.
+     */
+    public void merge(StatsAggregator other) {
+        for (Map.Entry<String, Stats> entry : other.byStrategy.entrySet()) {
+            byStrategy.computeIfAbsent(entry.getKey(), name -> new Stats()).merge(entry.getValue());
+        }
+        for (int seat = 0; seat < MAX_SEATS; seat++) {
+            bySeat[seat].merge(other.bySeat[seat]);
+        }
+        games.merge(other.games);
+    }
+
+    /**
+     * Writes everything the aggregate has seen, exactly, for {@link #readFrom}.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(byStrategy.size());
+        for (Map.Entry<String, Stats> entry : byStrategy.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+        for (int seat = 0; seat < MAX_SEATS; seat++) {
+            bySeat[seat].writeTo(out);
+        }
+        games.writeTo(out);
+    }
+
+    /**
+     * @return An aggregate that goes on exactly as the one that was written.
+     */
+    static StatsAggregator readFrom(DataInput in) throws IOException {
+        StatsAggregator stats = new StatsAggregator();
+        int numOfStrategies = in.readInt();
+        for (int i = 0; i < numOfStrategies; i++) {
+            Stats strategy = new Stats();
+            stats.byStrategy.put(in.readUTF(), strategy);
+            strategy.readFrom(in);
+        }
+        for (int seat = 0; seat < MAX_SEATS; seat++) {
+            stats.bySeat[seat].readFrom(in);
+        }
+        stats.games.readFrom(in);
+        return stats;
+    }
+
+    /**
+     * @return The number of games added.
+     */
+    public long getNumberOfGames() {
+        return games.count;
+    }
+
+    /**
+     * @return The statistics of every game, of which only the lengths and endings are meaningful.
+     */
+    public Stats getGameStats() {
+        return games;
+    }
+
+    /**
+     * @return The names of the strategies seen, in alphabetical order.
+     */
+    public Set<String> getStrategies() {
+        return Collections.unmodifiableSet(byStrategy.keySet());
+    }
+
+    /**
+     * @return The statistics of one strategy, counting once per seat it took.
+     */
+    public Stats getStrategyStats(String strategy) {
+        Stats stats = byStrategy.get(strategy);
+        if (stats == null) {
+            throw new IllegalArgumentException("No games for strategy " + strategy);
+        }
+        return stats;
+    }
+
+    /**
+     * @return The statistics of one seat, whoever sat in it.
+     */
+    public Stats getSeatStats(int seat) {
+        return bySeat[seat];
+    }
+
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%d games, %.2f turns on average, %.2f%% ended with an empty hand",
+                games.count, games.getMeanLength(), 100 * games.getEmptyHandRate()));
+        long illegalMoves = games.getEndingCount(GameResult.Ending.ILLEGAL_MOVE);
+        if (illegalMoves > 0) {
+            report.append(String.format(", %d with an illegal move", illegalMoves));
+        }
+        report.append(String.format("%n"));
+        report.append(String.format("%-30s %10s %19s %19s %10s%n", "Strategy / seat", "Seats",
+                "Win rate (95%)", "Score (95%)", "Score sd"));
+        for (Map.Entry<String, Stats> entry : byStrategy.entrySet()) {
+            appendRow(report, entry.getKey(), entry.getValue());
+        }
+        for (int seat = 0; seat < MAX_SEATS; seat++) {
+            if (bySeat[seat].count > 0) {
+                appendRow(report, "seat " + seat, bySeat[seat]);
+            }
+        }
+        return report.toString();
+    }
+
+    private static void appendRow(StringBuilder report, String name, Stats stats) {
+        double[] winRate = stats.getWinRateInterval(Z_95);
+        double[] score = stats.getScoreInterval(Z_95);
+        report.append(String.format("%-30s %10d %5.1f%% (%4.1f-%4.1f) %6.2f (%5.2f-%5.2f) %10.2f%n", name,
+                stats.count, 100 * stats.getWinRate(), 100 * winRate[0], 100 * winRate[1],
+                stats.getMeanScore(), score[0], score[1], Math.sqrt(stats.getScoreVariance())));
+    }
+
+    /**
+     * The statistics of one strategy or one seat.
+     */
+    public static final class Stats {
+        private long count;
+        private double wins;
+        private double meanScore;
+        private double squaredDeviations;
+        private final long[] lengths = new long[MAX_TURNS + 1];
+        private final long[] endings = new long[ENDINGS.length];
+
+        private Stats() {
+        }
+
+        private void add(int score, double win, int turns, GameResult.Ending ending) {
+            count++;
+            wins += win;
+            double delta = score - meanScore;
+            meanScore += delta / count;
+            squaredDeviations += delta * (score - meanScore);
+            lengths[Math.min(turns, MAX_TURNS)]++;
+            endings[ending.ordinal()]++;
+        }
+
+        /**
+         * Combines two sets of statistics with Chan et al.'s pairwise update.
+         */
+        private void merge(Stats other) {
+            if (other.count == 0) {
+                return;
+            }
+            long total = count + other.count;
+            double delta = other.meanScore - meanScore;
+            meanScore += delta * other.count / total;
+            squaredDeviations += other.squaredDeviations + delta * delta * count * other.count / total;
+            count = total;
+            wins += other.wins;
+            for (int turns = 0; turns <= MAX_TURNS; turns++) {
+                lengths[turns] += other.lengths[turns];
+            }
+            for (int ending = 0; ending < ENDINGS.length; ending++) {
+                endings[ending] += other.endings[ending];
+            }
+        }
+
+        /**
+         * Writes the statistics, with the game lengths cut off after the longest game.
+         */
+        private void writeTo(DataOutput out) throws IOException {
+            out.writeLong(count);
+            out.writeDouble(wins);
+            out.writeDouble(meanScore);
+            out.writeDouble(squaredDeviations);
+            out.writeByte(ENDINGS.length);
+            for (long ending : endings) {
+                out.writeLong(ending);
+            }
+            int longest = MAX_TURNS;
+            while (longest >= 0 && lengths[longest] == 0) {
+                longest--;
+            }
+            out.writeShort(longest + 1);
+            for (int turns = 0; turns <= longest; turns++) {
+                out.writeLong(lengths[turns]);
+            }
+        }
+
+        private void readFrom(DataInput in) throws IOException {
+            count = in.readLong();
+            wins = in.readDouble();
+            meanScore = in.readDouble();
+            squaredDeviations = in.readDouble();
+            if (in.readUnsignedByte() != ENDINGS.length) {
+                throw new IOException("Unknown game endings.");
+            }
+            for (int ending = 0; ending < ENDINGS.length; ending++) {
+                endings[ending] = in.readLong();
+            }
+            int numOfLengths = in.readShort();
+            if (numOfLengths < 0 || numOfLengths > MAX_TURNS + 1) {
+                throw new IOException("Game lengths out of range: " + numOfLengths);
+            }
+            for (int turns = 0; turns < numOfLengths; turns++) {
+                lengths[turns] = in.readLong();
+            }
+        }
+
+        /**
+         * @return The number of games (or seats) counted.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return The share of games won, with a tie counting as an equal share of a win.
+         */
+        public double getWinRate() {
+            return count == 0 ? 0 : wins / count;
+        }
+
+        /**
+         * Gets the Wilson score interval of the win rate.
+         *
+         * @param z The normal quantile of the confidence level, e.g. {@link #Z_95}
+         * @return The lower and upper bound.
+         */
+        public double[] getWinRateInterval(double z) {
+            if (count == 0) {
+                return new double[] {0, 1};
+            }
+            double p = getWinRate();
+            double z2 = z * z;
+            double center = (p + z2 / (2 * count)) / (1 + z2 / count);
+            double margin = z / (1 + z2 / count) * Math.sqrt(p * (1 - p) / count + z2 / (4.0 * count * count));
+            return new double[] {Math.max(0, center - margin), Math.min(1, center + margin)};
+        }
+
+        /**
+         * @return The mean score.
+         */
+        public double getMeanScore() {
+            return meanScore;
+        }
+
+        /**
+         * @return The sample variance of the score.
+         */
+        public double getScoreVariance() {
+            return count < 2 ? 0 : squaredDeviations / (count - 1);
+        }
+
+        /**
+         * Gets the normal-approximation interval of the mean score.
+         *
+         * @param z The normal quantile of the confidence level, e.g. {@link #Z_95}
+         * @return The lower and upper bound.
+         */
+        public double[] getScoreInterval(double z) {
+            double margin = count == 0 ? 0 : z * Math.sqrt(getScoreVariance() / count);
+            return new double[] {meanScore - margin, meanScore + margin};
+        }
+
+        /**
+         * @return The number of games that lasted the given number of turns.
+         */
+        public long getLengthCount(int turns) {
+            return turns < 0 || turns > MAX_TURNS ? 0 : lengths[turns];
+        }
+
+        /**
+         * @return The mean number of turns per game.
+         */
+        public double getMeanLength() {
+            long totalTurns = 0;
+            for (int turns = 0; turns <= MAX_TURNS; turns++) {
+                totalTurns += turns * lengths[turns];
+            }
+            return count == 0 ? 0 : (double) totalTurns / count;
+        }
+
+        /**
+         * @return The number of games that ended this way.
+         */
+        public long getEndingCount(GameResult.Ending ending) {
+            return endings[ending.ordinal()];
+        }
+
+        /**
+         * @return The number of games that ended with a player's hand empty.
+         */
+        public long getEmptyHandEndings() {
+            return getEndingCount(GameResult.Ending.EMPTY_HAND);
+        }
+
+        /**
+         * @return The number of games that ended with the draw pile empty.
+         */
+        public long getDrawPileEndings() {
+            return getEndingCount(GameResult.Ending.DRAW_PILE_EMPTY);
+        }
+
+        /**
+         * @return The share of games that ended with a player's hand empty.
+         */
+        public double getEmptyHandRate() {
+            return count == 0 ? 0 : (double) getEmptyHandEndings() / count;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package student.crazyeights;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Finds {@link PlayerStrategy} implementations by name or by class.
+ * <p>
+ * Built-in strategies are registered under short names ("ai" is {@link PlayerAI},
+ * "ismcts" is {@link IsmctsStrategy}, "endgame" is {@link EndgamePlayerAI}). Strategies
+ * listed as services of PlayerStrategy on the classpath are registered under their simple class
+ * name, and any other name is loaded as a fully qualified class name with a no-argument
+ * constructor.
+ */
+public class StrategyRegistry {
+
+    public static final String DEFAULT_STRATEGY = "ai";
+
+    private final Map<String, Supplier<? extends PlayerStrategy>> strategies = new ConcurrentHashMap<>();
+    private volatile BiFunction<String, PlayerStrategy, PlayerStrategy> decorator;
+
+    /**
+     * Creates a registry holding the built-in strategies and the ones found on the classpath.
+     */
+    public StrategyRegistry() {
+        register(DEFAULT_STRATEGY, PlayerAI::new);
+        register("ismcts", IsmctsStrategy::new);
+        register("endgame", EndgamePlayerAI::new);
+        for (PlayerStrategy found : ServiceLoader.load(PlayerStrategy.class)) {
+            Class<? extends PlayerStrategy> type = found.getClass();
+            register(type.getSimpleName(), () -> newInstance(type));
+        }
+    }
+
+    /**
+     * Registers a strategy, replacing any strategy with the same name.
+     *
+     * @param name    The name to find the strategy by
+     * @param factory Creates a new, independent instance of the strategy
+     */
+    public void register(String name, Supplier<? extends PlayerStrategy> factory) {
+        strategies.put(name, factory);
+    }
+
+    /**
+     * Gets the factory of a strategy, loading it as a class the first time it is asked for.
+     *
+     * @param nameOrClass A registered name or a fully qualified class name
+     * @return Creates new instances of the strategy
+     * @throws IllegalArgumentException If no such strategy exists
+     */
+    public Supplier<? extends PlayerStrategy> getFactory(String nameOrClass) {
+        Supplier<? extends PlayerStrategy> factory = strategies.get(nameOrClass);
+        if (factory != null) {
+            return factory;
+        }
+        Class<? extends PlayerStrategy> type = loadClass(nameOrClass);
+        factory = () -> newInstance(type);
+        strategies.putIfAbsent(nameOrClass, factory);
+        return factory;
+    }
+
+    /**
+     * Creates a new instance of a strategy.
+     *
+     * @param nameOrClass A registered name or a fully qualified class name
+     */
+    public PlayerStrategy create(String nameOrClass) {
+        PlayerStrategy strategy = getFactory(nameOrClass).get();
+        BiFunction<String, PlayerStrategy, PlayerStrategy> wrapper = decorator;
+        return wrapper == null ? strategy : wrapper.apply(nameOrClass, strategy);
+    }
+
+    /**
+     * Sets what wraps every strategy {@link #create} creates from now on, e.g. a
+     * {@link TimedStrategy}.
+     *
+     * @param decorator Gets the name and the new strategy and returns the strategy to play, or
+     *                  null to play strategies as they are
+     */
+    public void setDecorator(BiFunction<String, PlayerStrategy, PlayerStrategy> decorator) {
+        this.decorator = decorator;
+    }
+
+    /**
+     * @return The names of the registered strategies, in alphabetical order.
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(strategies.keySet()));
+    }
+
+    private static Class<? extends PlayerStrategy> loadClass(String className) {
+        Class<?> type;
+        try {
+            type = Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown strategy: " + className, e);
+        }
+        if (!PlayerStrategy.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException(className + " is not a PlayerStrategy.");
+        }
+        return type.asSubclass(PlayerStrategy.class);
+    }
+
+    private static PlayerStrategy newInstance(Class<? extends PlayerStrategy> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot create strategy " + type.getName(), e);
+        }
+    }
+}
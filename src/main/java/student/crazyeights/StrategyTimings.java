@@ -0,0 +1,99 @@
+package student.crazyeights;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects how long every strategy takes in every callback, as one {@link LatencyHistogram} per
+ * strategy name and {@link TimedStrategy.Callback}.
+ * <p>
+ * Every thread records into histograms of its own, so timing adds no contention between the
+ * threads of a {@link SimulationRunner}; they are only merged when asked for, which should be
+ * after the games are over.
+ */
+public class StrategyTimings {
+
+    private static final TimedStrategy.Callback[] CALLBACKS = TimedStrategy.Callback.values();
+
+    private final ConcurrentLinkedQueue<Map<String, LatencyHistogram[]>> threadTimings =
+            new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Map<String, LatencyHistogram[]>> timingsOfThread = ThreadLocal.withInitial(() -> {
+        Map<String, LatencyHistogram[]> timings = new HashMap<>();
+        threadTimings.add(timings);
+        return timings;
+    });
+
+    /**
+     * @return The calling thread's histograms of the strategy, indexed by callback ordinal. Only
+     * that thread may record into them.
+     */
+    LatencyHistogram[] histogramsOfThread(String strategy) {
+        Map<String, LatencyHistogram[]> timings = timingsOfThread.get();
+        synchronized (timings) {
+            return timings.computeIfAbsent(strategy, name -> {
+                LatencyHistogram[] histograms = new LatencyHistogram[CALLBACKS.length];
+                for (int i = 0; i < histograms.length; i++) {
+                    histograms[i] = new LatencyHistogram();
+                }
+                return histograms;
+            });
+        }
+    }
+
+    /**
+     * @return The names of the strategies timed so far, in alphabetical order.
+     */
+    public Set<String> getStrategies() {
+        Set<String> strategies = new TreeSet<>();
+        for (Map<String, LatencyHistogram[]> timings : threadTimings) {
+            synchronized (timings) {
+                strategies.addAll(timings.keySet());
+            }
+        }
+        return strategies;
+    }
+
+    /**
+     * @return The timings of one callback of a strategy, over all threads.
+     */
+    public LatencyHistogram getHistogram(String strategy, TimedStrategy.Callback callback) {
+        LatencyHistogram total = new LatencyHistogram();
+        for (Map<String, LatencyHistogram[]> timings : threadTimings) {
+            LatencyHistogram[] histograms;
+            synchronized (timings) {
+                histograms = timings.get(strategy);
+            }
+            if (histograms != null) {
+                total.merge(histograms[callback.ordinal()]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return A table of the calls, p50, p99, longest call and deadline violations of every
+     * callback of every strategy, in microseconds. The percentiles are taken from the calls that
+     * were timed.
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(String.format("%-12s %-24s %10s %10s %10s %10s %10s%n",
+                "Strategy", "Callback", "Calls", "p50 us", "p99 us", "Max us", "Violations"));
+        for (String strategy : getStrategies()) {
+            for (TimedStrategy.Callback callback : CALLBACKS) {
+                LatencyHistogram histogram = getHistogram(strategy, callback);
+                if (histogram.getCalls() == 0) {
+                    continue;
+                }
+                report.append(String.format("%-12s %-24s %10d %10.1f %10.1f %10.1f %10d%n", strategy, callback,
+                        histogram.getCalls(), histogram.getPercentile(0.5) / 1e3,
+                        histogram.getPercentile(0.99) / 1e3, histogram.getMax() / 1e3,
+                        histogram.getViolations()));
+            }
+        }
+        return report.toString();
+    }
+}
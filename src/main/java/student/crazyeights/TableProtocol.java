@@ -0,0 +1,154 @@
+package student.crazyeights;
+
+import java.util.List;
+
+/**
+ * The line protocol between a {@link GameServer} and its remote players. Every message is one
+ * line of ASCII: a keyword and numbers separated by spaces. Cards are written by id (see
+ * {@link Card#getId()}), suits by ordinal (-1 for none) and moves as {@link GameRecord}
+ * decisions: {@link GameRecord#DRAW}, or the card id times four plus the declared suit.
+ * <p>
+ * The messages map onto the {@link PlayerStrategy} callbacks, from the server:
+ * <pre>
+ * SEAT table seat players      init(seat, every other seat)
+ * HAND card...                 reset(), then receiveInitialCards
+ * SEEN player move...          processOpponentActions, a pair per turn (player -1 for the top card)
+ * TURN topCard declaredSuit    shouldDrawCard, and playCard and declareSuit if it plays
+ * CARD card                    receiveCard
+ * END score...                 the scores of the game, by seat
+ * BYE                          the table has played all its games
+ * ERROR text                   the last message was not understood or the move was illegal
+ * </pre>
+ * and from the client:
+ * <pre>
+ * JOIN players games [remote]  sit at a table of that size and length, with remote - 1 other
+ *                              remote players; bots take the other seats
+ * MOVE move                    the answer to TURN
+ * </pre>
+ */
+public final class TableProtocol {
+
+    public static final String SEAT = "SEAT";
+    public static final String HAND = "HAND";
+    public static final String SEEN = "SEEN";
+    public static final String TURN = "TURN";
+    public static final String CARD = "CARD";
+    public static final String END = "END";
+    public static final String BYE = "BYE";
+    public static final String ERROR = "ERROR";
+    public static final String JOIN = "JOIN";
+    public static final String MOVE = "MOVE";
+
+    /**
+     * The longest line either side sends or accepts, in bytes.
+     */
+    public static final int MAX_LINE_LENGTH = 512;
+
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+
+    private TableProtocol() {
+    }
+
+    /**
+     * @return The message listing the cards, e.g. "HAND 3 17 40".
+     */
+    static String cards(String keyword, List<Card> cards) {
+        StringBuilder line = new StringBuilder(keyword);
+        for (int i = 0; i < cards.size(); i++) {
+            line.append(' ').append(cards.get(i).getId());
+        }
+        return line.toString();
+    }
+
+    /**
+     * @return The SEEN message of the turns.
+     */
+    static String turns(List<PlayerTurn> turns) {
+        StringBuilder line = new StringBuilder(SEEN);
+        for (int i = 0; i < turns.size(); i++) {
+            PlayerTurn turn = turns.get(i);
+            line.append(' ').append(turn.getPlayerId()).append(' ').append(GameRecord.encode(turn));
+        }
+        return line.toString();
+    }
+
+    /**
+     * @return The TURN message for the top card and declared suit.
+     */
+    static String turn(Card topCard, Card.Suit declaredSuit) {
+        return TURN + ' ' + topCard.getId() + ' ' + (declaredSuit == null ? -1 : declaredSuit.ordinal());
+    }
+
+    /**
+     * @return The move of a player that draws, or plays the card and declares the suit (null
+     * unless the card is an eight).
+     */
+    public static int encodeMove(boolean drawCard, Card card, Card.Suit declaredSuit) {
+        if (drawCard) {
+            return GameRecord.DRAW;
+        }
+        return card.getId() * SUITS.length + (declaredSuit == null ? 0 : declaredSuit.ordinal());
+    }
+
+    /**
+     * @return The card a move plays, or null if it draws.
+     * @throws IllegalArgumentException If the move is no card
+     */
+    public static Card cardOf(int move) {
+        if (move == GameRecord.DRAW) {
+            return null;
+        }
+        if (move < 0 || move >= Card.DECK_SIZE * SUITS.length) {
+            throw new IllegalArgumentException("No such move: " + move);
+        }
+        return Card.fromId(move / SUITS.length);
+    }
+
+    /**
+     * @return The suit a move declares, or null if it does not play an eight.
+     */
+    public static Card.Suit declaredSuitOf(int move) {
+        Card card = cardOf(move);
+        return card == null || !CardCollection.cardIsEight(card) ? null : SUITS[move % SUITS.length];
+    }
+
+    /**
+     * @return The suit with the ordinal, or null for -1.
+     * @throws IllegalArgumentException If there is no such suit
+     */
+    public static Card.Suit suitOf(int ordinal) {
+        if (ordinal < -1 || ordinal >= SUITS.length) {
+            throw new IllegalArgumentException("No such suit: " + ordinal);
+        }
+        return ordinal < 0 ? null : SUITS[ordinal];
+    }
+
+    /**
+     * @return The card with the id.
+     * @throws IllegalArgumentException If there is no such card
+     */
+    public static Card cardWithId(int id) {
+        if (id < 0 || id >= Card.DECK_SIZE) {
+            throw new IllegalArgumentException("No such card: " + id);
+        }
+        return Card.fromId(id);
+    }
+
+    /**
+     * Splits a message into its keyword and numbers.
+     *
+     * @return The numbers after the keyword
+     * @throws IllegalArgumentException If one of them is not a number
+     */
+    static int[] numbers(String[] words) {
+        int[] numbers = new int[words.length - 1];
+        try {
+            for (int i = 1; i < words.length; i++) {
+                numbers[i - 1] = Integer.parseInt(words[i]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number in " + String.join(" ", words), e);
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,328 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+
+/**
+ * Times the callbacks of another strategy into a {@link StrategyTimings}, and holds its
+ * decisions to a deadline.
+ * <p>
+ * A decision that comes back later than the deadline is thrown away and a safe move is played
+ * instead: drawing, the first card in the hand that can be played, or the suit the hand holds
+ * most of. Every timed call that runs late counts as a violation. A strategy that missed its
+ * deadline may be left in a state that no longer matches the game, so the safe moves are played
+ * for it until the next game, when it is reset and plays again.
+ * <p>
+ * Every decision is timed. Of the calls that only tell the strategy what happened, which are
+ * about half of all calls, only one in {@value #SAMPLE_EVERY} is, so timing a fast strategy costs
+ * little; they are all counted, but their percentiles and violations come from the timed ones.
+ * <p>
+ * By default the strategy runs on the game's thread, which costs two clock reads per timed call
+ * but cannot stop a strategy that never returns. An isolated strategy runs on a worker thread that
+ * the game waits for no longer than the deadline. That survives hung strategies, at the price of
+ * a thread handoff per call; a hung strategy sits out every following game until its call
+ * returns.
+ */
+public class TimedStrategy implements PlayerStrategy {
+
+    /**
+     * The callbacks of {@link PlayerStrategy}.
+     */
+    public enum Callback {
+        INIT, RECEIVE_INITIAL_CARDS, SHOULD_DRAW_CARD, RECEIVE_CARD, PLAY_CARD, DECLARE_SUIT,
+        PROCESS_OPPONENT_ACTIONS, RESET
+    }
+
+    /**
+     * One in this many notifications is timed.
+     */
+    static final int SAMPLE_EVERY = 16;
+
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+    private static final ExecutorService ISOLATION = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "isolated-strategy");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PlayerStrategy delegate;
+    private final LatencyHistogram[] histograms;
+    private final long deadlineNanos;
+    private final boolean isolated;
+
+    private long hand;
+    private Card topCard;
+    private Card.Suit declaredSuit;
+    private Card lastPlayed;
+    private boolean benched;
+    private Future<?> pending;
+    private int notifications;
+    private boolean timed;
+
+    /**
+     * Times the strategy without a deadline.
+     */
+    public TimedStrategy(PlayerStrategy delegate, String name, StrategyTimings timings) {
+        this(delegate, name, timings, 0, false);
+    }
+
+    /**
+     * @param delegate      The strategy that decides
+     * @param name          The name the timings are kept under
+     * @param timings       Where the timings go; the thread creating the strategy must be the
+     *                      one playing it
+     * @param deadlineNanos The longest a callback may take, or 0 for no limit
+     * @param isolated      True to run the strategy on a worker thread, so it cannot hang the
+     *                      game
+     */
+    public TimedStrategy(PlayerStrategy delegate, String name, StrategyTimings timings, long deadlineNanos,
+                         boolean isolated) {
+        if (deadlineNanos < 0 || (isolated && deadlineNanos == 0)) {
+            throw new IllegalArgumentException("An isolated strategy needs a deadline.");
+        }
+        this.delegate = delegate;
+        this.histograms = timings.histogramsOfThread(name);
+        this.deadlineNanos = deadlineNanos;
+        this.isolated = isolated;
+    }
+
+    /**
+     * @return A {@link StrategyRegistry} decorator that times every strategy it creates under
+     * its registered name.
+     */
+    public static BiFunction<String, PlayerStrategy, PlayerStrategy> decorator(StrategyTimings timings,
+                                                                                long deadlineNanos, boolean isolated) {
+        return (name, strategy) -> new TimedStrategy(strategy, name, timings, deadlineNanos, isolated);
+    }
+
+    /**
+     * @return True if the safe moves are played until the next game.
+     */
+    public boolean isBenched() {
+        return benched;
+    }
+
+    @Override
+    public void init(int playerId, List<Integer> opponentIds) {
+        if (isolated) {
+            List<Integer> ids = new ArrayList<>(opponentIds);
+            notifyIsolated(Callback.INIT, () -> delegate.init(playerId, ids));
+            return;
+        }
+        long start = startNotification();
+        delegate.init(playerId, opponentIds);
+        record(Callback.INIT, start);
+    }
+
+    @Override
+    public void receiveInitialCards(List<Card> cards) {
+        hand = CardMask.of(cards);
+        if (benched) {
+            return;
+        }
+        if (isolated) {
+            List<Card> dealt = new ArrayList<>(cards);
+            notifyIsolated(Callback.RECEIVE_INITIAL_CARDS, () -> delegate.receiveInitialCards(dealt));
+            return;
+        }
+        long start = startNotification();
+        delegate.receiveInitialCards(cards);
+        record(Callback.RECEIVE_INITIAL_CARDS, start);
+    }
+
+    @Override
+    public boolean shouldDrawCard(Card topPileCard, Card.Suit changedSuit) {
+        topCard = topPileCard;
+        declaredSuit = changedSuit;
+        if (benched) {
+            return true;
+        }
+        if (isolated) {
+            Boolean draw = callIsolated(Callback.SHOULD_DRAW_CARD, () -> delegate.shouldDrawCard(topPileCard,
+                    changedSuit));
+            return draw == null || draw;
+        }
+        long start = startDecision();
+        boolean draw = delegate.shouldDrawCard(topPileCard, changedSuit);
+        // Drawing is always allowed.
+        return !record(Callback.SHOULD_DRAW_CARD, start) || draw;
+    }
+
+    @Override
+    public void receiveCard(Card drawnCard) {
+        hand = CardMask.add(hand, drawnCard);
+        if (benched) {
+            return;
+        }
+        if (isolated) {
+            notifyIsolated(Callback.RECEIVE_CARD, () -> delegate.receiveCard(drawnCard));
+            return;
+        }
+        long start = startNotification();
+        delegate.receiveCard(drawnCard);
+        record(Callback.RECEIVE_CARD, start);
+    }
+
+    @Override
+    public Card playCard() {
+        Card card = null;
+        if (!benched) {
+            if (isolated) {
+                card = callIsolated(Callback.PLAY_CARD, delegate::playCard);
+            } else {
+                long start = startDecision();
+                card = delegate.playCard();
+                card = record(Callback.PLAY_CARD, start) ? card : null;
+            }
+        }
+        if (card == null) {
+            long playable = hand & PlayabilityTable.playable(topCard, declaredSuit);
+            card = CardMask.first(playable != CardMask.EMPTY ? playable : hand);
+        }
+        hand = CardMask.remove(hand, card);
+        lastPlayed = card;
+        return card;
+    }
+
+    @Override
+    public Card.Suit declareSuit() {
+        Card.Suit suit = null;
+        if (!benched) {
+            if (isolated) {
+                suit = callIsolated(Callback.DECLARE_SUIT, delegate::declareSuit);
+            } else {
+                long start = startDecision();
+                suit = delegate.declareSuit();
+                suit = record(Callback.DECLARE_SUIT, start) ? suit : null;
+            }
+        }
+        return suit != null ? suit : mostHeldSuit();
+    }
+
+    @Override
+    public void processOpponentActions(List<PlayerTurn> opponentActions) {
+        if (benched) {
+            return;
+        }
+        if (isolated) {
+            List<PlayerTurn> turns = new ArrayList<>(opponentActions);
+            notifyIsolated(Callback.PROCESS_OPPONENT_ACTIONS, () -> delegate.processOpponentActions(turns));
+            return;
+        }
+        long start = startNotification();
+        delegate.processOpponentActions(opponentActions);
+        record(Callback.PROCESS_OPPONENT_ACTIONS, start);
+    }
+
+    @Override
+    public void reset() {
+        hand = CardMask.EMPTY;
+        topCard = null;
+        declaredSuit = null;
+        if (pending != null) {
+            if (!pending.isDone()) {
+                return;
+            }
+            pending = null;
+        }
+        benched = false;
+        if (isolated) {
+            notifyIsolated(Callback.RESET, delegate::reset);
+            return;
+        }
+        long start = startNotification();
+        delegate.reset();
+        record(Callback.RESET, start);
+    }
+
+    private long startDecision() {
+        timed = true;
+        return System.nanoTime();
+    }
+
+    private long startNotification() {
+        timed = notifications++ % SAMPLE_EVERY == 0;
+        return timed ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Counts a call, and if it was timed, the time since its start. Benches the strategy if a
+     * decision came too late.
+     *
+     * @return False if the call missed the deadline.
+     */
+    private boolean record(Callback callback, long start) {
+        LatencyHistogram histogram = histograms[callback.ordinal()];
+        if (!timed) {
+            histogram.recordCall();
+            return true;
+        }
+        long elapsed = System.nanoTime() - start;
+        histogram.record(elapsed);
+        if (deadlineNanos == 0 || elapsed <= deadlineNanos) {
+            return true;
+        }
+        histogram.recordViolation();
+        if (callback == Callback.SHOULD_DRAW_CARD || callback == Callback.PLAY_CARD
+                || callback == Callback.DECLARE_SUIT) {
+            benched = true;
+        }
+        return false;
+    }
+
+    private void notifyIsolated(Callback callback, Runnable task) {
+        callIsolated(callback, () -> {
+            task.run();
+            return Boolean.TRUE;
+        });
+    }
+
+    /**
+     * Runs a call on a worker thread and waits for it until the deadline. A call that misses it
+     * is left running, and the strategy is benched until it returns.
+     *
+     * @return What the call returned, or null if it missed the deadline.
+     */
+    private <T> T callIsolated(Callback callback, Callable<T> task) {
+        long start = startDecision();
+        Future<T> future = ISOLATION.submit(task);
+        try {
+            T result = future.get(deadlineNanos, TimeUnit.NANOSECONDS);
+            record(callback, start);
+            return result;
+        } catch (TimeoutException e) {
+            record(callback, start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        benched = true;
+        pending = future;
+        return null;
+    }
+
+    private Card.Suit mostHeldSuit() {
+        Card.Suit most = lastPlayed == null ? SUITS[0] : lastPlayed.getSuit();
+        int mostCards = 0;
+        for (Card.Suit suit : SUITS) {
+            int cards = CardMask.count(CardMask.ofSuit(hand, suit));
+            if (cards > mostCards) {
+                most = suit;
+                mostCards = cards;
+            }
+        }
+        return most;
+    }
+}
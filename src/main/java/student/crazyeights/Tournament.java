@@ -1,5 +1,8 @@
 package student.crazyeights;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 import static student.crazyeights.ConsoleUI.*;
@@ -8,7 +11,13 @@ public class Tournament {
     private final ConsoleUI ui;
     private final Random random;
     private ArrayList<Player> players;
-    private Map<Player, Integer> tournamentScore = new HashMap<>();
+    private long[] tournamentScore;
+    private int numOfPlayers;
+    private int gamesPlayed;
+    private long gameSeedBase;
+    private RandomAlgorithm algorithm = RandomAlgorithm.JDK;
+    private Path checkpoint;
+    private int checkpointEvery;
 
     public Tournament(ConsoleUI consoleUI, Random random) {
         this.ui = consoleUI;
@@ -17,65 +26,229 @@ public class Tournament {
     }
 
     /**
-     * Starts the tournament.
+     * Creates a headless tournament: nothing is printed or read, and bots play every seat.
+     *
+     * @param random       Instance of Random passed from main()
+     * @param numOfPlayers The number of players, from 2 to 7
      */
-    public void startTournament() {
+    public Tournament(Random random, int numOfPlayers) {
+        this(null, random);
+        if (numOfPlayers > 7 || numOfPlayers < 2) {
+            throw new IllegalArgumentException(NUMBER_OF_PLAYER_FAIL);
+        }
+        this.numOfPlayers = numOfPlayers;
+    }
 
-        ui.consolePrint(NEW_TOURNAMENT_ANNOUNCEMENT);
-        ui.consolePrint(NUMBER_OF_PLAYER_REQUEST);
+    /**
+     * Carries on with a headless tournament from its checkpoint, and goes on checkpointing to the
+     * same file. The players are new, but as every game gets its own random stream and how the bots
+     * play does not depend on earlier games, the tournament ends as if it had never stopped.
+     *
+     * @param file The checkpoint
+     * @return The tournament, to be continued with {@link #startTournament}
+     * @throws IllegalArgumentException If the file is not a checkpoint of a tournament
+     */
+    public static Tournament resume(Path file) throws IOException {
+        try (DataInputStream in = Checkpoint.read(file, Checkpoint.TOURNAMENT)) {
+            Tournament tournament = new Tournament(new Random(), in.readUnsignedByte());
+            tournament.gameSeedBase = in.readLong();
+            tournament.algorithm = RandomAlgorithm.values()[in.readUnsignedByte()];
+            tournament.gamesPlayed = in.readInt();
+            tournament.checkpointEvery = in.readInt();
+            tournament.checkpoint = file;
+            tournament.tournamentScore = new long[tournament.numOfPlayers];
+            for (int seat = 0; seat < tournament.numOfPlayers; seat++) {
+                Player player = new Player(tournament.random);
+                player.setName(in.readUTF());
+                player.createEmptyHand();
+                tournament.players.add(player);
+                tournament.tournamentScore[seat] = in.readLong();
+            }
+            return tournament;
+        }
+    }
 
-        int numOfPlayers = Integer.parseInt(ui.getUserInput());
-        // There can only be 2-7 players
-        while (numOfPlayers > 7 || numOfPlayers < 2) {
-            ui.consolePrint(NUMBER_OF_PLAYER_FAIL);
-            ui.consolePrint(NUMBER_OF_PLAYER_FAIL_REQUEST);
-            numOfPlayers = Integer.parseInt(ui.getUserInput());
+    /**
+     * Sets the random number generator every game is played with; {@link Random} by default.
+     * The tournament's own generator, which names the bots and seeds the games, is the one it was
+     * created with.
+     */
+    public void setRandomAlgorithm(RandomAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Checkpoints the tournament to the file every given number of games and when it is over, so
+     * {@link #resume} can finish it after a crash. Every checkpoint replaces the previous one.
+     *
+     * @throws IllegalStateException If the tournament is played on the console, as people
+     *                               cannot be resumed
+     */
+    public void setCheckpoint(Path file, int everyGames) {
+        if (!isHeadless()) {
+            throw new IllegalStateException("Only headless tournaments can be checkpointed.");
+        }
+        if (everyGames < 1) {
+            throw new IllegalArgumentException("Checkpoints must be at least one game apart.");
         }
+        this.checkpoint = file;
+        this.checkpointEvery = everyGames;
+    }
+
+    /**
+     * Starts the tournament, or carries on with a resumed one.
+     */
+    public void startTournament() {
+
+        boolean resumed = !players.isEmpty();
+
+        if (!resumed) {
+            if (!isHeadless()) {
+                promptForNumberOfPlayers();
+            }
+
+            Player newPlayer;
 
-        Player newPlayer;
-
-        for (int i = 0; i < numOfPlayers; i++) {
-            // Create player and asks for their name
-            newPlayer = createPlayer();
-            // Creates an empty hand for the player.
-            newPlayer.createEmptyHand();
-            // Add the new player to the list.
-            players.add(newPlayer);
-            // Set their score to 0.
-            tournamentScore.put(newPlayer, 0);
+            for (int i = 0; i < numOfPlayers; i++) {
+                // Create player and asks for their name
+                newPlayer = createPlayer();
+                // Creates an empty hand for the player.
+                newPlayer.createEmptyHand();
+                // Add the new player to the list.
+                players.add(newPlayer);
+            }
+            // Every seat starts with a score of 0.
+            tournamentScore = new long[numOfPlayers];
         }
 
         for (Player p : players) {
             p.pingAiInit(players);
         }
 
-        do {
-            Game game = new Game(ui, random, players);
+        // Each game gets its own random stream, derived from a seed drawn once per tournament.
+        if (!resumed) {
+            gameSeedBase = random.nextLong();
+        }
+
+        // The table is set up once and cleared in place for every game after the first.
+        Random gameRandom = algorithm.create(0);
+        Game game = null;
+
+        // No tournament is over before its first game.
+        while (!tournamentIsOver()) {
+            gameRandom.setSeed(EightsUtils.deriveSeed(gameSeedBase, gamesPlayed));
+            if (game == null) {
+                game = new Game(ui, gameRandom, players);
+            } else {
+                game.reset(gameRandom);
+            }
+            gamesPlayed++;
             game.playGame();
             // Updates the total score after every game
-            tournamentScore = game.updateScore(tournamentScore);
+            game.updateScore(tournamentScore);
             // Announce the tournament score after every game.
-            ui.announceScoreOrWinner(tournamentScore, TOURNAMENT_SCORE_ID);
+            if (!isHeadless()) {
+                ui.announceScoreOrWinner(players, tournamentScore, TOURNAMENT_SCORE_ID);
+            }
             for (Player p : players) {
                 p.reset();
             }
-        } while (!tournamentIsOver());
+            // Cheating ends the tournament, as the cheater has been told.
+            if (game.getCheater() != null) {
+                return;
+            }
+            if (checkpoint != null && (gamesPlayed % checkpointEvery == 0 || tournamentIsOver())) {
+                writeCheckpoint();
+            }
+        }
 
         // Announce the winner at the end of the tournament.
-        ui.announceScoreOrWinner(tournamentScore, TOURNAMENT_WINNER_ID);
+        if (!isHeadless()) {
+            ui.announceScoreOrWinner(players, tournamentScore, TOURNAMENT_WINNER_ID);
+        }
+
+    }
+
+    /**
+     * Replaces the checkpoint with the tournament as it stands between two games.
+     */
+    private void writeCheckpoint() {
+        try {
+            Checkpoint.write(checkpoint, Checkpoint.TOURNAMENT, out -> {
+                out.writeByte(numOfPlayers);
+                out.writeLong(gameSeedBase);
+                out.writeByte(algorithm.ordinal());
+                out.writeInt(gamesPlayed);
+                out.writeInt(checkpointEvery);
+                for (int seat = 0; seat < numOfPlayers; seat++) {
+                    out.writeUTF(players.get(seat).getName());
+                    out.writeLong(tournamentScore[seat]);
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
+    /**
+     * Asks the user how many players there are.
+     */
+    private void promptForNumberOfPlayers() {
+        ui.consolePrint(NEW_TOURNAMENT_ANNOUNCEMENT);
+        ui.prompt(NUMBER_OF_PLAYER_REQUEST);
+
+        numOfPlayers = Integer.parseInt(ui.getUserInput());
+        // There can only be 2-7 players
+        while (numOfPlayers > 7 || numOfPlayers < 2) {
+            ui.prompt(NUMBER_OF_PLAYER_FAIL);
+            ui.prompt(NUMBER_OF_PLAYER_FAIL_REQUEST);
+            numOfPlayers = Integer.parseInt(ui.getUserInput());
+        }
     }
 
     /**
      * Adds a player into the game.
      */
     private Player createPlayer() {
+        if (isHeadless()) {
+            Player newPlayer = new Player(random);
+            newPlayer.setName(newPlayer.pingAiForName());
+            return newPlayer;
+        }
         Player newPlayer = new Player(ui, random);
         String playerName = promptUserForName(newPlayer);
         newPlayer.setName(playerName);
         return newPlayer;
     }
 
+    /**
+     * @return True if the tournament runs without a console.
+     */
+    public boolean isHeadless() {
+        return ui == null;
+    }
+
+    /**
+     * @return The players, in seat order.
+     */
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    /**
+     * @return The number of games played so far.
+     */
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * @return The total score of each player, indexed by seat.
+     */
+    public long[] getTournamentScore() {
+        return tournamentScore.clone();
+    }
+
     /**
      * Prompts user for their player's name.
      * @return The player's name
@@ -83,7 +256,8 @@ public class Tournament {
     private String promptUserForName(Player newPlayer) {
         String name;
         do {
-            ui.consolePrint(PLAYER_NAME_REQUEST);
+            // Bots type their names themselves, so this is only shown with everything else they type.
+            ui.consolePrint(PLAYER_NAME_REQUEST, OutputLevel.VERBOSE);
             newPlayer.pingAiForName();
             name = ui.getUserInput();
         } while (name.equals(""));
@@ -125,16 +299,8 @@ public class Tournament {
      * Gets the current maximum score.
      * @return The current maximum score.
      */
-    private int getCurrentMaxScore() {
-        int currentMaxScore = 0;
-        int playerScore;
-        for (Map.Entry<Player, Integer> entry : tournamentScore.entrySet()) {
-            playerScore = entry.getValue();
-            if (playerScore > currentMaxScore) {
-                currentMaxScore = playerScore;
-            }
-        }
-        return currentMaxScore;
+    private long getCurrentMaxScore() {
+        return EightsUtils.maxValue(tournamentScore);
     }
 
 }
@@ -0,0 +1,13 @@
+package student.crazyeights;
+
+/**
+ * Is told about every turn of a {@link Game} as soon as it has been played.
+ */
+public interface TurnListener {
+
+    /**
+     * @param seat The position in the game's player list of the player who took the turn
+     * @param turn What the player did; it must not be changed
+     */
+    void turnPlayed(int seat, PlayerTurn turn);
+}
@@ -0,0 +1,216 @@
+package student.crazyeights;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of the cards a player has not seen: every card but its own hand and the ones
+ * played to the discard pile. Each {@link PlayerTurn} updates it in constant time, along with
+ * the hand sizes of a {@link CardCountTracker}.
+ * <p>
+ * Every opponent's hand is taken to be a uniformly random subset of the cards it may hold, as
+ * narrowed down by an {@link OpponentModel}, so questions like "does the opponent hold an eight"
+ * are answered from bit counts with the hypergeometric distribution, without listing any deals.
+ */
+public class UnseenCardTracker {
+
+    private final CardCountTracker cardCounts;
+    private final OpponentModel opponents;
+    private long hand;
+    private long played;
+
+    /**
+     * @param playerId    The id of the player the tracker works for
+     * @param opponentIds The ids of its opponents
+     */
+    public UnseenCardTracker(int playerId, List<Integer> opponentIds) {
+        List<Integer> playerIds = new ArrayList<>(opponentIds);
+        playerIds.add(playerId);
+        this.cardCounts = new CardCountTracker(playerIds);
+        this.opponents = new OpponentModel(opponentIds);
+    }
+
+    /**
+     * Forgets the last game: nothing has been seen and the cards are about to be dealt.
+     */
+    public void reset() {
+        cardCounts.reset();
+        opponents.reset();
+        hand = CardMask.EMPTY;
+        played = CardMask.EMPTY;
+    }
+
+    /**
+     * Sets the player's own hand, as dealt.
+     */
+    public void setHand(long hand) {
+        this.hand = hand;
+    }
+
+    /**
+     * Adds a card the player drew to its hand.
+     */
+    public void addToHand(Card card) {
+        hand = CardMask.add(hand, card);
+    }
+
+    /**
+     * Takes a card the player is about to play out of its hand. Seeing the turn later changes
+     * nothing.
+     */
+    public void removeFromHand(Card card) {
+        hand = CardMask.remove(hand, card);
+    }
+
+    /**
+     * Updates the tracker with one turn of any player, the initial top card included.
+     */
+    public void observe(PlayerTurn turn) {
+        cardCounts.observe(turn);
+        opponents.observe(turn);
+        if (!turn.isDrewACard()) {
+            long bit = CardMask.bit(turn.getPlayedCard());
+            played |= bit;
+            hand &= ~bit;
+        }
+    }
+
+    /**
+     * Updates the tracker with several turns, in order.
+     */
+    public void observeAll(List<PlayerTurn> turns) {
+        for (int i = 0; i < turns.size(); i++) {
+            observe(turns.get(i));
+        }
+    }
+
+    /**
+     * @return The player's own hand, as a {@link CardMask}.
+     */
+    public long getHand() {
+        return hand;
+    }
+
+    /**
+     * @return Every card played so far, the initial top card included.
+     */
+    public long getPlayed() {
+        return played;
+    }
+
+    /**
+     * @return The cards the player has not seen: the opponents' hands and the draw pile.
+     */
+    public long getUnseen() {
+        return CardMask.FULL_DECK & ~hand & ~played;
+    }
+
+    /**
+     * @return The cards the opponent may hold: the unseen cards outside its void, unless it holds
+     * cards it drew after the void was inferred, which may be any unseen card.
+     */
+    public long getPossibleCards(int opponentId) {
+        long unseen = getUnseen();
+        return opponents.getUnknownCards(opponentId) == 0 ? unseen & ~opponents.getVoid(opponentId) : unseen;
+    }
+
+    /**
+     * @return The number of cards the player holds, or -1 for an unknown player.
+     */
+    public int getHandSize(int playerId) {
+        return cardCounts.getHandSize(playerId);
+    }
+
+    /**
+     * @return The number of cards left in the draw pile.
+     */
+    public int getDrawPileSize() {
+        return cardCounts.getDrawPileSize();
+    }
+
+    /**
+     * @return The hand and draw pile sizes.
+     */
+    public CardCountTracker getCardCounts() {
+        return cardCounts;
+    }
+
+    /**
+     * @return What the turns say about the opponents' hands and habits.
+     */
+    public OpponentModel getOpponentModel() {
+        return opponents;
+    }
+
+    /**
+     * @return The chance that the opponent holds at least one of the cards. Its unknown cards
+     * are drawn from every unseen card, and the rest of its hand from outside its void.
+     */
+    public double probabilityOfAny(int opponentId, long cards) {
+        long unseen = getUnseen();
+        long outsideVoid = unseen & ~opponents.getVoid(opponentId);
+        int unknown = unknownCards(opponentId, outsideVoid);
+        int known = getHandSize(opponentId) - unknown;
+        double none = probabilityOfNone(CardMask.count(outsideVoid), CardMask.count(outsideVoid & cards), known)
+                * probabilityOfNone(CardMask.count(unseen), CardMask.count(unseen & cards), unknown);
+        return 1 - none;
+    }
+
+    /**
+     * @return The number of the cards the opponent is expected to hold.
+     */
+    public double expectedCount(int opponentId, long cards) {
+        long unseen = getUnseen();
+        long outsideVoid = unseen & ~opponents.getVoid(opponentId);
+        int unknown = unknownCards(opponentId, outsideVoid);
+        int known = getHandSize(opponentId) - unknown;
+        return expectedCount(outsideVoid, cards, known) + expectedCount(unseen, cards, unknown);
+    }
+
+    /**
+     * @return The number of the opponent's cards that may be anywhere, which is all of them if
+     * the void leaves too few cards for the rest of its hand.
+     */
+    private int unknownCards(int opponentId, long outsideVoid) {
+        int handSize = Math.max(0, getHandSize(opponentId));
+        int unknown = Math.min(handSize, opponents.getUnknownCards(opponentId));
+        return CardMask.count(outsideVoid) < handSize - unknown ? handSize : unknown;
+    }
+
+    private static double expectedCount(long possible, long cards, int handSize) {
+        int numOfPossible = CardMask.count(possible);
+        return numOfPossible == 0 ? 0 : (double) handSize * CardMask.count(possible & cards) / numOfPossible;
+    }
+
+    /**
+     * @return The chance that the opponent holds at least one eight.
+     */
+    public double probabilityOfEight(int opponentId) {
+        return probabilityOfAny(opponentId, CardMask.EIGHTS);
+    }
+
+    /**
+     * @return The chance that the opponent holds at least one card of the suit, eights included.
+     */
+    public double probabilityOfSuit(int opponentId, Card.Suit suit) {
+        return probabilityOfAny(opponentId, CardMask.ofSuit(CardMask.FULL_DECK, suit));
+    }
+
+    /**
+     * The hypergeometric chance that a hand of the given size, drawn from the possible cards,
+     * misses every one of the wanted cards among them.
+     */
+    static double probabilityOfNone(int numOfPossible, int numOfWanted, int handSize) {
+        if (handSize <= 0 || numOfWanted == 0) {
+            return 1;
+        }
+        if (handSize > numOfPossible - numOfWanted) {
+            return 0;
+        }
+        double none = 1;
+        for (int i = 0; i < handSize; i++) {
+            none *= (double) (numOfPossible - numOfWanted - i) / (numOfPossible - i);
+        }
+        return none;
+    }
+}
@@ -0,0 +1,88 @@
+package student.crazyeights;
+
+import java.util.Random;
+
+/**
+ * The xoshiro256** generator of Blackman and Vigna: 256 bits of state, a period of 2^256 - 1
+ * and a few shifts and rotations per number, much faster than {@link Random}'s synchronized
+ * linear congruential step.
+ * <p>
+ * It extends Random so it can be used anywhere the game takes one. It is not thread-safe.
+ */
+public final class Xoshiro256StarStar extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    /**
+     * @param seed Expanded into the 256-bit state with SplitMix64, as the authors recommend
+     */
+    public Xoshiro256StarStar(long seed) {
+        // Random's constructor seeds this generator through setSeed.
+        super(seed);
+    }
+
+    /**
+     * Starts from the given state, which must not be all zero.
+     */
+    Xoshiro256StarStar(long s0, long s1, long s2, long s3) {
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        // Also called by Random's constructor, before this class's fields are set.
+        s0 = EightsUtils.deriveSeed(seed, 0);
+        s1 = EightsUtils.deriveSeed(seed, 1);
+        s2 = EightsUtils.deriveSeed(seed, 2);
+        s3 = EightsUtils.deriveSeed(seed, 3);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Lemire's multiply-and-shift with rejection: unbiased, and usually without a division.
+     */
+    @Override
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long product = (nextLong() >>> 32) * bound;
+        if ((product & 0xFFFFFFFFL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while ((product & 0xFFFFFFFFL) < threshold) {
+                product = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (product >>> 32);
+    }
+}
@@ -0,0 +1,122 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArenaTest {
+
+    /**
+     * Never plays a card, so the game only ends when the draw pile runs out.
+     */
+    public static class AlwaysDrawStrategy implements PlayerStrategy {
+        @Override
+        public void init(int playerId, List<Integer> opponentIds) {
+        }
+
+        @Override
+        public void receiveInitialCards(List<Card> cards) {
+        }
+
+        @Override
+        public boolean shouldDrawCard(Card topPileCard, Card.Suit changedSuit) {
+            return true;
+        }
+
+        @Override
+        public void receiveCard(Card drawnCard) {
+        }
+
+        @Override
+        public Card playCard() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Card.Suit declareSuit() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void processOpponentActions(List<PlayerTurn> opponentActions) {
+        }
+
+        @Override
+        public void reset() {
+        }
+    }
+
+    private static final String ALWAYS_DRAW = AlwaysDrawStrategy.class.getName();
+
+    @Test
+    public void registryLoadsStrategiesByNameAndClass() {
+        StrategyRegistry registry = new StrategyRegistry();
+        assertTrue(registry.create(StrategyRegistry.DEFAULT_STRATEGY) instanceof PlayerAI);
+        assertTrue(registry.create(ALWAYS_DRAW) instanceof AlwaysDrawStrategy);
+        assertTrue(registry.create("student.crazyeights.PlayerAI") instanceof PlayerAI);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registryRejectsUnknownStrategy() {
+        new StrategyRegistry().create("no.such.Strategy");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void registryRejectsClassesThatAreNotStrategies() {
+        new StrategyRegistry().create("java.lang.String");
+    }
+
+    @Test
+    public void aiBeatsAlwaysDrawing() {
+        Arena arena = new Arena(new StrategyRegistry(), Arrays.asList("ai", ALWAYS_DRAW), 126, 2);
+        ArenaReport report = arena.run(200);
+
+        assertEquals(200, report.getSeatsPlayed("ai"));
+        assertEquals(1.0, report.getWinRate("ai") + report.getWinRate(ALWAYS_DRAW), 1e-9);
+        assertTrue(report.getWinRate("ai") > 0.9);
+        assertTrue(report.getAverageScore("ai") > report.getAverageScore(ALWAYS_DRAW));
+    }
+
+    @Test
+    public void seatingRotatesEveryGame() {
+        StrategyRegistry registry = new StrategyRegistry();
+        for (String name : Arrays.asList("a", "b", "c")) {
+            registry.register(name, PlayerAI::new);
+        }
+        Arena arena = new Arena(registry, Arrays.asList("a", "b", "c"), 1, 1);
+        assertEquals(Arrays.asList("a", "b", "c"), arena.seatingOfGame(0));
+        assertEquals(Arrays.asList("c", "a", "b"), arena.seatingOfGame(1));
+        assertEquals(Arrays.asList("a", "b", "c"), arena.seatingOfGame(3));
+    }
+
+    @Test
+    public void sameSeedGivesSameReport() {
+        List<String> seats = Arrays.asList("ai", "ai", ALWAYS_DRAW);
+        String first = new Arena(new StrategyRegistry(), seats, 9, 1).run(50).toString();
+        String second = new Arena(new StrategyRegistry(), seats, 9, 3).run(50).toString();
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void reportIsTheSameAsForNewPlayers() {
+        StrategyRegistry registry = new StrategyRegistry();
+        Arena arena = new Arena(registry, Arrays.asList("ai", "ai", ALWAYS_DRAW), 4, 2);
+        // More than one chunk of games.
+        ArenaReport report = arena.run(600);
+
+        ArenaReport expected = new ArenaReport();
+        for (GameResult result : new SimulationRunner(4, 2).runGames(600, registry, arena::seatingOfGame)) {
+            expected.add(result);
+        }
+        for (String strategy : expected.getStrategies()) {
+            assertEquals(expected.getSeatsPlayed(strategy), report.getSeatsPlayed(strategy));
+            assertEquals(expected.getWinRate(strategy), report.getWinRate(strategy), 1e-12);
+            assertEquals(expected.getAverageScore(strategy), report.getAverageScore(strategy), 1e-12);
+            assertEquals(expected.getAverageGameLength(strategy), report.getAverageGameLength(strategy), 1e-12);
+        }
+    }
+}
@@ -123,6 +123,40 @@ public class CardCollectionTest {
         assertFalse(cardCollection.isEmpty());
     }
 
+    @Test
+    public void maskFollowsAddsAndRemoves() {
+        assertTrue(cardCollection.contains(card1));
+        cardCollection.removeCard(card1);
+        assertFalse(cardCollection.contains(card1));
+        cardCollection.removeTopCard();
+        // The top card took the place of the removed one.
+        assertEquals(CardMask.bit(card0) | CardMask.bit(card3), cardCollection.getMask());
+    }
+
+    @Test
+    public void removedCardsAreReplacedByTheTopCard() {
+        cardCollection.removeCard(card1);
+        assertEquals(Arrays.asList(card0, card3, card2), cardCollection.getCards());
+        cardCollection.removeCard(card0);
+        assertEquals(Arrays.asList(card2, card3), cardCollection.getCards());
+        cardCollection.removeCard(card3);
+        cardCollection.removeCard(card2);
+        assertTrue(cardCollection.isEmpty());
+        assertEquals(CardMask.EMPTY, cardCollection.getMask());
+    }
+
+    @Test
+    public void removingMissingCardDoesNothing() {
+        cardCollection.removeCard(targetCollectCard0);
+        assertEquals(4, cardCollection.size());
+    }
+
+    @Test
+    public void suitAndRankQueries() {
+        assertEquals(3, CardMask.count(cardCollection.cardsOfRank(Card.Rank.EIGHT)));
+        assertEquals(CardMask.bit(card1) | CardMask.bit(card3), cardCollection.cardsOfSuit(Card.Suit.CLUBS));
+    }
+
     @Test
     public void collectionIsEmpty() {
         CardCollection cardCollection = new CardCollection("EmptySet");
@@ -0,0 +1,74 @@
+package student.crazyeights;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class CardCountTrackerTest {
+
+    private CardCountTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new CardCountTracker(Arrays.asList(10, 20, 30));
+    }
+
+    @Test
+    public void startsWithDealtHands() {
+        assertEquals(5, tracker.getHandSize(20));
+        assertEquals(52 - 1 - 15, tracker.getDrawPileSize());
+    }
+
+    @Test
+    public void twoPlayersAreDealtSeven() {
+        CardCountTracker twoPlayers = new CardCountTracker(Arrays.asList(1, 2));
+        assertEquals(7, twoPlayers.getHandSize(1));
+        assertEquals(52 - 1 - 14, twoPlayers.getDrawPileSize());
+    }
+
+    @Test
+    public void drawsAndPlaysChangeCounts() {
+        tracker.observeAll(Arrays.asList(
+            turn(Game.INITIAL_TOP_CARD_ID, false),
+            turn(10, true),
+            turn(20, false),
+            turn(30, false),
+            turn(10, true)
+        ));
+        assertEquals(7, tracker.getHandSize(10));
+        assertEquals(4, tracker.getHandSize(20));
+        assertEquals(36 - 2, tracker.getDrawPileSize());
+        assertEquals(4, tracker.getSmallestHandSizeExcept(10));
+        assertEquals(4, tracker.getSmallestHandSizeExcept(30));
+    }
+
+    @Test
+    public void resetDoesNotDrift() {
+        for (int game = 0; game < 1000; game++) {
+            tracker.observe(turn(10, false));
+            tracker.observe(turn(20, true));
+            tracker.reset();
+        }
+        assertEquals(5, tracker.getHandSize(10));
+        assertEquals(5, tracker.getHandSize(20));
+        assertEquals(36, tracker.getDrawPileSize());
+    }
+
+    @Test
+    public void unknownPlayerHasNoHand() {
+        assertEquals(-1, tracker.getHandSize(99));
+    }
+
+    private static PlayerTurn turn(int playerId, boolean drew) {
+        PlayerTurn turn = new PlayerTurn();
+        turn.setPlayerId(playerId);
+        turn.setDrewACard(drew);
+        if (!drew) {
+            turn.setPlayedCard(Card.of(Card.Suit.CLUBS, Card.Rank.TWO));
+        }
+        return turn;
+    }
+}
@@ -0,0 +1,68 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CardLookupTest {
+
+    @Test
+    public void deckIdsAreDenseAndInOrder() {
+        List<Card> deck = Card.getDeck();
+        for (int i = 0; i < deck.size(); i++) {
+            assertEquals(i, deck.get(i).getId());
+        }
+    }
+
+    @Test
+    public void lookupsReturnTheSharedInstance() {
+        for (Card card : Card.getDeck()) {
+            assertSame(card, Card.of(card.getSuit(), card.getRank()));
+            assertSame(card, Card.fromId(card.getId()));
+        }
+    }
+
+    @Test
+    public void constructedCardEqualsSharedInstance() {
+        Card card = new Card(Card.Suit.SPADES, Card.Rank.QUEEN);
+        assertEquals(Card.of(Card.Suit.SPADES, Card.Rank.QUEEN), card);
+        assertEquals(Card.of(Card.Suit.SPADES, Card.Rank.QUEEN).hashCode(), card.hashCode());
+    }
+
+    @Test
+    public void everyCardParsesFromItsName() {
+        for (Card card : Card.getDeck()) {
+            assertSame(card, Card.parse(card.toString()));
+        }
+    }
+
+    @Test
+    public void parseRejectsAnythingElse() {
+        assertNull(Card.parse(null));
+        assertNull(Card.parse(""));
+        assertNull(Card.parse("QUEEN of HEARTZ"));
+        assertNull(Card.parse("queen of hearts"));
+        assertNull(Card.parse("QUEEN of  HEARTS"));
+        assertNull(Card.parse("TWO HEARTS of SPADES"));
+    }
+
+    @Test
+    public void onlyEightsAreEights() {
+        int eights = 0;
+        for (Card card : Card.getDeck()) {
+            if (CardCollection.cardIsEight(card)) {
+                eights++;
+                assertEquals(Card.Rank.EIGHT, card.getRank());
+            }
+        }
+        assertEquals(4, eights);
+        assertFalse(CardCollection.cardIsEight(Card.of(Card.Suit.HEARTS, Card.Rank.NINE)));
+        assertTrue(CardCollection.cardIsEight(new Card(Card.Suit.HEARTS, Card.Rank.EIGHT)));
+    }
+}
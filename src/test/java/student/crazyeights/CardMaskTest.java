@@ -0,0 +1,61 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CardMaskTest {
+
+    @Test
+    public void fullDeckHoldsEveryCard() {
+        assertEquals(52, CardMask.count(CardMask.FULL_DECK));
+        assertEquals(CardMask.FULL_DECK, CardMask.of(Card.getDeck()));
+    }
+
+    @Test
+    public void suitAndRankMasksPartitionTheDeck() {
+        long suits = CardMask.EMPTY;
+        for (Card.Suit suit : Card.Suit.values()) {
+            assertEquals(13, CardMask.count(CardMask.suitMask(suit)));
+            assertEquals(CardMask.EMPTY, suits & CardMask.suitMask(suit));
+            suits |= CardMask.suitMask(suit);
+        }
+        assertEquals(CardMask.FULL_DECK, suits);
+
+        long ranks = CardMask.EMPTY;
+        for (Card.Rank rank : Card.Rank.values()) {
+            assertEquals(4, CardMask.count(CardMask.rankMask(rank)));
+            ranks |= CardMask.rankMask(rank);
+        }
+        assertEquals(CardMask.FULL_DECK, ranks);
+        assertEquals(CardMask.rankMask(Card.Rank.EIGHT), CardMask.EIGHTS);
+    }
+
+    @Test
+    public void addRemoveAndContains() {
+        Card card = Card.of(Card.Suit.HEARTS, Card.Rank.KING);
+        long mask = CardMask.add(CardMask.EMPTY, card);
+        assertTrue(CardMask.contains(mask, card));
+        assertFalse(CardMask.contains(CardMask.remove(mask, card), card));
+    }
+
+    @Test
+    public void toListIsInIdOrder() {
+        List<Card> cards = Arrays.asList(
+            Card.of(Card.Suit.CLUBS, Card.Rank.TWO),
+            Card.of(Card.Suit.DIAMONDS, Card.Rank.ACE),
+            Card.of(Card.Suit.HEARTS, Card.Rank.TEN)
+        );
+        long mask = CardMask.of(cards);
+        assertEquals(Arrays.asList(cards.get(1), cards.get(2), cards.get(0)), CardMask.toList(mask));
+        assertSame(cards.get(1), CardMask.first(mask));
+        assertNull(CardMask.first(CardMask.EMPTY));
+    }
+}
@@ -0,0 +1,133 @@
+package student.crazyeights;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class CheckpointTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void statisticsResumeAfterACrashAsIfNothingHappened() throws IOException {
+        List<String> seats = Arrays.asList("ai", "flaky", "ai");
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register("flaky", PlayerAI::new);
+        String expected = new Arena(registry, seats, 11, 2).collectStatistics(2000).toString();
+
+        // The strategy fails for good in the fourth chunk of games.
+        AtomicInteger created = new AtomicInteger();
+        StrategyRegistry crashing = new StrategyRegistry();
+        crashing.register("flaky", () -> {
+            if (created.incrementAndGet() > 3 * SimulationRunner.STATS_CHUNK_SIZE) {
+                throw new IllegalStateException("Crash");
+            }
+            return new PlayerAI();
+        });
+        Path checkpoint = folder.getRoot().toPath().resolve("stats.checkpoint");
+        try {
+            new Arena(crashing, seats, 11, 1).collectStatistics(2000, checkpoint, 300);
+            fail();
+        } catch (IllegalStateException e) {
+            // The run stopped after its first checkpoint, which covers 512 games.
+        }
+        assertEquals(Checkpoint.STATISTICS, Checkpoint.kindOf(checkpoint));
+
+        assertEquals(expected, Arena.resumeStatistics(registry, checkpoint, 2).toString());
+        // A finished run only reports what it found.
+        assertEquals(expected, Arena.resumeStatistics(registry, checkpoint, 2).toString());
+        assertFalse(Files.exists(checkpoint.resolveSibling("stats.checkpoint.tmp")));
+    }
+
+    @Test
+    public void tournamentsResumeAsIfNothingHappened() throws IOException {
+        Tournament uninterrupted = new Tournament(new Random(3), 3);
+        uninterrupted.startTournament();
+
+        Path checkpoint = folder.getRoot().toPath().resolve("tournament.checkpoint");
+        Tournament checkpointed = new Tournament(new Random(3), 3);
+        checkpointed.setCheckpoint(checkpoint, 1);
+        checkpointed.startTournament();
+        assertArrayEquals(uninterrupted.getTournamentScore(), checkpointed.getTournamentScore());
+
+        // Resuming the finished tournament plays nothing more.
+        Tournament finished = Tournament.resume(checkpoint);
+        finished.startTournament();
+        assertEquals(uninterrupted.getGamesPlayed(), finished.getGamesPlayed());
+        assertArrayEquals(uninterrupted.getTournamentScore(), finished.getTournamentScore());
+
+        // Rewinding the checkpoint to before the first game plays every game again, the same way.
+        rewind(checkpoint);
+        Tournament replayed = Tournament.resume(checkpoint);
+        replayed.startTournament();
+        assertEquals(uninterrupted.getGamesPlayed(), replayed.getGamesPlayed());
+        assertArrayEquals(uninterrupted.getTournamentScore(), replayed.getTournamentScore());
+        for (int seat = 0; seat < 3; seat++) {
+            assertEquals(uninterrupted.getPlayers().get(seat).getName(), replayed.getPlayers().get(seat).getName());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherFilesAreRejected() throws IOException {
+        Path file = folder.newFile("not-a-checkpoint").toPath();
+        Files.write(file, "Hello, world".getBytes("US-ASCII"));
+        Checkpoint.kindOf(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void checkpointsOfOtherRunsAreRejected() throws IOException {
+        Path checkpoint = folder.getRoot().toPath().resolve("tournament.checkpoint");
+        Tournament tournament = new Tournament(new Random(3), 2);
+        tournament.setCheckpoint(checkpoint, 1);
+        tournament.startTournament();
+        Arena.resumeStatistics(new StrategyRegistry(), checkpoint, 1);
+    }
+
+    /**
+     * Writes the tournament back to before its first game.
+     */
+    private static void rewind(Path checkpoint) throws IOException {
+        int numOfPlayers;
+        long gameSeedBase;
+        int algorithm;
+        String[] names;
+        try (DataInputStream in = Checkpoint.read(checkpoint, Checkpoint.TOURNAMENT)) {
+            numOfPlayers = in.readUnsignedByte();
+            gameSeedBase = in.readLong();
+            algorithm = in.readUnsignedByte();
+            in.readInt();
+            in.readInt();
+            names = new String[numOfPlayers];
+            for (int seat = 0; seat < numOfPlayers; seat++) {
+                names[seat] = in.readUTF();
+                in.readLong();
+            }
+        }
+        Checkpoint.write(checkpoint, Checkpoint.TOURNAMENT, out -> {
+            out.writeByte(numOfPlayers);
+            out.writeLong(gameSeedBase);
+            out.writeByte(algorithm);
+            out.writeInt(0);
+            out.writeInt(1);
+            for (String name : names) {
+                out.writeUTF(name);
+                out.writeLong(0);
+            }
+        });
+    }
+}
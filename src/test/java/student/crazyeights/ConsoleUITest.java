@@ -0,0 +1,65 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConsoleUITest {
+
+    private static String playTournament(OutputLevel level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] input = "3\n".getBytes(StandardCharsets.UTF_8);
+        ConsoleUI ui = new ConsoleUI(new ByteArrayInputStream(input), new PrintStream(out), level);
+        new Tournament(ui, new Random(11)).startTournament();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void silentOnlyAsksQuestions() {
+        assertEquals(ConsoleUI.NUMBER_OF_PLAYER_REQUEST + System.lineSeparator(), playTournament(OutputLevel.SILENT));
+    }
+
+    @Test
+    public void resultsLeaveOutTheTurns() {
+        String output = playTournament(OutputLevel.RESULTS);
+        assertTrue(output.contains(ConsoleUI.END_TOURNAMENT_ANNOUNCEMENT));
+        assertTrue(output.contains(ConsoleUI.GAME_SCORE_ANNOUNCEMENT));
+        assertFalse(output.contains(ConsoleUI.DRAW_CARD_REPORT));
+        assertFalse(output.contains(ConsoleUI.TOP_CARD_DISPLAY));
+    }
+
+    @Test
+    public void turnsLeaveOutTheTableState() {
+        String output = playTournament(OutputLevel.TURNS);
+        assertTrue(output.contains(ConsoleUI.DRAW_CARD_REPORT));
+        assertFalse(output.contains(ConsoleUI.TOP_CARD_DISPLAY));
+        assertFalse(output.contains(ConsoleUI.PLAYER_NAME_REQUEST));
+    }
+
+    @Test
+    public void verboseShowsEverything() {
+        String output = playTournament(OutputLevel.VERBOSE);
+        assertTrue(output.contains(ConsoleUI.PLAYER_NAME_REQUEST));
+        assertTrue(output.contains(ConsoleUI.TOP_CARD_DISPLAY));
+        assertTrue(output.contains(ConsoleUI.DRAW_CARD_REPORT));
+        assertTrue(output.endsWith(ConsoleUI.END_TOURNAMENT_ANNOUNCEMENT + System.lineSeparator()));
+    }
+
+    @Test
+    public void outputWaitsForTheEndOfTheGame() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ConsoleUI ui = new ConsoleUI(new ByteArrayInputStream(new byte[0]), new PrintStream(out), OutputLevel.TURNS);
+        ui.newTurn();
+        assertEquals(0, out.size());
+        ui.flush();
+        assertTrue(out.size() > 0);
+    }
+}
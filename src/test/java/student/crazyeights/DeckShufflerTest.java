@@ -0,0 +1,134 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeckShufflerTest {
+
+    /**
+     * The number of decks each uniformity test shuffles. Raise it, e.g. with
+     * {@code mvn test -Dshuffle.trials=300000000}, for a much more sensitive check.
+     */
+    private static final long TRIALS = Long.getLong("shuffle.trials", 200_000);
+
+    private static final int CHUNKS = 64;
+    private static final int NON_EIGHTS = Card.DECK_SIZE - 4;
+
+    @Test
+    public void xoshiroMatchesTheReferenceOutput() {
+        Random random = new Xoshiro256StarStar(1, 2, 3, 4);
+        assertEquals(11520L, random.nextLong());
+        assertEquals(0L, random.nextLong());
+        assertEquals(1509978240L, random.nextLong());
+        assertEquals(1215971899390074240L, random.nextLong());
+    }
+
+    @Test
+    public void sameSeedGivesSameDeck() {
+        for (RandomAlgorithm algorithm : RandomAlgorithm.values()) {
+            int[] first = new DeckShuffler().shuffleDeck(algorithm.create(3)).clone();
+            int[] second = new DeckShuffler().shuffleDeck(algorithm.create(3)).clone();
+            assertArrayEquals(first, second);
+        }
+    }
+
+    @Test
+    public void collectionShuffleKeepsTheCardsAndAnEightOffTop() {
+        CardCollection deck = CardCollection.createDeck("deck", new Random(5));
+        for (int i = 0; i < 1000; i++) {
+            deck.shuffle(new Random(i));
+            assertEquals(CardMask.FULL_DECK, deck.getMask());
+            assertEquals(Card.DECK_SIZE, deck.size());
+            assertFalse(CardCollection.cardIsEight(deck.getTopCard()));
+        }
+    }
+
+    @Test
+    public void jdkShuffleIsUniform() {
+        assertUniform(RandomAlgorithm.JDK);
+    }
+
+    @Test
+    public void splittableShuffleIsUniform() {
+        assertUniform(RandomAlgorithm.SPLITTABLE);
+    }
+
+    @Test
+    public void xoshiroShuffleIsUniform() {
+        assertUniform(RandomAlgorithm.XOSHIRO);
+    }
+
+    /**
+     * Counts which card lands in which position over many shuffles, in parallel chunks, and
+     * checks the counts with a chi-squared test. The top card is uniform over the non-eights and
+     * every other position over all cards but the top one.
+     */
+    private static void assertUniform(RandomAlgorithm algorithm) {
+        long[][] counts = IntStream.range(0, CHUNKS).parallel()
+                .mapToObj(chunk -> countPositions(algorithm, chunk))
+                .reduce(new long[Card.DECK_SIZE][Card.DECK_SIZE], DeckShufflerTest::add);
+
+        double topStatistic = 0;
+        double restStatistic = 0;
+        int top = Card.DECK_SIZE - 1;
+        for (int id = 0; id < Card.DECK_SIZE; id++) {
+            boolean eight = (CardMask.EIGHTS & (1L << id)) != 0;
+            if (eight) {
+                assertEquals(0, counts[top][id]);
+            } else {
+                topStatistic += chiSquaredTerm(counts[top][id], (double) TRIALS / NON_EIGHTS);
+            }
+            // An eight is never on top; a non-eight is on top one time in 48.
+            double rest = eight ? 1.0 / top : (1 - 1.0 / NON_EIGHTS) / top;
+            for (int position = 0; position < top; position++) {
+                restStatistic += chiSquaredTerm(counts[position][id], TRIALS * rest);
+            }
+        }
+
+        assertTrue(algorithm + " top card: " + topStatistic, topStatistic < bound(NON_EIGHTS - 1));
+        assertTrue(algorithm + " other cards: " + restStatistic, restStatistic < bound(top * top));
+    }
+
+    private static long[][] countPositions(RandomAlgorithm algorithm, int chunk) {
+        long[][] counts = new long[Card.DECK_SIZE][Card.DECK_SIZE];
+        Random random = algorithm.create(EightsUtils.deriveSeed(126, chunk));
+        DeckShuffler shuffler = new DeckShuffler();
+        long trials = TRIALS / CHUNKS + (chunk < TRIALS % CHUNKS ? 1 : 0);
+        for (long t = 0; t < trials; t++) {
+            int[] deck = shuffler.shuffleDeck(random);
+            for (int position = 0; position < Card.DECK_SIZE; position++) {
+                counts[position][deck[position]]++;
+            }
+        }
+        return counts;
+    }
+
+    private static long[][] add(long[][] total, long[][] counts) {
+        long[][] sum = new long[Card.DECK_SIZE][Card.DECK_SIZE];
+        for (int position = 0; position < Card.DECK_SIZE; position++) {
+            for (int id = 0; id < Card.DECK_SIZE; id++) {
+                sum[position][id] = total[position][id] + counts[position][id];
+            }
+        }
+        return sum;
+    }
+
+    private static double chiSquaredTerm(long observed, double expected) {
+        double difference = observed - expected;
+        return difference * difference / expected;
+    }
+
+    /**
+     * Six standard deviations above the mean of a chi-squared distribution.
+     */
+    private static double bound(int degreesOfFreedom) {
+        return degreesOfFreedom + 6 * Math.sqrt(2.0 * degreesOfFreedom);
+    }
+}
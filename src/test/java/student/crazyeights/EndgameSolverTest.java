@@ -0,0 +1,186 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EndgameSolverTest {
+
+    private static final long BUDGET = 1_000_000;
+
+    @Test
+    public void countsEveryWayToDealTheUnseenCards() {
+        assertEquals(8, EndgameSolver.countDeals(7, 1));
+        assertEquals(9 * 8, EndgameSolver.countDeals(7, 2));
+        assertEquals(10 * 9 * 8, EndgameSolver.countDeals(7, 3));
+        assertEquals(Long.MAX_VALUE, EndgameSolver.countDeals(1, 40));
+    }
+
+    @Test
+    public void playsTheLastCard() {
+        Card last = Card.of(Card.Suit.HEARTS, Card.Rank.KING);
+        Card top = Card.of(Card.Suit.HEARTS, Card.Rank.TWO);
+        long unseen = CardMask.of(Arrays.asList(
+                Card.of(Card.Suit.CLUBS, Card.Rank.ACE),
+                Card.of(Card.Suit.SPADES, Card.Rank.ACE),
+                Card.of(Card.Suit.DIAMONDS, Card.Rank.ACE)));
+
+        int move = new EndgameSolver().solve(CardMask.bit(last), unseen, 2, top.getId(), SimGame.NO_SUIT, BUDGET);
+        assertEquals(SimGame.playMove(last.getId(), SimGame.NO_SUIT), move);
+    }
+
+    @Test
+    public void declaresASuitTheOpponentCannotFollow() {
+        // The opponent holds a red king. Declaring a black suit leaves it unable to follow, so it
+        // has to draw the last card and the game ends with only the queen left in hand.
+        Card eight = Card.of(Card.Suit.CLUBS, Card.Rank.EIGHT);
+        Card queen = Card.of(Card.Suit.SPADES, Card.Rank.QUEEN);
+        Card top = Card.of(Card.Suit.HEARTS, Card.Rank.TWO);
+        long hand = CardMask.bit(eight) | CardMask.bit(queen);
+        long unseen = CardMask.bit(Card.of(Card.Suit.HEARTS, Card.Rank.KING))
+                | CardMask.bit(Card.of(Card.Suit.DIAMONDS, Card.Rank.KING));
+
+        int move = new EndgameSolver().solve(hand, unseen, 1, top.getId(), SimGame.NO_SUIT, BUDGET);
+        assertEquals(eight.getId(), SimGame.cardOf(move));
+        int declared = SimGame.suitOf(move);
+        assertTrue(declared == Card.Suit.SPADES.ordinal() || declared == Card.Suit.CLUBS.ordinal());
+    }
+
+    @Test
+    public void givesUpWhenTheBudgetRunsOut() {
+        Random random = new Random(3);
+        int[] deck = new DeckShuffler().shuffleDeck(random);
+        long hand = mask(deck, 0, 8);
+        long unseen = mask(deck, 8, 8 + 9);
+        assertEquals(EndgameSolver.NO_MOVE, new EndgameSolver().solve(hand, unseen, 7, deck[51], SimGame.NO_SUIT, 10));
+    }
+
+    @Test
+    public void choosesAMoveWithTheBestTotalMargin() {
+        Random random = new Random(126);
+        EndgameSolver solver = new EndgameSolver();
+        for (int i = 0; i < 200; i++) {
+            int[] deck = new DeckShuffler().shuffleDeck(random);
+            int ownSize = 1 + random.nextInt(3);
+            int opponentSize = 1 + random.nextInt(3);
+            int pileSize = 1 + random.nextInt(2);
+            long hand = mask(deck, 0, ownSize);
+            long unseen = mask(deck, ownSize, ownSize + opponentSize + pileSize);
+            int top = deck[51];
+            int declared = random.nextInt(5) - 1;
+
+            int move = solver.solve(hand, unseen, opponentSize, top, declared, BUDGET);
+            List<Integer> moves = new ArrayList<>();
+            long[] totals = referenceTotals(hand, unseen, opponentSize, top, declared, moves);
+            long best = Long.MIN_VALUE;
+            for (long total : totals) {
+                best = Math.max(best, total);
+            }
+            assertEquals("position " + i, best, totals[moves.indexOf(move)]);
+        }
+    }
+
+    @Test
+    public void endgamePlayerBeatsThePlainHeuristics() {
+        StrategyRegistry registry = new StrategyRegistry();
+        StatsAggregator stats = new SimulationRunner(126, 2).aggregateGames(2000, registry,
+                i -> i % 2 == 0 ? Arrays.asList("endgame", "ai") : Arrays.asList("ai", "endgame"));
+        assertTrue(stats.getStrategyStats("endgame").getMeanScore() > stats.getStrategyStats("ai").getMeanScore());
+    }
+
+    /**
+     * The total margin of every root move over every deal, by plain minimax.
+     */
+    private static long[] referenceTotals(long hand, long unseen, int opponentSize, int top, int declared,
+                                          List<Integer> moves) {
+        SimGame root = new SimGame(2);
+        root.setUp(top, declared, 0);
+        root.setHand(0, hand);
+        root.pushDrawPile(Long.numberOfTrailingZeros(unseen));
+        int[] rootMoves = new int[SimGame.MAX_MOVES];
+        int numOfMoves = root.legalMoves(rootMoves);
+        for (int i = 0; i < numOfMoves; i++) {
+            moves.add(rootMoves[i]);
+        }
+
+        long[] totals = new long[numOfMoves];
+        List<Integer> ids = new ArrayList<>();
+        for (long rest = unseen; rest != 0; rest &= rest - 1) {
+            ids.add(Long.numberOfTrailingZeros(rest));
+        }
+        for (List<Integer> order : permutations(ids)) {
+            // The first cards of an order are the opponent's hand; only the pile's order matters.
+            List<Integer> opponentIds = new ArrayList<>(order.subList(0, opponentSize));
+            List<Integer> sorted = new ArrayList<>(opponentIds);
+            sorted.sort(null);
+            if (!opponentIds.equals(sorted)) {
+                continue;
+            }
+            for (int i = 0; i < numOfMoves; i++) {
+                SimGame game = new SimGame(2);
+                game.setUp(top, declared, 0);
+                game.setHand(0, hand);
+                long opponentHand = CardMask.EMPTY;
+                for (int id : opponentIds) {
+                    opponentHand |= 1L << id;
+                }
+                game.setHand(1, opponentHand);
+                for (int id : order.subList(opponentSize, order.size())) {
+                    game.pushDrawPile(id);
+                }
+                game.checkOver();
+                game.apply(rootMoves[i]);
+                totals[i] -= minimax(game);
+            }
+        }
+        return totals;
+    }
+
+    private static int minimax(SimGame game) {
+        int toMove = game.getCurrentSeat();
+        if (game.isOver()) {
+            return game.handValue(1 - toMove) - game.handValue(toMove);
+        }
+        int[] moves = new int[SimGame.MAX_MOVES];
+        int numOfMoves = game.legalMoves(moves);
+        int best = Integer.MIN_VALUE;
+        for (int i = 0; i < numOfMoves; i++) {
+            SimGame child = new SimGame(2);
+            child.copyFrom(game);
+            child.apply(moves[i]);
+            best = Math.max(best, -minimax(child));
+        }
+        return best;
+    }
+
+    private static List<List<Integer>> permutations(List<Integer> ids) {
+        List<List<Integer>> result = new ArrayList<>();
+        if (ids.isEmpty()) {
+            result.add(new ArrayList<>());
+            return result;
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            List<Integer> rest = new ArrayList<>(ids);
+            Integer first = rest.remove(i);
+            for (List<Integer> permutation : permutations(rest)) {
+                permutation.add(0, first);
+                result.add(permutation);
+            }
+        }
+        return result;
+    }
+
+    private static long mask(int[] deck, int from, int to) {
+        long mask = CardMask.EMPTY;
+        for (int i = from; i < to; i++) {
+            mask |= 1L << deck[i];
+        }
+        return mask;
+    }
+}
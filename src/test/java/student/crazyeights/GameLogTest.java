@@ -0,0 +1,104 @@
+package student.crazyeights;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GameLogTest {
+
+    private static final List<String> SEATS = Arrays.asList("ai", "ai", "ai", "ai", "ai", "ai", "ai");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void logHoldsTheRecordedGames() throws IOException {
+        StrategyRegistry registry = new StrategyRegistry();
+        SimulationRunner runner = new SimulationRunner(5, 2, RandomAlgorithm.XOSHIRO);
+        GameRecord[] records = runner.recordGames(300, registry, i -> SEATS);
+
+        Path file = folder.newFile().toPath();
+        try (GameLogWriter log = new GameLogWriter(file)) {
+            runner.logGames(300, registry, i -> SEATS, log);
+        }
+
+        // A small window makes the reader map the file several times.
+        try (GameLogReader log = new GameLogReader(file, 4096)) {
+            for (GameRecord record : records) {
+                assertTrue(log.nextGame());
+                GameResult result = record.getResult();
+                assertEquals(result.getSeed(), log.getSeed());
+                assertEquals(RandomAlgorithm.XOSHIRO, log.getRandomAlgorithm());
+                assertEquals(SEATS.size(), log.getNumberOfSeats());
+                assertEquals("ai", log.getStrategy(6));
+                for (int seat = 0; seat < SEATS.size(); seat++) {
+                    assertEquals(result.getScore(seat), log.getScore(seat));
+                }
+                assertEquals(record.getNumberOfDecisions(), log.getNumberOfTurns());
+
+                int previousSeat = -1;
+                for (int turn = 0; turn < record.getNumberOfDecisions(); turn++) {
+                    assertTrue(log.nextTurn());
+                    assertEquals(record.getDecision(turn), GameRecord.encode(log.toPlayerTurn()));
+                    if (previousSeat >= 0) {
+                        assertEquals((previousSeat + 1) % SEATS.size(), log.getSeat());
+                    }
+                    previousSeat = log.getSeat();
+                }
+                assertFalse(log.nextTurn());
+            }
+            assertFalse(log.nextGame());
+        }
+    }
+
+    @Test
+    public void turnsTakeOneOrTwoBytes() throws IOException {
+        GameLogWriter.Turns turns = new GameLogWriter.Turns();
+        PlayerTurn draw = new PlayerTurn();
+        draw.setDrewACard(true);
+        PlayerTurn eight = new PlayerTurn();
+        eight.setPlayedCard(Card.of(Card.Suit.DIAMONDS, Card.Rank.EIGHT));
+        eight.setDeclaredSuit(Card.Suit.HEARTS);
+        turns.turnPlayed(6, draw);
+        turns.turnPlayed(2, eight);
+
+        Path file = folder.newFile().toPath();
+        try (GameLogWriter log = new GameLogWriter(file)) {
+            log.write(new GameResult(1, new String[] {"x", "y", "z", "a", "b", "c", "d"}, new int[7],
+                    GameResult.Ending.DRAW_PILE_EMPTY, 2), RandomAlgorithm.JDK, turns);
+        }
+        int header = 4 + 2 + 8 + 1 + 3 + 1 + 7 * 2 + 7 * 2 + 4 + 4;
+        assertEquals(header + 1 + 2, Files.size(file));
+
+        try (GameLogReader log = new GameLogReader(file)) {
+            assertTrue(log.nextGame());
+            assertEquals(RandomAlgorithm.JDK, log.getRandomAlgorithm());
+            assertTrue(log.nextTurn());
+            assertEquals(6, log.getSeat());
+            assertTrue(log.isDraw());
+            assertTrue(log.nextTurn());
+            assertEquals(2, log.getSeat());
+            assertEquals(eight.getPlayedCard().getId(), log.getCardId());
+            assertEquals(Card.Suit.HEARTS.ordinal(), log.getDeclaredSuit());
+            assertFalse(log.nextTurn());
+            assertFalse(log.nextGame());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readerRejectsOtherFiles() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, "not a log".getBytes("UTF-8"));
+        new GameLogReader(file).close();
+    }
+}
@@ -0,0 +1,80 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class GameReplayerTest {
+
+    private static final List<String> SEATS = Arrays.asList("ai", "ai", "ai");
+
+    private final StrategyRegistry registry = new StrategyRegistry();
+
+    @Test
+    public void recordSurvivesItsTextForm() {
+        GameRecord record = SimulationRunner.recordGame(42, registry, SEATS);
+        assertEquals(record.getResult().getNumberOfTurns(), record.getNumberOfDecisions());
+        assertEquals(record, GameRecord.parse(record.toLine()));
+    }
+
+    @Test
+    public void replayedGamesMakeTheRecordedDecisions() {
+        GameRecord[] records = new SimulationRunner(3, 2).recordGames(50, registry, i -> SEATS);
+        int[] divergences = new GameReplayer(registry, 2).replayAll(Arrays.asList(records));
+        for (int divergence : divergences) {
+            assertEquals(GameReplayer.NO_DIVERGENCE, divergence);
+        }
+    }
+
+    @Test
+    public void replayUsesTheGeneratorOfTheRecord() {
+        SimulationRunner runner = new SimulationRunner(3, 2, RandomAlgorithm.XOSHIRO);
+        GameRecord[] records = runner.recordGames(20, registry, i -> SEATS);
+        List<GameRecord> parsed = new ArrayList<>();
+        for (GameRecord record : records) {
+            parsed.add(GameRecord.parse(record.toLine()));
+        }
+        assertEquals(RandomAlgorithm.XOSHIRO, parsed.get(0).getAlgorithm());
+        for (int divergence : new GameReplayer(registry, 2).replayAll(parsed)) {
+            assertEquals(GameReplayer.NO_DIVERGENCE, divergence);
+        }
+    }
+
+    @Test
+    public void replayFindsTheFirstChangedDecision() {
+        GameRecord record = SimulationRunner.recordGame(42, registry, SEATS);
+        int[] decisions = new int[record.getNumberOfDecisions()];
+        for (int turn = 0; turn < decisions.length; turn++) {
+            decisions[turn] = record.getDecision(turn);
+        }
+        decisions[3] = decisions[3] == GameRecord.DRAW ? 0 : GameRecord.DRAW;
+        GameRecord changed = new GameRecord(record.getResult(), record.getAlgorithm(), decisions);
+
+        assertEquals(3, new GameReplayer(registry, 1).findDivergence(changed));
+    }
+
+    @Test
+    public void replayNoticesAMissingEnd() {
+        GameRecord record = SimulationRunner.recordGame(42, registry, SEATS);
+        int[] decisions = new int[record.getNumberOfDecisions() + 1];
+        for (int turn = 0; turn < record.getNumberOfDecisions(); turn++) {
+            decisions[turn] = record.getDecision(turn);
+        }
+        GameRecord longer = new GameRecord(record.getResult(), record.getAlgorithm(), decisions);
+
+        assertEquals(record.getNumberOfDecisions(), new GameReplayer(registry, 1).findDivergence(longer));
+    }
+
+    @Test
+    public void decisionsAreReadable() {
+        assertEquals("draw", GameRecord.describe(GameRecord.DRAW));
+        PlayerTurn turn = new PlayerTurn();
+        turn.setPlayedCard(Card.of(Card.Suit.CLUBS, Card.Rank.EIGHT));
+        turn.setDeclaredSuit(Card.Suit.SPADES);
+        assertEquals("EIGHT of CLUBS>SPADES", GameRecord.describe(GameRecord.encode(turn)));
+    }
+}
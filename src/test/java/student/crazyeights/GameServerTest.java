@@ -0,0 +1,191 @@
+package student.crazyeights;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameServerTest {
+
+    private GameServer server;
+    private Thread serverThread;
+    private final List<GameResult> results = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void startServer() throws IOException {
+        server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 77);
+        server.setResultListener(results::add);
+        serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    @After
+    public void stopServer() throws InterruptedException {
+        server.close();
+        serverThread.join(10_000);
+    }
+
+    @Test
+    public void remoteGamesAreTheSameAsHeadlessGames() throws IOException {
+        LoadClient.Report report = newLoadClient().run(20, 3, 3, 2);
+        assertEquals(40, report.getConnections());
+        assertEquals(40, report.getFinishedSeats());
+        assertEquals(0, report.getErrors());
+        assertEquals(60, report.getGames());
+
+        // Remote AI players play exactly as they would in process.
+        assertEquals(60, results.size());
+        GameTable table = new GameTable(new StrategyRegistry(), Arrays.asList("ai", "ai", "ai"));
+        for (GameResult result : results) {
+            assertEquals("remote", result.getStrategy(0));
+            assertEquals("ai", result.getStrategy(2));
+            GameResult headless = table.play(result.getSeed());
+            assertArrayEquals(headless.getScores(), result.getScores());
+            assertEquals(headless.getNumberOfTurns(), result.getNumberOfTurns());
+        }
+    }
+
+    @Test
+    public void manyTablesRunAtOnce() throws IOException {
+        LoadClient.Report report = newLoadClient().run(300, 4, 2, 1);
+        assertEquals(300, report.getFinishedSeats());
+        assertEquals(600, report.getGames());
+        assertEquals(0, server.getActiveTables());
+    }
+
+    @Test
+    public void illegalMovesAreRejectedAndTheTableWaits() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+
+            out.println("HELLO");
+            assertTrue(in.readLine().startsWith(TableProtocol.ERROR));
+
+            out.println(ClientSession.join(2, 1, 1));
+            assertTrue(in.readLine().startsWith(TableProtocol.SEAT));
+            long hand = CardMask.EMPTY;
+            String line;
+            while (!(line = in.readLine()).startsWith(TableProtocol.TURN)) {
+                if (line.startsWith(TableProtocol.HAND)) {
+                    for (String id : line.substring(TableProtocol.HAND.length() + 1).split(" ")) {
+                        hand = CardMask.add(hand, Card.fromId(Integer.parseInt(id)));
+                    }
+                }
+            }
+
+            out.println("MOVE 9999");
+            assertTrue(in.readLine().startsWith(TableProtocol.ERROR));
+            Card notHeld = CardMask.first(CardMask.FULL_DECK & ~hand);
+            out.println("MOVE " + TableProtocol.encodeMove(false, notHeld, null));
+            assertTrue(in.readLine().startsWith(TableProtocol.ERROR));
+
+            // Drawing is always allowed, and the game goes on.
+            out.println("MOVE " + GameRecord.DRAW);
+            assertTrue(in.readLine().startsWith(TableProtocol.CARD));
+        }
+    }
+
+    @Test
+    public void tablesCloseWhenTheirPlayersLeave() throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+            out.println(ClientSession.join(3, 5, 1));
+            assertTrue(in.readLine().startsWith(TableProtocol.SEAT));
+            assertEquals(1, server.getActiveTables());
+        }
+        for (int wait = 0; wait < 100 && server.getActiveTables() > 0; wait++) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, server.getActiveTables());
+        assertEquals(0, server.getConnections());
+    }
+
+    @Test
+    public void aBotFinishesTheMatchOfAPlayerWhoLeaves() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            // The leaver drops out while the table waits for its fifth move.
+            Future<ClientSession> leaver = clients.submit(() -> playSeat(ClientSession.join(3, 3, 2), 5));
+            Future<ClientSession> stayer = clients.submit(() -> playSeat(ClientSession.join(3, 3, 2), -1));
+            assertEquals(0, leaver.get(30, TimeUnit.SECONDS).getGamesPlayed());
+            ClientSession finished = stayer.get(30, TimeUnit.SECONDS);
+            assertTrue(finished.isFinished());
+            assertEquals(3, finished.getGamesPlayed());
+        } finally {
+            clients.shutdownNow();
+        }
+
+        // The bot picks up the seat where the player left it, so nothing changes.
+        assertEquals(3, results.size());
+        GameTable table = new GameTable(new StrategyRegistry(), Arrays.asList("ai", "ai", "ai"));
+        for (GameResult result : results) {
+            GameResult headless = table.play(result.getSeed());
+            assertArrayEquals(headless.getScores(), result.getScores());
+            assertEquals(headless.getNumberOfTurns(), result.getNumberOfTurns());
+        }
+    }
+
+    /**
+     * Plays a seat with a {@link PlayerAI} until the match is over, or leaves instead of making
+     * a move.
+     *
+     * @param join        The line that asks for the seat
+     * @param leaveAtMove The move, counted from 1, to leave at, or -1 to stay to the end
+     */
+    private ClientSession playSeat(String join, int leaveAtMove) throws IOException {
+        ClientSession session = new ClientSession(new PlayerAI());
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+            out.println(join);
+            int moves = 0;
+            String line;
+            while (!session.isFinished() && (line = in.readLine()) != null) {
+                String answer = session.handle(line);
+                if (answer != null) {
+                    if (++moves == leaveAtMove) {
+                        break;
+                    }
+                    out.println(answer);
+                }
+            }
+        }
+        return session;
+    }
+
+    private LoadClient newLoadClient() {
+        return new LoadClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()),
+                PlayerAI::new);
+    }
+}
@@ -0,0 +1,118 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GameTableTest {
+
+    private static final StrategyRegistry REGISTRY = new StrategyRegistry();
+
+    @Test
+    public void reusedTableGivesTheSameGamesAsNewPlayers() {
+        for (int numOfPlayers = 2; numOfPlayers <= 7; numOfPlayers++) {
+            GameTable table = new GameTable(REGISTRY, seats(numOfPlayers));
+            for (long seed = 0; seed < 50; seed++) {
+                assertEquals(SimulationRunner.playGame(seed, numOfPlayers), table.play(seed));
+            }
+        }
+    }
+
+    @Test
+    public void reusedTableGivesTheSameIsmctsGamesAsNewPlayers() {
+        List<String> seats = Arrays.asList("ismcts", "ai", "ai");
+        GameTable table = new GameTable(REGISTRY, seats);
+        for (long seed = 0; seed < 4; seed++) {
+            assertEquals(SimulationRunner.playGame(seed, REGISTRY, seats), table.play(seed));
+        }
+    }
+
+    @Test
+    public void gamesDoNotDependOnWhatWasPlayedBefore() {
+        GameTable forwards = new GameTable(REGISTRY, seats(3));
+        GameTable backwards = new GameTable(REGISTRY, seats(3));
+        GameResult[] results = new GameResult[40];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = forwards.play(i);
+        }
+        for (int i = results.length - 1; i >= 0; i--) {
+            assertEquals(results[i], backwards.play(i));
+        }
+    }
+
+    @Test
+    public void pooledTurnsAreClearedBetweenGames() {
+        GameTable table = new GameTable(REGISTRY, seats(4));
+        List<String> reused = new ArrayList<>();
+        table.play(1);
+        table.play(2, (seat, turn) -> reused.add(describe(seat, turn)));
+
+        List<String> fresh = new ArrayList<>();
+        new GameTable(REGISTRY, seats(4)).play(2, (seat, turn) -> fresh.add(describe(seat, turn)));
+
+        assertEquals(fresh, reused);
+    }
+
+    @Test
+    public void everySeatSeesTheWholeHistoryOnce() {
+        List<RecordingStrategy> strategies = new ArrayList<>();
+        for (int seat = 0; seat < 3; seat++) {
+            strategies.add(new RecordingStrategy());
+        }
+        GameTable table = new GameTable(seats(3), strategies);
+        for (long seed = 1; seed <= 2; seed++) {
+            Game game = table.startGame(seed);
+            while (!game.isOver()) {
+                game.beginTurn();
+                // Everything up to this turn, the seat's own last turn included, and nothing twice.
+                RecordingStrategy current = strategies.get(game.getCurrentPlayer().getId());
+                List<String> history = new ArrayList<>();
+                for (PlayerTurn turn : game.getHistory()) {
+                    history.add(describe(turn.getPlayerId(), turn));
+                }
+                assertEquals(history, current.seen);
+                game.decideTurn();
+            }
+            assertTrue(game.getNumberOfTurns() > 3);
+        }
+    }
+
+    /**
+     * Plays like {@link PlayerAI} and keeps a copy of every turn it is handed, in order, for the
+     * current game.
+     */
+    private static final class RecordingStrategy extends PlayerAI {
+        private final List<String> seen = new ArrayList<>();
+
+        @Override
+        public void processOpponentActions(List<PlayerTurn> opponentActions) {
+            for (PlayerTurn turn : opponentActions) {
+                seen.add(describe(turn.getPlayerId(), turn));
+            }
+            super.processOpponentActions(opponentActions);
+        }
+
+        @Override
+        public void reset() {
+            seen.clear();
+            super.reset();
+        }
+    }
+
+    /**
+     * Copies what a turn says, since the turn object itself is reused.
+     */
+    private static String describe(int seat, PlayerTurn turn) {
+        return seat + " " + turn.isDrewACard() + " " + turn.getPlayedCard() + " " + turn.getDeclaredSuit();
+    }
+
+    private static List<String> seats(int numOfPlayers) {
+        return Collections.nCopies(numOfPlayers, StrategyRegistry.DEFAULT_STRATEGY);
+    }
+}
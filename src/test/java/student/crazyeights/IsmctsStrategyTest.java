@@ -0,0 +1,106 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IsmctsStrategyTest {
+
+    private static final String ALWAYS_DRAW = ArenaTest.AlwaysDrawStrategy.class.getName();
+
+    @Test
+    public void simGameListsDrawAndEveryDeclarableSuit() {
+        SimGame game = new SimGame(2);
+        game.setUp(Card.of(Card.Suit.HEARTS, Card.Rank.TWO).getId(), SimGame.NO_SUIT, 0);
+        game.setHand(0, CardMask.of(Arrays.asList(
+                Card.of(Card.Suit.HEARTS, Card.Rank.KING),
+                Card.of(Card.Suit.CLUBS, Card.Rank.EIGHT),
+                Card.of(Card.Suit.SPADES, Card.Rank.FIVE))));
+        game.setHand(1, CardMask.bit(Card.of(Card.Suit.CLUBS, Card.Rank.ACE)));
+        game.pushDrawPile(Card.of(Card.Suit.DIAMONDS, Card.Rank.ACE).getId());
+        game.checkOver();
+
+        int[] moves = new int[SimGame.MAX_MOVES];
+        assertEquals(1 + 1 + 4, game.legalMoves(moves));
+
+        int eight = Card.of(Card.Suit.CLUBS, Card.Rank.EIGHT).getId();
+        game.apply(SimGame.playMove(eight, Card.Suit.SPADES.ordinal()));
+        assertEquals(Card.Suit.SPADES.ordinal(), game.getDeclaredSuit());
+        assertEquals(1, game.getCurrentSeat());
+        assertFalse(game.isOver());
+
+        game.apply(SimGame.DRAW);
+        assertTrue(game.isOver());
+        assertEquals(0, game.getDrawPileSize());
+    }
+
+    @Test
+    public void searchPlaysTheLastCard() {
+        Card last = Card.of(Card.Suit.HEARTS, Card.Rank.KING);
+        IsmctsSearch.Position position = new IsmctsSearch.Position();
+        position.ownHand = CardMask.bit(last);
+        position.topCard = Card.of(Card.Suit.HEARTS, Card.Rank.TWO).getId();
+        position.unseen = CardMask.FULL_DECK & ~position.ownHand & ~CardMask.bit(Card.fromId(position.topCard));
+        position.handSizes = new int[] {1, 7};
+
+        int move = new IsmctsSearch(200, 0, 2).search(position, 1);
+        assertEquals(SimGame.playMove(last.getId(), SimGame.NO_SUIT), move);
+    }
+
+    @Test
+    public void dealsKeepOpponentsOutOfTheirVoids() {
+        IsmctsSearch.Position position = new IsmctsSearch.Position();
+        position.ownHand = CardMask.bit(Card.of(Card.Suit.SPADES, Card.Rank.KING));
+        position.topCard = Card.of(Card.Suit.HEARTS, Card.Rank.TWO).getId();
+        position.unseen = CardMask.FULL_DECK & ~position.ownHand & ~CardMask.bit(Card.fromId(position.topCard));
+        position.handSizes = new int[] {1, 7, 5};
+        // Seat 1 drew on the two of hearts, and seat 2 may hold anything.
+        long hearts = CardMask.ofSuit(CardMask.FULL_DECK, Card.Suit.HEARTS);
+        long twos = CardMask.ofRank(CardMask.FULL_DECK, Card.Rank.TWO);
+        long inferredVoid = (hearts | twos) & ~CardMask.EIGHTS;
+        position.possible = new long[] {0, position.unseen & ~inferredVoid, position.unseen};
+
+        int[] dealOrder = IsmctsSearch.dealOrder(position);
+        assertArrayEquals(new int[] {1, 2}, dealOrder);
+        SimGame game = new SimGame(3);
+        SplittableRandom random = new SplittableRandom(4);
+        int[] buffer = new int[Card.DECK_SIZE];
+        long voidCardsOfSeat2 = CardMask.EMPTY;
+        for (int deal = 0; deal < 500; deal++) {
+            IsmctsSearch.determinize(position, dealOrder, random, game, buffer);
+            assertEquals(CardMask.EMPTY, game.getHand(1) & inferredVoid);
+            assertEquals(7, CardMask.count(game.getHand(1)));
+            assertEquals(5, CardMask.count(game.getHand(2)));
+            assertEquals(CardMask.EMPTY, game.getHand(1) & game.getHand(2));
+            assertEquals(CardMask.count(position.unseen) - 12, game.getDrawPileSize());
+            voidCardsOfSeat2 |= game.getHand(2) & inferredVoid;
+        }
+        // The other opponent still gets those cards.
+        assertEquals(inferredVoid & position.unseen, voidCardsOfSeat2);
+    }
+
+    @Test
+    public void ismctsBeatsAlwaysDrawing() {
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register("fast", () -> new IsmctsStrategy(100, 0, 1, 3));
+        ArenaReport report = new Arena(registry, Arrays.asList("fast", ALWAYS_DRAW), 126, 2).run(40);
+        assertTrue(report.getWinRate("fast") > 0.9);
+    }
+
+    @Test
+    public void sameSeedGivesSameGamesWithSeveralThreads() {
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register("parallel", () -> new IsmctsStrategy(200, 0, 3, 5));
+        List<String> seats = Arrays.asList("parallel", "ai", "ai");
+        String first = new Arena(registry, seats, 9, 1).run(10).toString();
+        String second = new Arena(registry, seats, 9, 2).run(10).toString();
+        assertEquals(first, second);
+    }
+}
@@ -0,0 +1,111 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MoveValidationTest {
+
+    private static final Card TOP = Card.of(Card.Suit.HEARTS, Card.Rank.QUEEN);
+    private static final long HAND = CardMask.of(Arrays.asList(Card.of(Card.Suit.HEARTS, Card.Rank.TWO),
+            Card.of(Card.Suit.SPADES, Card.Rank.QUEEN), Card.of(Card.Suit.CLUBS, Card.Rank.FIVE),
+            Card.of(Card.Suit.DIAMONDS, Card.Rank.EIGHT)));
+
+    @Test
+    public void legalMovesPass() {
+        assertEquals(MoveValidation.LEGAL, check(true, null, null));
+        assertEquals(MoveValidation.LEGAL, check(false, Card.of(Card.Suit.HEARTS, Card.Rank.TWO), null));
+        assertEquals(MoveValidation.LEGAL, check(false, Card.of(Card.Suit.SPADES, Card.Rank.QUEEN), null));
+        assertEquals(MoveValidation.LEGAL, check(false, Card.of(Card.Suit.DIAMONDS, Card.Rank.EIGHT),
+                Card.Suit.CLUBS));
+    }
+
+    @Test
+    public void everyRuleIsChecked() {
+        assertEquals(MoveValidation.NO_CARD, check(false, null, null));
+        assertEquals(MoveValidation.CARD_NOT_HELD, check(false, Card.of(Card.Suit.HEARTS, Card.Rank.ACE), null));
+        assertEquals(MoveValidation.CARD_NOT_HELD, check(false, new Card(null, Card.Rank.ACE), null));
+        assertEquals(MoveValidation.CARD_NOT_PLAYABLE, check(false, Card.of(Card.Suit.CLUBS, Card.Rank.FIVE),
+                null));
+        assertEquals(MoveValidation.NO_SUIT_DECLARED, check(false, Card.of(Card.Suit.DIAMONDS, Card.Rank.EIGHT),
+                null));
+        assertEquals(MoveValidation.DRAW_PILE_EMPTY, MoveValidation.check(HAND, TOP, null, 0, true, null, null));
+    }
+
+    @Test
+    public void theDeclaredSuitReplacesTheTopCardsSuit() {
+        Card five = Card.of(Card.Suit.CLUBS, Card.Rank.FIVE);
+        Card eight = Card.of(Card.Suit.SPADES, Card.Rank.EIGHT);
+        Card queen = Card.of(Card.Suit.SPADES, Card.Rank.QUEEN);
+        assertEquals(MoveValidation.LEGAL, MoveValidation.check(HAND, eight, Card.Suit.CLUBS, 10, false, five,
+                null));
+        assertEquals(MoveValidation.CARD_NOT_PLAYABLE, MoveValidation.check(HAND, eight, Card.Suit.HEARTS, 10,
+                false, queen, null));
+    }
+
+    @Test
+    public void aiGamesAreAlwaysLegal() {
+        GameTable table = new GameTable(new StrategyRegistry(), Arrays.asList("ai", "ai", "ai", "ai"));
+        for (long seed = 0; seed < 200; seed++) {
+            Game game = table.startGame(seed);
+            while (!game.isOver()) {
+                game.beginTurn();
+                assertEquals(MoveValidation.LEGAL, game.decideTurn());
+            }
+            assertNull(game.getIllegalMove());
+        }
+    }
+
+    @Test
+    public void cheatingEndsTheGameAndScoresNothing() {
+        GameTable table = new GameTable(Arrays.asList("cheat", "ai"),
+                Arrays.asList(new CheatingAI(), new PlayerAI()));
+        Game game = table.startGame(3);
+        MoveValidation last = MoveValidation.LEGAL;
+        while (!game.isOver()) {
+            game.beginTurn();
+            last = game.decideTurn();
+        }
+        assertEquals(MoveValidation.CARD_NOT_HELD, last);
+        assertEquals(MoveValidation.CARD_NOT_HELD, game.getIllegalMove());
+        assertSame(table.getPlayers().get(0), game.getCheater());
+
+        GameResult result = table.getResult();
+        assertEquals(GameResult.Ending.ILLEGAL_MOVE, result.getEnding());
+        assertEquals(0, result.getScore(0));
+        assertTrue(result.getScore(1) > 0);
+    }
+
+    private static MoveValidation check(boolean drawsACard, Card played, Card.Suit declares) {
+        return MoveValidation.check(HAND, TOP, null, 10, drawsACard, played, declares);
+    }
+
+    /**
+     * Plays a card it does not hold on its first turn.
+     */
+    private static final class CheatingAI extends PlayerAI {
+        private long hand;
+
+        @Override
+        public void receiveInitialCards(List<Card> cards) {
+            super.receiveInitialCards(cards);
+            hand = CardMask.of(cards);
+        }
+
+        @Override
+        public boolean shouldDrawCard(Card topPileCard, Card.Suit changedSuit) {
+            return false;
+        }
+
+        @Override
+        public Card playCard() {
+            return CardMask.first(CardMask.FULL_DECK & ~hand);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package student.crazyeights;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OpponentModelTest {
+
+    private static final int ME = 0;
+    private static final int OPPONENT = 1;
+
+    private static final Card TOP = Card.of(Card.Suit.HEARTS, Card.Rank.TWO);
+    private static final Card HEARTS_EIGHT = Card.of(Card.Suit.HEARTS, Card.Rank.EIGHT);
+
+    private OpponentModel model;
+
+    @Before
+    public void setUp() {
+        model = new OpponentModel(Collections.singletonList(OPPONENT));
+        model.observe(played(Game.INITIAL_TOP_CARD_ID, TOP, null));
+    }
+
+    @Test
+    public void drawingMeansNoPlayableCardButAnEight() {
+        model.observe(drew(OPPONENT));
+
+        long hearts = CardMask.ofSuit(CardMask.FULL_DECK, Card.Suit.HEARTS);
+        long twos = CardMask.ofRank(CardMask.FULL_DECK, Card.Rank.TWO);
+        assertEquals((hearts | twos) & ~CardMask.EIGHTS, model.getVoid(OPPONENT));
+        assertFalse(CardMask.contains(model.getVoid(OPPONENT), HEARTS_EIGHT));
+        assertEquals(1, model.getUnknownCards(OPPONENT));
+        assertFalse(model.isVoidIn(OPPONENT, Card.Suit.HEARTS));
+    }
+
+    @Test
+    public void playingFromTheVoidUsesUpTheUnknownCard() {
+        model.observe(drew(OPPONENT));
+        model.observe(played(ME, Card.of(Card.Suit.HEARTS, Card.Rank.SIX), null));
+        model.observe(played(OPPONENT, Card.of(Card.Suit.HEARTS, Card.Rank.KING), null));
+
+        assertEquals(0, model.getUnknownCards(OPPONENT));
+        assertTrue(model.isVoidIn(OPPONENT, Card.Suit.HEARTS));
+        assertFalse(model.isVoidIn(OPPONENT, Card.Suit.SPADES));
+    }
+
+    @Test
+    public void declaredSuitReplacesTheTopCardsSuit() {
+        model.observe(played(ME, Card.of(Card.Suit.CLUBS, Card.Rank.EIGHT), Card.Suit.SPADES));
+        model.observe(drew(OPPONENT));
+
+        long spades = CardMask.ofSuit(CardMask.FULL_DECK, Card.Suit.SPADES) & ~CardMask.EIGHTS;
+        assertEquals(spades, model.getVoid(OPPONENT));
+    }
+
+    @Test
+    public void theNextDrawReplacesTheVoid() {
+        model.observe(drew(OPPONENT));
+        model.observe(played(ME, Card.of(Card.Suit.CLUBS, Card.Rank.TWO), null));
+        model.observe(drew(OPPONENT));
+
+        long clubs = CardMask.ofSuit(CardMask.FULL_DECK, Card.Suit.CLUBS);
+        long twos = CardMask.ofRank(CardMask.FULL_DECK, Card.Rank.TWO);
+        assertEquals((clubs | twos) & ~CardMask.EIGHTS, model.getVoid(OPPONENT));
+        assertEquals(1, model.getUnknownCards(OPPONENT));
+    }
+
+    @Test
+    public void resetForgetsTheVoid() {
+        model.observe(drew(OPPONENT));
+        model.reset();
+        model.observe(played(Game.INITIAL_TOP_CARD_ID, TOP, null));
+
+        assertEquals(CardMask.EMPTY, model.getVoid(OPPONENT));
+        assertEquals(0, model.getUnknownCards(OPPONENT));
+    }
+
+    @Test
+    public void declarationsAreCounted() {
+        assertNull(model.getFavoriteSuit(OPPONENT));
+        model.observe(played(OPPONENT, HEARTS_EIGHT, Card.Suit.CLUBS));
+        model.observe(played(OPPONENT, Card.of(Card.Suit.SPADES, Card.Rank.EIGHT), Card.Suit.CLUBS));
+        model.observe(played(OPPONENT, Card.of(Card.Suit.CLUBS, Card.Rank.EIGHT), Card.Suit.DIAMONDS));
+        model.observe(played(ME, Card.of(Card.Suit.DIAMONDS, Card.Rank.EIGHT), Card.Suit.HEARTS));
+
+        assertEquals(2, model.getDeclarations(OPPONENT, Card.Suit.CLUBS));
+        assertEquals(1, model.getDeclarations(OPPONENT, Card.Suit.DIAMONDS));
+        assertEquals(0, model.getDeclarations(OPPONENT, Card.Suit.HEARTS));
+        assertEquals(0, model.getDeclarations(ME, Card.Suit.HEARTS));
+        assertEquals(Card.Suit.CLUBS, model.getFavoriteSuit(OPPONENT));
+    }
+
+    @Test
+    public void resetForgetsTheDeclarations() {
+        model.observe(played(OPPONENT, HEARTS_EIGHT, Card.Suit.CLUBS));
+        model.reset();
+
+        assertEquals(0, model.getDeclarations(OPPONENT, Card.Suit.CLUBS));
+        assertNull(model.getFavoriteSuit(OPPONENT));
+    }
+
+    @Test
+    public void aiDeclaresAroundTheNextPlayersFavoriteSuit() {
+        PlayerAI ai = new PlayerAI();
+        ai.init(ME, Collections.singletonList(OPPONENT));
+        ai.receiveInitialCards(Arrays.asList(Card.of(Card.Suit.CLUBS, Card.Rank.THREE),
+                Card.of(Card.Suit.CLUBS, Card.Rank.FOUR), Card.of(Card.Suit.SPADES, Card.Rank.THREE),
+                Card.of(Card.Suit.SPADES, Card.Rank.FOUR), Card.of(Card.Suit.HEARTS, Card.Rank.EIGHT)));
+        ai.processOpponentActions(Arrays.asList(played(Game.INITIAL_TOP_CARD_ID, TOP, null),
+                played(OPPONENT, Card.of(Card.Suit.DIAMONDS, Card.Rank.EIGHT), Card.Suit.CLUBS)));
+
+        // Clubs and spades tie on count; the opponent likes clubs.
+        assertEquals(Card.Suit.SPADES, ai.declareSuit());
+    }
+
+    @Test
+    public void aiLeavesTheNextPlayerASuitItCannotFollow() {
+        PlayerAI ai = new PlayerAI();
+        ai.init(ME, Collections.singletonList(OPPONENT));
+        Card spadesKing = Card.of(Card.Suit.SPADES, Card.Rank.KING);
+        Card heartsThree = Card.of(Card.Suit.HEARTS, Card.Rank.THREE);
+        ai.receiveInitialCards(Arrays.asList(spadesKing, heartsThree, Card.of(Card.Suit.CLUBS, Card.Rank.FOUR)));
+        // The opponent drew on hearts, and then played the one card it drew.
+        ai.processOpponentActions(Arrays.asList(played(Game.INITIAL_TOP_CARD_ID, TOP, null), drew(OPPONENT),
+                played(OPPONENT, Card.of(Card.Suit.HEARTS, Card.Rank.KING), null)));
+
+        assertFalse(ai.shouldDrawCard(Card.of(Card.Suit.HEARTS, Card.Rank.KING), null));
+        // The king of spades is worth more, but the opponent could follow it with a spade.
+        assertEquals(heartsThree, ai.suggestCard());
+    }
+
+    @Test
+    public void trackerLeavesTheVoidOutOfTheOpponentsHand() {
+        UnseenCardTracker tracker = new UnseenCardTracker(ME, Collections.singletonList(OPPONENT));
+        tracker.reset();
+        tracker.setHand(CardMask.of(Arrays.asList(Card.of(Card.Suit.SPADES, Card.Rank.NINE))));
+        tracker.observe(played(Game.INITIAL_TOP_CARD_ID, TOP, null));
+        tracker.observe(drew(OPPONENT));
+
+        // Eight cards: seven from outside the void, and the one drawn from any unseen card.
+        long outsideVoid = tracker.getUnseen() & ~tracker.getOpponentModel().getVoid(OPPONENT);
+        long hearts = CardMask.ofSuit(CardMask.FULL_DECK, Card.Suit.HEARTS);
+        double expected = 7.0 * CardMask.count(outsideVoid & hearts) / CardMask.count(outsideVoid)
+                + (double) CardMask.count(tracker.getUnseen() & hearts) / CardMask.count(tracker.getUnseen());
+        assertEquals(expected, tracker.expectedCount(OPPONENT, hearts), 1e-12);
+        assertTrue(tracker.probabilityOfSuit(OPPONENT, Card.Suit.HEARTS)
+                < tracker.probabilityOfSuit(OPPONENT, Card.Suit.SPADES));
+    }
+
+    private static PlayerTurn played(int playerId, Card card, Card.Suit declaredSuit) {
+        PlayerTurn turn = new PlayerTurn();
+        turn.setPlayerId(playerId);
+        turn.setPlayedCard(card);
+        turn.setDeclaredSuit(declaredSuit);
+        return turn;
+    }
+
+    private static PlayerTurn drew(int playerId) {
+        PlayerTurn turn = new PlayerTurn();
+        turn.setPlayerId(playerId);
+        turn.setDrewACard(true);
+        return turn;
+    }
+}
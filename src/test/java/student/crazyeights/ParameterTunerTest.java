@@ -0,0 +1,83 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParameterTunerTest {
+
+    @Test
+    public void defaultParametersPlayLikeTheDefaultAi() {
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register("default", () -> new PlayerAI(AiParameters.DEFAULT));
+        for (long seed = 0; seed < 200; seed++) {
+            GameResult ai = SimulationRunner.playGame(seed, registry, Arrays.asList("ai", "ai", "ai"));
+            GameResult tuned = SimulationRunner.playGame(seed, registry, Arrays.asList("default", "default", "default"));
+            assertArrayEquals(ai.getScores(), tuned.getScores());
+            assertEquals(ai.getNumberOfTurns(), tuned.getNumberOfTurns());
+        }
+    }
+
+    @Test
+    public void parametersAreClampedToTheirRange() {
+        AiParameters parameters = new AiParameters(-5, 100, 1, 0, 3, 2, 1, 1);
+        assertEquals(AiParameters.getMin(AiParameters.EIGHT_HAND_SIZE), parameters.get(AiParameters.EIGHT_HAND_SIZE));
+        assertEquals(AiParameters.getMax(AiParameters.EIGHT_DRAW_PILE_SIZE),
+                parameters.get(AiParameters.EIGHT_DRAW_PILE_SIZE));
+        assertEquals(1, parameters.get(AiParameters.VALUE_CANDIDATES));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongNumberOfParametersIsRejected() {
+        new AiParameters(1, 2, 3);
+    }
+
+    @Test
+    public void parseReadsWhatToStringWrites() {
+        AiParameters parameters = new AiParameters(1, 4, 1, 4, 1, 2, 0, 1);
+        assertEquals(parameters, AiParameters.parse(parameters.toString()));
+        assertEquals(AiParameters.DEFAULT, AiParameters.parse(""));
+        assertEquals(3, AiParameters.parse("suitWeight=3").get(AiParameters.SUIT_WEIGHT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseRejectsUnknownNames() {
+        AiParameters.parse("bluffWeight=3");
+    }
+
+    @Test
+    public void mutationsChangeSomethingAndStayInRange() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            AiParameters mutated = ParameterTuner.mutate(AiParameters.DEFAULT, 0.02, random);
+            assertNotEquals(AiParameters.DEFAULT, mutated);
+            for (int p = 0; p < AiParameters.size(); p++) {
+                assertTrue(mutated.get(p) >= AiParameters.getMin(p) && mutated.get(p) <= AiParameters.getMax(p));
+            }
+        }
+    }
+
+    @Test
+    public void defaultParametersWinEveryDealAsOftenAsTheyLose() {
+        // Playing every deal from both seats against itself, a candidate wins exactly half.
+        ParameterTuner tuner = new ParameterTuner(2, 100, 1, 3, 2);
+        StatsAggregator.Stats stats = tuner.evaluate(new AiParameters[] {AiParameters.DEFAULT}, 11)[0];
+        assertEquals(200, stats.getCount());
+        assertEquals(0.5, stats.getWinRate(), 1e-9);
+    }
+
+    @Test
+    public void tuningDoesNotDependOnTheNumberOfThreads() {
+        ParameterTuner.Result single = new ParameterTuner(3, 150, 3, 42, 1).tune(3);
+        ParameterTuner.Result parallel = new ParameterTuner(3, 150, 3, 42, 4).tune(3);
+        assertEquals(single.getParameters(), parallel.getParameters());
+        assertEquals(single.getWinRate(), parallel.getWinRate(), 0);
+        assertEquals(450, single.getStats().getCount());
+    }
+}
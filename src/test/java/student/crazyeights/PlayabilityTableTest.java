@@ -0,0 +1,53 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PlayabilityTableTest {
+
+    private static boolean canPlayBySuitAndRank(Card card, Card top, Card.Suit declared) {
+        if (card.getRank() == Card.Rank.EIGHT) {
+            return true;
+        }
+        if (declared != null) {
+            return card.getSuit() == declared;
+        }
+        return card.getSuit() == top.getSuit() || card.getRank() == top.getRank();
+    }
+
+    @Test
+    public void tableMatchesTheRules() {
+        Card.Suit[] declaredSuits = {null, Card.Suit.CLUBS, Card.Suit.DIAMONDS, Card.Suit.HEARTS, Card.Suit.SPADES};
+        for (Card top : Card.getDeck()) {
+            for (Card.Suit declared : declaredSuits) {
+                for (Card card : Card.getDeck()) {
+                    assertEquals(top + " / " + declared + " / " + card, canPlayBySuitAndRank(card, top, declared),
+                            PlayabilityTable.canPlay(card, top, declared));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void eightsAreKeptApart() {
+        Card top = Card.of(Card.Suit.HEARTS, Card.Rank.EIGHT);
+        long notEights = PlayabilityTable.playableNotEights(top, Card.Suit.SPADES);
+        assertEquals(12, CardMask.count(notEights));
+        assertEquals(CardMask.EMPTY, notEights & CardMask.EIGHTS);
+        assertEquals(notEights | CardMask.EIGHTS, PlayabilityTable.playable(top, Card.Suit.SPADES));
+    }
+
+    @Test
+    public void idsAndCardsGiveTheSameMasks() {
+        Card top = Card.of(Card.Suit.CLUBS, Card.Rank.QUEEN);
+        assertEquals(PlayabilityTable.playable(top, null),
+                PlayabilityTable.playable(top.getId(), PlayabilityTable.NO_DECLARED_SUIT));
+        assertEquals(PlayabilityTable.playable(top, Card.Suit.HEARTS),
+                PlayabilityTable.playable(top.getId(), Card.Suit.HEARTS.ordinal()));
+        assertTrue(PlayabilityTable.canPlay(Card.of(Card.Suit.SPADES, Card.Rank.QUEEN), top, null));
+        assertFalse(PlayabilityTable.canPlay(Card.of(Card.Suit.SPADES, Card.Rank.KING), top, null));
+    }
+}
@@ -0,0 +1,59 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class SimulationRunnerTest {
+
+    private static final long MASTER_SEED = 126;
+
+    @Test
+    public void gamesAreIdenticalWhateverTheThreadCount() {
+        GameResult[] oneThread = new SimulationRunner(MASTER_SEED, 1).runGames(200, 4);
+        GameResult[] fourThreads = new SimulationRunner(MASTER_SEED, 4).runGames(200, 4);
+        assertArrayEquals(oneThread, fourThreads);
+    }
+
+    @Test
+    public void tournamentsAreIdenticalWhateverTheThreadCount() {
+        long[][] oneThread = new SimulationRunner(MASTER_SEED, 1).runTournaments(20, 3);
+        long[][] threeThreads = new SimulationRunner(MASTER_SEED, 3).runTournaments(20, 3);
+        assertArrayEquals(oneThread, threeThreads);
+    }
+
+    @Test
+    public void gameDependsOnlyOnItsOwnSeed() {
+        GameResult[] results = new SimulationRunner(MASTER_SEED, 2).runGames(10, 5);
+        GameResult replayed = SimulationRunner.playGame(results[7].getSeed(), 5);
+        assertEquals(results[7], replayed);
+    }
+
+    @Test
+    public void everyGeneratorPlaysReproducibleGames() {
+        List<String> seats = Arrays.asList("ai", "ai", "ai");
+        StrategyRegistry registry = new StrategyRegistry();
+        GameResult[] jdk = new SimulationRunner(MASTER_SEED, 2).runGames(20, registry, i -> seats);
+        for (RandomAlgorithm algorithm : RandomAlgorithm.values()) {
+            GameResult[] results = new SimulationRunner(MASTER_SEED, 2, algorithm).runGames(20, registry, i -> seats);
+            GameResult replayed = SimulationRunner.playGame(results[7].getSeed(), registry, seats, algorithm, null);
+            assertEquals(results[7], replayed);
+            GameRecord record = SimulationRunner.recordGame(results[3].getSeed(), registry, seats, algorithm);
+            assertEquals(GameReplayer.NO_DIVERGENCE, new GameReplayer(registry, 1).findDivergence(record));
+            if (algorithm != RandomAlgorithm.JDK) {
+                assertNotEquals(Arrays.asList(jdk), Arrays.asList(results));
+            }
+        }
+    }
+
+    @Test
+    public void gamesGetDifferentSeeds() {
+        GameResult[] results = new SimulationRunner(MASTER_SEED, 2).runGames(2, 2);
+        assertNotEquals(results[0].getSeed(), results[1].getSeed());
+    }
+}
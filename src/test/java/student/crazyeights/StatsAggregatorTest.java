@@ -0,0 +1,126 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StatsAggregatorTest {
+
+    private static GameResult result(int turns, int... scores) {
+        return result(GameResult.Ending.DRAW_PILE_EMPTY, turns, scores);
+    }
+
+    private static GameResult result(GameResult.Ending ending, int turns, int... scores) {
+        String[] strategies = new String[scores.length];
+        Arrays.fill(strategies, "ai");
+        strategies[0] = "first";
+        return new GameResult(0, strategies, scores, ending, turns);
+    }
+
+    @Test
+    public void endingIsTakenFromTheGame() {
+        assertTrue(result(GameResult.Ending.EMPTY_HAND, 20, 15, 5, 10).endedWithEmptyHand());
+        assertFalse(result(GameResult.Ending.DRAW_PILE_EMPTY, 20, 15, 8, 13).endedWithEmptyHand());
+        // The cheater scores nothing, which looks like an empty hand in the scores alone.
+        assertFalse(result(GameResult.Ending.ILLEGAL_MOVE, 20, 0, 5, 10).endedWithEmptyHand());
+
+        GameTable table = new GameTable(new StrategyRegistry(), Arrays.asList("ai", "ai", "ai"));
+        for (long seed = 0; seed < 50; seed++) {
+            GameResult result = table.play(seed);
+            boolean emptyHand = false;
+            for (int seat = 0; seat < 3; seat++) {
+                emptyHand |= table.getPlayers().get(seat).getHand().isEmpty();
+            }
+            assertEquals(emptyHand, result.endedWithEmptyHand());
+        }
+    }
+
+    @Test
+    public void everyEndingIsCountedOnItsOwn() {
+        StatsAggregator stats = new StatsAggregator();
+        stats.add(result(GameResult.Ending.EMPTY_HAND, 20, 15, 5, 10));
+        stats.add(result(GameResult.Ending.DRAW_PILE_EMPTY, 52, 15, 8, 13));
+        stats.add(result(GameResult.Ending.ILLEGAL_MOVE, 3, 0, 5, 10));
+        stats.add(result(GameResult.Ending.ILLEGAL_MOVE, 4, 9, 0, 10));
+
+        StatsAggregator.Stats games = stats.getGameStats();
+        assertEquals(1, games.getEmptyHandEndings());
+        assertEquals(1, games.getDrawPileEndings());
+        assertEquals(2, games.getEndingCount(GameResult.Ending.ILLEGAL_MOVE));
+        assertEquals(0.25, games.getEmptyHandRate(), 1e-12);
+        assertEquals(2, stats.getStrategyStats("first").getEndingCount(GameResult.Ending.ILLEGAL_MOVE));
+        assertTrue(stats.toString().contains("2 with an illegal move"));
+    }
+
+    @Test
+    public void meanAndVarianceMatchTheTextbookFormulas() {
+        int[] scores = {15, 5, 40, 22, 0, 31};
+        StatsAggregator stats = new StatsAggregator();
+        for (int i = 0; i < scores.length; i++) {
+            stats.add(result(10 + i, scores[i], 1));
+        }
+        StatsAggregator.Stats first = stats.getStrategyStats("first");
+
+        double mean = Arrays.stream(scores).average().getAsDouble();
+        double variance = Arrays.stream(scores).mapToDouble(s -> (s - mean) * (s - mean)).sum() / (scores.length - 1);
+        assertEquals(scores.length, first.getCount());
+        assertEquals(mean, first.getMeanScore(), 1e-9);
+        assertEquals(variance, first.getScoreVariance(), 1e-9);
+        assertEquals(12.5, first.getMeanLength(), 1e-9);
+        assertEquals(1, first.getLengthCount(13));
+    }
+
+    @Test
+    public void mergingEqualsAddingEverythingToOne() {
+        StatsAggregator all = new StatsAggregator();
+        StatsAggregator left = new StatsAggregator();
+        StatsAggregator right = new StatsAggregator();
+        for (int i = 0; i < 40; i++) {
+            GameResult.Ending ending = i % 3 == 0 ? GameResult.Ending.EMPTY_HAND : GameResult.Ending.DRAW_PILE_EMPTY;
+            GameResult game = result(ending, 20 + i % 7, i % 5 * 7, 30 - i % 3, i);
+            all.add(game);
+            (i < 13 ? left : right).add(game);
+        }
+        left.merge(right);
+
+        for (String strategy : all.getStrategies()) {
+            StatsAggregator.Stats expected = all.getStrategyStats(strategy);
+            StatsAggregator.Stats merged = left.getStrategyStats(strategy);
+            assertEquals(expected.getCount(), merged.getCount());
+            assertEquals(expected.getWinRate(), merged.getWinRate(), 1e-12);
+            assertEquals(expected.getMeanScore(), merged.getMeanScore(), 1e-9);
+            assertEquals(expected.getScoreVariance(), merged.getScoreVariance(), 1e-9);
+            for (GameResult.Ending ending : GameResult.Ending.values()) {
+                assertEquals(expected.getEndingCount(ending), merged.getEndingCount(ending));
+            }
+            assertEquals(expected.getMeanLength(), merged.getMeanLength(), 1e-12);
+        }
+        assertEquals(40, left.getNumberOfGames());
+    }
+
+    @Test
+    public void winRateIntervalHoldsTheWinRate() {
+        StatsAggregator stats = new StatsAggregator();
+        for (int i = 0; i < 30; i++) {
+            stats.add(i % 3 == 0 ? result(20, 9, 1) : result(20, 1, 9));
+        }
+        double[] interval = stats.getSeatStats(0).getWinRateInterval(StatsAggregator.Z_95);
+        assertEquals(1.0 / 3, stats.getSeatStats(0).getWinRate(), 1e-12);
+        assertTrue(interval[0] > 0.15 && interval[0] < 1.0 / 3);
+        assertTrue(interval[1] > 1.0 / 3 && interval[1] < 0.55);
+    }
+
+    @Test
+    public void statisticsDoNotDependOnTheNumberOfThreads() {
+        List<String> seats = Arrays.asList("ai", "ai", "ai");
+        StrategyRegistry registry = new StrategyRegistry();
+        String one = new SimulationRunner(4, 1).aggregateGames(600, registry, i -> seats).toString();
+        String three = new SimulationRunner(4, 3).aggregateGames(600, registry, i -> seats).toString();
+        assertEquals(one, three);
+    }
+}
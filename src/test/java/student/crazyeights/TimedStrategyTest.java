@@ -0,0 +1,165 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimedStrategyTest {
+
+    private static final long DEADLINE = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    public void timingDoesNotChangeTheGames() {
+        StrategyTimings timings = new StrategyTimings();
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.setDecorator(TimedStrategy.decorator(timings, TimeUnit.SECONDS.toNanos(10), false));
+        GameTable timed = new GameTable(registry, Arrays.asList("ai", "ai", "ai"));
+        GameTable plain = new GameTable(new StrategyRegistry(), Arrays.asList("ai", "ai", "ai"));
+        for (long seed = 0; seed < 200; seed++) {
+            GameResult result = timed.play(seed);
+            GameResult expected = plain.play(seed);
+            assertArrayEquals(expected.getScores(), result.getScores());
+            assertEquals(expected.getNumberOfTurns(), result.getNumberOfTurns());
+        }
+
+        assertEquals(Arrays.asList("ai"), new ArrayList<>(timings.getStrategies()));
+        LatencyHistogram decisions = timings.getHistogram("ai", TimedStrategy.Callback.SHOULD_DRAW_CARD);
+        assertTrue(decisions.getCalls() > 0);
+        assertEquals(decisions.getCalls(), decisions.getCount());
+        assertEquals(0, decisions.getViolations());
+        LatencyHistogram notifications = timings.getHistogram("ai", TimedStrategy.Callback.RECEIVE_CARD);
+        assertTrue(notifications.getCount() < notifications.getCalls());
+        assertEquals(3 * 200, timings.getHistogram("ai", TimedStrategy.Callback.RECEIVE_INITIAL_CARDS).getCalls());
+    }
+
+    @Test
+    public void lateDecisionsArePlayedSafelyUntilTheNextGame() {
+        StrategyTimings timings = new StrategyTimings();
+        SlowAI slow = new SlowAI();
+        TimedStrategy timed = new TimedStrategy(slow, "slow", timings, DEADLINE, false);
+        GameTable table = new GameTable(Arrays.asList("slow", "ai"), Arrays.asList(timed, new PlayerAI()));
+
+        slow.late = 1;
+        table.play(1);
+        assertTrue(timed.isBenched());
+        assertEquals(1, timings.getHistogram("slow", TimedStrategy.Callback.PLAY_CARD).getViolations());
+        // Benched strategies are not asked again.
+        assertEquals(1, slow.plays);
+
+        table.play(2);
+        assertFalse(timed.isBenched());
+        assertTrue(slow.plays > 1);
+    }
+
+    @Test(timeout = 10_000)
+    public void hungStrategiesSitOutGamesUntilTheyReturn() throws InterruptedException {
+        StrategyTimings timings = new StrategyTimings();
+        HungAI hung = new HungAI();
+        TimedStrategy timed = new TimedStrategy(hung, "hung", timings, DEADLINE, true);
+        GameTable table = new GameTable(Arrays.asList("hung", "ai"), Arrays.asList(timed, new PlayerAI()));
+
+        GameResult first = table.play(1);
+        assertTrue(first.getNumberOfTurns() > 0);
+        assertTrue(timed.isBenched());
+        table.play(2);
+        assertTrue(timed.isBenched());
+
+        hung.release.countDown();
+        hung.returned.await();
+        // The call may take a moment to be seen as done once it returned.
+        for (int wait = 0; wait < 100 && timed.isBenched(); wait++) {
+            Thread.sleep(10);
+            table.play(3);
+        }
+        assertFalse(timed.isBenched());
+        assertEquals(1, timings.getHistogram("hung", TimedStrategy.Callback.PLAY_CARD).getViolations());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void isolatedStrategiesNeedADeadline() {
+        new TimedStrategy(new PlayerAI(), "ai", new StrategyTimings(), 0, true);
+    }
+
+    @Test
+    public void percentilesAreWithinABucketOfTheTruth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100_000; nanos++) {
+            histogram.record(nanos);
+        }
+        histogram.recordCall();
+        assertEquals(100_001, histogram.getCalls());
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000, histogram.getPercentile(0.5), 50_000 / 8.0);
+        assertEquals(99_000, histogram.getPercentile(0.99), 99_000 / 8.0);
+        assertEquals(100_000, histogram.getPercentile(1));
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(TimeUnit.SECONDS.toNanos(1));
+        other.recordViolation();
+        histogram.merge(other);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), histogram.getMax());
+        assertEquals(1, histogram.getViolations());
+    }
+
+    @Test
+    public void bucketsCoverEveryDuration() {
+        for (long nanos : new long[] {0, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(nanos);
+            assertTrue(nanos <= LatencyHistogram.upperBound(bucket));
+            assertTrue(bucket == 0 || nanos > LatencyHistogram.upperBound(bucket - 1));
+        }
+    }
+
+    /**
+     * Takes longer than the deadline for the given number of plays.
+     */
+    private static final class SlowAI extends PlayerAI {
+        private int late;
+        private int plays;
+
+        @Override
+        public Card playCard() {
+            plays++;
+            if (late > 0) {
+                late--;
+                try {
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(DEADLINE) * 3);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.playCard();
+        }
+    }
+
+    /**
+     * Does not come back from its first play until it is released.
+     */
+    private static final class HungAI extends PlayerAI {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch returned = new CountDownLatch(1);
+
+        @Override
+        public Card playCard() {
+            if (returned.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                returned.countDown();
+            }
+            return super.playCard();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package student.crazyeights;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TournamentTest {
+
+    private static final long[] SEEDS = {1, 7, 42, 126, 2020};
+
+    @Test
+    public void headlessTournamentMatchesConsoleTournament() {
+        for (long seed : SEEDS) {
+            for (int numOfPlayers = 2; numOfPlayers <= 7; numOfPlayers++) {
+                Tournament headless = new Tournament(new Random(seed), numOfPlayers);
+                headless.startTournament();
+
+                Tournament console = new Tournament(silentConsole(numOfPlayers), new Random(seed));
+                console.startTournament();
+
+                assertEquals(scoresByName(console), scoresByName(headless));
+            }
+        }
+    }
+
+    @Test
+    public void headlessTournamentPrintsNothing() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(out));
+        try {
+            new Tournament(new Random(1), 4).startTournament();
+        } finally {
+            System.setOut(originalOut);
+        }
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void headlessTournamentSeatsEveryPlayer() {
+        Tournament tournament = new Tournament(new Random(7), 5);
+        tournament.startTournament();
+        assertEquals(5, tournament.getPlayers().size());
+        assertTrue(tournament.getPlayers().get(0).isHeadless());
+    }
+
+    @Test
+    public void playerIdsAreSeats() {
+        Tournament tournament = new Tournament(new Random(3), 6);
+        tournament.startTournament();
+        for (int seat = 0; seat < 6; seat++) {
+            assertEquals(seat, tournament.getPlayers().get(seat).getId());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void headlessTournamentRejectsTooManyPlayers() {
+        new Tournament(new Random(), 8);
+    }
+
+    private static ConsoleUI silentConsole(int numOfPlayers) {
+        byte[] input = (numOfPlayers + "\n").getBytes(StandardCharsets.UTF_8);
+        return new ConsoleUI(new ByteArrayInputStream(input), new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    private static Map<String, Long> scoresByName(Tournament tournament) {
+        Map<String, Long> scores = new LinkedHashMap<>();
+        for (Player p : tournament.getPlayers()) {
+            scores.put(p.getName(), tournament.getTournamentScore()[p.getId()]);
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,89 @@
+package student.crazyeights;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class UnseenCardTrackerTest {
+
+    private static final double DELTA = 1e-12;
+
+    private static final Card TOP = Card.of(Card.Suit.HEARTS, Card.Rank.TWO);
+    private static final Card OWN_KING = Card.of(Card.Suit.HEARTS, Card.Rank.KING);
+    private static final Card DRAWN = Card.of(Card.Suit.CLUBS, Card.Rank.FIVE);
+    private static final Card OPPONENT_ACE = Card.of(Card.Suit.HEARTS, Card.Rank.ACE);
+
+    private UnseenCardTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new UnseenCardTracker(1, Collections.singletonList(2));
+        tracker.reset();
+        tracker.setHand(CardMask.of(Arrays.asList(OWN_KING, Card.of(Card.Suit.SPADES, Card.Rank.NINE))));
+    }
+
+    @Test
+    public void unseenCardsAreEverythingButTheHandAndThePlayedCards() {
+        tracker.observe(played(Game.INITIAL_TOP_CARD_ID, TOP));
+        tracker.addToHand(DRAWN);
+        tracker.observe(drew(1));
+        tracker.observe(played(2, OPPONENT_ACE));
+        tracker.removeFromHand(OWN_KING);
+        tracker.observe(played(1, OWN_KING));
+
+        assertEquals(52 - 2 - 3, CardMask.count(tracker.getUnseen()));
+        assertEquals(CardMask.of(Arrays.asList(TOP, OPPONENT_ACE, OWN_KING)), tracker.getPlayed());
+        assertEquals(CardMask.of(Arrays.asList(DRAWN, Card.of(Card.Suit.SPADES, Card.Rank.NINE))), tracker.getHand());
+        assertEquals(6, tracker.getHandSize(2));
+        assertEquals(52 - 1 - 14 - 1, tracker.getDrawPileSize());
+    }
+
+    @Test
+    public void resetForgetsTheLastGame() {
+        tracker.observe(played(Game.INITIAL_TOP_CARD_ID, TOP));
+        tracker.reset();
+        assertEquals(CardMask.FULL_DECK, tracker.getUnseen());
+        assertEquals(7, tracker.getHandSize(2));
+    }
+
+    @Test
+    public void probabilitiesFollowTheHypergeometricDistribution() {
+        tracker.observe(played(Game.INITIAL_TOP_CARD_ID, TOP));
+        // 49 unseen cards, 4 of them eights, and 7 in the opponent's hand.
+        double none = 1;
+        for (int i = 0; i < 7; i++) {
+            none *= (45.0 - i) / (49 - i);
+        }
+        assertEquals(1 - none, tracker.probabilityOfEight(2), DELTA);
+        assertEquals(7 * 4 / 49.0, tracker.expectedCount(2, CardMask.EIGHTS), DELTA);
+        // Hearts: 13 minus the top card and the king in hand.
+        assertEquals(7 * 11 / 49.0, tracker.expectedCount(2, CardMask.ofSuit(CardMask.FULL_DECK, Card.Suit.HEARTS)),
+                DELTA);
+    }
+
+    @Test
+    public void certainAndImpossibleHands() {
+        assertEquals(1, UnseenCardTracker.probabilityOfNone(10, 0, 5), DELTA);
+        assertEquals(0, UnseenCardTracker.probabilityOfNone(10, 6, 5), DELTA);
+        assertEquals(1, UnseenCardTracker.probabilityOfNone(10, 3, 0), DELTA);
+        assertEquals(0.5, UnseenCardTracker.probabilityOfNone(2, 1, 1), DELTA);
+    }
+
+    private static PlayerTurn played(int playerId, Card card) {
+        PlayerTurn turn = new PlayerTurn();
+        turn.setPlayerId(playerId);
+        turn.setPlayedCard(card);
+        return turn;
+    }
+
+    private static PlayerTurn drew(int playerId) {
+        PlayerTurn turn = new PlayerTurn();
+        turn.setPlayerId(playerId);
+        turn.setDrewACard(true);
+        return turn;
+    }
+}